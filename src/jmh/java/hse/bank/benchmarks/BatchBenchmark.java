@@ -0,0 +1,135 @@
+package hse.bank.benchmarks;
+
+import hse.bank.BankingApplication;
+import hse.bank.cmd.CmdResult;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.facades.BankFacade;
+import hse.bank.facades.CommandFacade;
+import hse.bank.records.CommandData;
+import hse.bank.records.OperationData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput of deposits executed one by one and as one batch.
+ *
+ * <p>With one account the whole batch is applied under a single lock, with many accounts the batch splits into
+ * several groups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchBenchmark {
+    /**
+     * Number of commands in the batch.
+     */
+    private static final int BATCH = 1000;
+
+    /**
+     * Number of accounts deposits are spread over.
+     */
+    @Param({"1", "16"})
+    private int accounts;
+
+    /**
+     * Application context.
+     */
+    private ConfigurableApplicationContext context;
+    /**
+     * Facade used to set up the data.
+     */
+    private BankFacade bankFacade;
+    /**
+     * Facade under test.
+     */
+    private CommandFacade commandFacade;
+    /**
+     * Commands of the batch.
+     */
+    private List<CommandData> batch;
+
+    /**
+     * Starts the application.
+     */
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BankingApplication.class).web(WebApplicationType.NONE).run();
+        bankFacade = context.getBean(BankFacade.class);
+        commandFacade = context.getBean(CommandFacade.class);
+    }
+
+    /**
+     * Recreates accounts and deposits, dropping operations of the previous iteration.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bankFacade.flush();
+        List<BankAccount> created = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            created.add(bankFacade.createAccount("Account " + i, 0));
+        }
+        Category category = bankFacade.createCategory("Deposits", true);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new CommandData(
+                CmdType.CREATE,
+                DomainObjectType.OPERATION,
+                new OperationData(true, created.get(i % accounts), 1, category, Optional.empty()),
+                CommandData.MISC_DATA
+            ));
+        }
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    /**
+     * Executes deposits one by one.
+     *
+     * @return Result of the last deposit
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public CmdResult single() {
+        CmdResult result = null;
+        for (CommandData data : batch) {
+            result = commandFacade.execute(data);
+        }
+        return result;
+    }
+
+    /**
+     * Executes deposits as one batch.
+     *
+     * @return Results of the deposits
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<CmdResult> batch() {
+        return commandFacade.executeBatch(batch);
+    }
+}
@@ -0,0 +1,64 @@
+package hse.bank.benchmarks;
+
+import hse.bank.services.exporters.CsvExporter;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time to export the storages as csv with the buffered exporter and with the one it replaced.
+ *
+ * <p>The output is discarded, so only formatting is measured. Run with {@code -prof gc} to compare the memory
+ * allocated per export: the legacy exporter boxes every field and runs the formatter for every row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvExportBenchmark {
+    /**
+     * Number of exported operations.
+     */
+    @Param({"10000", "1000000"})
+    private int operations;
+
+    /**
+     * Exporter formatting into a byte buffer.
+     */
+    private final CsvExporter exporter = new CsvExporter();
+    /**
+     * Exporter formatting every row with printf.
+     */
+    private final LegacyCsvExporter legacyExporter = new LegacyCsvExporter();
+
+    /**
+     * Fills the storages.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        ExportFixture.fill(operations);
+    }
+
+    /**
+     * Exports with the exporter formatting into a byte buffer.
+     */
+    @Benchmark
+    public void buffered() {
+        exporter.exportData(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Exports with the exporter formatting every row with printf.
+     */
+    @Benchmark
+    public void legacy() {
+        legacyExporter.exportData(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,134 @@
+package hse.bank.benchmarks;
+
+import hse.bank.services.exporters.CsvExporter;
+import hse.bank.services.importers.BaseImporter;
+import hse.bank.services.importers.CsvImporter;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Time to import a csv export with the byte level importer, on one thread and on all processors, and with the
+ * importer it replaced.
+ *
+ * <p>The file is exported once to a temporary file, the storages are emptied before every import, so the time
+ * includes parsing and adding the operations. Run with {@code -prof gc} to compare the memory allocated per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvImportBenchmark {
+    /**
+     * Number of imported operations.
+     */
+    @Param({"10000", "1000000"})
+    private int operations;
+
+    /**
+     * Exported file.
+     */
+    private Path file;
+    /**
+     * Byte level importer reading the file line by line.
+     */
+    private final CsvImporter importer = new CsvImporter();
+    /**
+     * Byte level importer parsing large files on all processors.
+     */
+    private final CsvImporter parallelImporter = new CsvImporter();
+    /**
+     * Importer splitting lines.
+     */
+    private final LegacyCsvImporter legacyImporter = new LegacyCsvImporter();
+
+    /**
+     * Exports the file to import.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        importer.setThreads(1);
+        parallelImporter.setThreads(0);
+        ExportFixture.fill(operations);
+        file = Files.createTempFile("bank", ".csv");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            new CsvExporter().exportData(out);
+        }
+    }
+
+    /**
+     * Empties the storages.
+     */
+    @Setup(Level.Invocation)
+    public void clear() {
+        ExportFixture.clear();
+    }
+
+    /**
+     * Deletes the file.
+     *
+     * @throws IOException If the file cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Imports with the byte level importer on one thread.
+     *
+     * @throws IOException If the import fails
+     */
+    @Benchmark
+    public void scanner() throws IOException {
+        run(importer);
+    }
+
+    /**
+     * Imports with the byte level importer on all processors.
+     *
+     * @throws IOException If the import fails
+     */
+    @Benchmark
+    public void parallel() throws IOException {
+        run(parallelImporter);
+    }
+
+    /**
+     * Imports with the importer splitting lines.
+     *
+     * @throws IOException If the import fails
+     */
+    @Benchmark
+    public void legacy() throws IOException {
+        run(legacyImporter);
+    }
+
+    /**
+     * Imports the file.
+     *
+     * @param baseImporter Importer
+     * @throws IOException If the import fails
+     */
+    private void run(BaseImporter baseImporter) throws IOException {
+        try (InputStream in = new FileInputStream(file.toFile())) {
+            baseImporter.importData(in);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package hse.bank.benchmarks;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.BankAccountData;
+import hse.bank.records.CategoryData;
+import hse.bank.records.OperationData;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storages filled for the import and export benchmarks.
+ */
+final class ExportFixture {
+    private ExportFixture() {
+    }
+
+    /**
+     * Replaces the storages with one account, one category and the given number of operations, every fourth with a
+     * description.
+     *
+     * @param operations Number of operations
+     */
+    static void fill(int operations) {
+        clear();
+        BankAccount account = BankAccountFactory.createAccount(new BankAccountData("Account", 0));
+        AccountStorage.addUser(account);
+        Category category = CategoryFactory.createCategory(new CategoryData(true, "Salary"));
+        CategoryStorage.addCategory(category);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Operation> created = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            OperationData data = new OperationData(
+                i % 2 == 0, account, i, category, i % 4 == 0 ? Optional.of("Operation " + i) : Optional.empty()
+            );
+            created.add(OperationFactory.createOperationWithIdAndTime(data, start.plusSeconds(i), i));
+        }
+        OperationStorage.setOperations(created);
+    }
+
+    /**
+     * Empties the storages and resets the ids.
+     */
+    static void clear() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
@@ -0,0 +1,77 @@
+package hse.bank.benchmarks;
+
+import hse.bank.services.exporters.JsonExporter;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time to export the storages as json with the streaming exporter and with the one it replaced.
+ *
+ * <p>The output is discarded, so only serialization is measured. Run with {@code -prof gc} to compare the memory
+ * allocated per export, which grows with the number of operations only for the legacy exporter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonExportBenchmark {
+    /**
+     * Number of exported operations.
+     */
+    @Param({"10000", "1000000"})
+    private int operations;
+
+    /**
+     * Indented streaming exporter.
+     */
+    private final JsonExporter prettyExporter = new JsonExporter();
+    /**
+     * Compact streaming exporter.
+     */
+    private final JsonExporter compactExporter = new JsonExporter();
+    /**
+     * Exporter collecting the whole document.
+     */
+    private final LegacyJsonExporter legacyExporter = new LegacyJsonExporter();
+
+    /**
+     * Fills the storages.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        compactExporter.setPretty(false);
+        ExportFixture.fill(operations);
+    }
+
+    /**
+     * Exports with the indented streaming exporter.
+     */
+    @Benchmark
+    public void streamingPretty() {
+        prettyExporter.exportData(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Exports with the compact streaming exporter.
+     */
+    @Benchmark
+    public void streamingCompact() {
+        compactExporter.exportData(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Exports with the exporter collecting the whole document.
+     */
+    @Benchmark
+    public void legacy() {
+        legacyExporter.exportData(OutputStream.nullOutputStream());
+    }
+}
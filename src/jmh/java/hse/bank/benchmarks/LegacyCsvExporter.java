@@ -0,0 +1,70 @@
+package hse.bank.benchmarks;
+
+import hse.bank.services.exporters.BaseExporter;
+import hse.bank.visitor.StorageVisitor;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Csv exporter as it was before {@code CsvWriter}, formatting every row with {@link PrintWriter#printf}.
+ * Kept only as the baseline of {@link CsvExportBenchmark}.
+ */
+public class LegacyCsvExporter implements BaseExporter {
+
+    @Override
+    public void exportData(OutputStream outputStream) {
+        try (PrintWriter writer = new PrintWriter(outputStream, true, StandardCharsets.UTF_8)) {
+
+            writer.println("=== Accounts ===");
+            writer.println("ID,Name,Balance");
+            StorageVisitor.walkBankAccountStorage().forEach(account -> {
+                writer.printf(Locale.ROOT, "%d,%s,%.2f%n", account.getId(), quote(account.getName()),
+                    account.getBalance());
+            });
+            writer.println();
+
+            writer.println("=== Categories ===");
+            writer.println("ID,Name");
+            StorageVisitor.walkCategoryStorage().forEach(category -> {
+                writer.printf(Locale.ROOT, "%d,%b,%s%n", category.getId(), category.isPositive(),
+                    quote(category.getName()));
+            });
+
+            writer.println();
+
+            writer.println("=== Operations ===");
+            writer.println("ID,Amount,Type,CategoryID");
+            StorageVisitor.walkOperationStorage().forEach(operation -> {
+                writer.printf(Locale.ROOT, "%d,%b,%d,%.2f,%s,%d,%s%n",
+                    operation.getId(),
+                    operation.isType(),
+                    operation.getAccount().getId(),
+                    operation.getAmount(),
+                    operation.getDate().toString(),
+                    operation.getCategory().getId(),
+                    operation.getDescription().isPresent() ? quote(operation.getDescription().get()) : ""
+                );
+            });
+        }
+    }
+
+    /**
+     * Quotes text field if it would not be read back as is, doubling quotes inside it.
+     *
+     * @param value Text
+     * @return Field
+     */
+    private static String quote(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isEmpty()) {
+            return "\"\"";
+        }
+        boolean plain = value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+            && value.indexOf('\r') < 0 && value.charAt(0) > ' ' && value.charAt(value.length() - 1) > ' ';
+        return plain ? value : '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,105 @@
+package hse.bank.benchmarks;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.services.exporters.BaseExporter;
+import hse.bank.visitor.StorageVisitor;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Yaml exporter as it was before streaming, converting every object to a map and dumping the whole tree.
+ * Kept only as the baseline of {@link YamlExportBenchmark}.
+ */
+public class LegacyYamlExporter implements BaseExporter {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /**
+     * Export data to yaml format.
+     *
+     * @param outputStream Output stream to export data.
+     */
+    @Override
+    public void exportData(OutputStream outputStream) {
+        try {
+            Map<String, Object> data = new LinkedHashMap<>();
+
+            List<Map<String, Object>> accountsMap = StorageVisitor.walkBankAccountStorage()
+                .map(this::convertBankAccountToMap)
+                .collect(Collectors.toList());
+            data.put("accounts", accountsMap);
+
+            List<Map<String, Object>> categoriesMap = StorageVisitor.walkCategoryStorage()
+                .map(this::convertCategoryToMap)
+                .collect(Collectors.toList());
+            data.put("categories", categoriesMap);
+
+            List<Map<String, Object>> operationsMap = StorageVisitor.walkOperationStorage()
+                .map(this::convertOperationToMap)
+                .collect(Collectors.toList());
+            data.put("operations", operationsMap);
+
+            DumperOptions options = new DumperOptions();
+            options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+            options.setPrettyFlow(true);
+
+            Yaml yaml = new Yaml(options);
+
+            OutputStreamWriter writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            yaml.dump(data, writer);
+            writer.flush();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Converts BankAccount object to map.
+     */
+    private Map<String, Object> convertBankAccountToMap(BankAccount account) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", account.getId());
+        map.put("name", account.getName());
+        map.put("balance", account.getBalance());
+        return map;
+    }
+
+    /**
+     * Converts Category object to map.
+     */
+    private Map<String, Object> convertCategoryToMap(Category category) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", category.getId());
+        map.put("name", category.getName());
+        map.put("positive", category.isPositive());
+        return map;
+    }
+
+    /**
+     * Converts Operation object to map.
+     */
+    private Map<String, Object> convertOperationToMap(Operation operation) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", operation.getId());
+        map.put("type", operation.isType());
+        map.put("amount", operation.getAmount());
+        map.put("accountId", operation.getAccount().getId());
+        map.put("date", operation.getDate().format(DATE_FORMATTER));
+        map.put("categoryId", operation.getCategory().getId());
+        operation.getDescription().ifPresent(desc -> map.put("description", desc));
+        return map;
+    }
+}
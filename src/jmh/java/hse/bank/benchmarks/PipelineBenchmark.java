@@ -0,0 +1,166 @@
+package hse.bank.benchmarks;
+
+import hse.bank.BankingApplication;
+import hse.bank.cmd.CmdResult;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.enums.ExecutionMode;
+import hse.bank.facades.BankFacade;
+import hse.bank.facades.CommandFacade;
+import hse.bank.records.CommandData;
+import hse.bank.records.OperationData;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput and latency of deposits applied directly by the calling threads and by the single-writer pipeline.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PipelineBenchmark {
+    /**
+     * Number of accounts deposits pick from.
+     */
+    private static final int ACCOUNTS = 64;
+
+    /**
+     * Execution mode under test.
+     */
+    @Param({"DIRECT", "PIPELINE"})
+    private ExecutionMode mode;
+
+    /**
+     * Application context.
+     */
+    private ConfigurableApplicationContext context;
+    /**
+     * Facade used to set up the data.
+     */
+    private BankFacade bankFacade;
+    /**
+     * Facade under test.
+     */
+    private CommandFacade commandFacade;
+    /**
+     * Accounts.
+     */
+    private BankAccount[] accounts;
+    /**
+     * Category of deposits.
+     */
+    private Category category;
+
+    /**
+     * Starts the application in the execution mode under test.
+     */
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(BankingApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("bank.execution.mode=" + mode)
+            .run();
+        bankFacade = context.getBean(BankFacade.class);
+        commandFacade = context.getBean(CommandFacade.class);
+    }
+
+    /**
+     * Recreates accounts, dropping operations of the previous iteration.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        bankFacade.flush();
+        accounts = new BankAccount[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = bankFacade.createAccount("Account " + i, 0);
+        }
+        category = bankFacade.createCategory("Deposits", true);
+    }
+
+    /**
+     * Stops the application.
+     */
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    /**
+     * Deposits from one thread.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(1)
+    public CmdResult throughputOneThread() {
+        return deposit();
+    }
+
+    /**
+     * Deposits from four threads.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(4)
+    public CmdResult throughputFourThreads() {
+        return deposit();
+    }
+
+    /**
+     * Deposits from eight threads.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(8)
+    public CmdResult throughputEightThreads() {
+        return deposit();
+    }
+
+    /**
+     * Latency distribution of deposits from eight threads.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @Threads(8)
+    public CmdResult latencyEightThreads() {
+        return deposit();
+    }
+
+    /**
+     * Deposits one unit to a random account.
+     *
+     * @return Result
+     */
+    private CmdResult deposit() {
+        BankAccount account = accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+        return commandFacade.execute(new CommandData(
+            CmdType.CREATE,
+            DomainObjectType.OPERATION,
+            new OperationData(true, account, 1, category, Optional.empty()),
+            CommandData.MISC_DATA
+        ));
+    }
+}
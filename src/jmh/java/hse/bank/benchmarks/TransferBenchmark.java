@@ -0,0 +1,127 @@
+package hse.bank.benchmarks;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.cmd.TransferCmd;
+import hse.bank.domains.Category;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.BankAccountData;
+import hse.bank.records.CommandData;
+import hse.bank.records.TransferData;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.OperationStorage;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Throughput of transfers between random accounts depending on the number of threads.
+ *
+ * <p>With two accounts every transfer contends for the same locks, with many accounts transfers mostly take
+ * different lock stripes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransferBenchmark {
+    /**
+     * Number of accounts transfers pick from.
+     */
+    @Param({"2", "1024"})
+    private int accounts;
+
+    /**
+     * Command under test.
+     */
+    private final TransferCmd transferCmd = new TransferCmd();
+    /**
+     * Category of transfers.
+     */
+    private final Category category = new Category(0, false, "Transfers");
+
+    /**
+     * Creates accounts rich enough to never run out of money and drops operations of the previous iteration.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        OperationStorage.setOperations(new ArrayList<>());
+        AccountStorage.setAccounts(new ArrayList<>());
+        BankAccountFactory.flush();
+        OperationFactory.flush();
+        for (int i = 0; i < accounts; i++) {
+            AccountStorage.addUser(BankAccountFactory.createAccount(new BankAccountData("Account " + i, 1e12)));
+        }
+    }
+
+    /**
+     * Transfers from one thread.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @Threads(1)
+    public CmdResult transferOneThread() {
+        return transfer();
+    }
+
+    /**
+     * Transfers from two threads.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @Threads(2)
+    public CmdResult transferTwoThreads() {
+        return transfer();
+    }
+
+    /**
+     * Transfers from four threads.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @Threads(4)
+    public CmdResult transferFourThreads() {
+        return transfer();
+    }
+
+    /**
+     * Transfers from eight threads.
+     *
+     * @return Result
+     */
+    @Benchmark
+    @Threads(8)
+    public CmdResult transferEightThreads() {
+        return transfer();
+    }
+
+    /**
+     * Transfers one unit between two different random accounts.
+     *
+     * @return Result
+     */
+    private CmdResult transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        TransferData transfer = new TransferData(
+            AccountStorage.getUserById(from), AccountStorage.getUserById(to), 1, category, Optional.empty()
+        );
+        return transferCmd.execute(new CommandData(CmdType.TRANSFER, DomainObjectType.OPERATION, transfer));
+    }
+}
@@ -0,0 +1,64 @@
+package hse.bank.benchmarks;
+
+import hse.bank.services.exporters.YamlExporter;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time to export the storages as yaml with the streaming exporter and with the one it replaced.
+ *
+ * <p>The output is discarded, so only serialization is measured. Run with {@code -prof gc} to compare the memory
+ * allocated per export: the legacy exporter builds a map per object and the whole node tree before writing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class YamlExportBenchmark {
+    /**
+     * Number of exported operations.
+     */
+    @Param({"10000", "1000000"})
+    private int operations;
+
+    /**
+     * Streaming exporter.
+     */
+    private final YamlExporter exporter = new YamlExporter();
+    /**
+     * Exporter dumping the whole tree.
+     */
+    private final LegacyYamlExporter legacyExporter = new LegacyYamlExporter();
+
+    /**
+     * Fills the storages.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        ExportFixture.fill(operations);
+    }
+
+    /**
+     * Exports with the streaming exporter.
+     */
+    @Benchmark
+    public void streaming() {
+        exporter.exportData(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Exports with the exporter dumping the whole tree.
+     */
+    @Benchmark
+    public void legacy() {
+        legacyExporter.exportData(OutputStream.nullOutputStream());
+    }
+}
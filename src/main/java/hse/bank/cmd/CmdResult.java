@@ -112,4 +112,19 @@ public class CmdResult<T> {
         return categories;
     }
 
+    /**
+     * Get list of operations.
+     *
+     * @return Operations
+     */
+    public List<Operation> getOperationsList() {
+        List<Operation> operations = new ArrayList<>(((List<?>) data).size());
+        ((List<?>) data).forEach(operation -> {
+            if (operation instanceof Operation) {
+                operations.add((Operation) operation);
+            }
+        });
+        return operations;
+    }
+
 }
\ No newline at end of file
@@ -8,6 +8,11 @@ import hse.bank.records.*;
 import hse.bank.storage.AccountStorage;
 import hse.bank.storage.CategoryStorage;
 import hse.bank.storage.OperationStorage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -38,4 +43,43 @@ public class CreateCmd implements Command {
             }
         };
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates operations grouped by account, each account is locked once for all its operations.
+     * All created operations are stored at once.
+     *
+     * @param data Create commands of operations
+     * @return Results aligned with the commands, failures for operations exceeding the balance or of deleted accounts
+     */
+    public List<CmdResult<?>> executeOperations(List<CommandData> data) {
+        Map<Integer, List<Integer>> indexesByAccount = new LinkedHashMap<>();
+        for (int i = 0; i < data.size(); i++) {
+            var operationData = (OperationData) data.get(i).objectData();
+            indexesByAccount.computeIfAbsent(operationData.account().getId(), id -> new ArrayList<>()).add(i);
+        }
+        CmdResult<?>[] results = new CmdResult<?>[data.size()];
+        List<Operation> created = new ArrayList<>(data.size());
+        for (List<Integer> indexes : indexesByAccount.values()) {
+            List<OperationData> group = new ArrayList<>(indexes.size());
+            indexes.forEach(i -> group.add((OperationData) data.get(i).objectData()));
+            List<Operation> operations;
+            try {
+                operations = OperationFactory.createOperations(group.get(0).account(), group);
+            } catch (IllegalArgumentException e) {
+                indexes.forEach(i -> results[i] = CmdResult.failure(e.getMessage()));
+                continue;
+            }
+            for (int j = 0; j < indexes.size(); j++) {
+                Operation operation = operations.get(j);
+                if (operation == null) {
+                    results[indexes.get(j)] = CmdResult.failure("Insufficient funds");
+                } else {
+                    results[indexes.get(j)] = new CmdResult<>(operation, null);
+                    created.add(operation);
+                }
+            }
+        }
+        OperationStorage.addOperations(created);
+        return Arrays.asList(results);
+    }
+}
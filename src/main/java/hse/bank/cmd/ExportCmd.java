@@ -4,7 +4,9 @@ import hse.bank.records.CommandData;
 import hse.bank.services.exporters.CsvExporter;
 import hse.bank.services.exporters.JsonExporter;
 import hse.bank.services.exporters.YamlExporter;
+import hse.bank.stats.IoMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
@@ -14,9 +16,23 @@ public class ExportCmd implements Command {
     private final CsvExporter csvExporter = new CsvExporter();
     private final YamlExporter yamlExporter = new YamlExporter();
     private final JsonExporter jsonExporter = new JsonExporter();
+    @Autowired
+    private IoMetrics ioMetrics;
+
+    /**
+     * Chooses between indented and compact json output.
+     *
+     * @param pretty Whether to indent json documents
+     */
+    @Value("${bank.export.json.pretty:true}")
+    public void setJsonPretty(boolean pretty) {
+        jsonExporter.setPretty(pretty);
+    }
 
     @Override
     public CmdResult execute(CommandData data) {
+        long start = System.nanoTime();
+        long rows = IoMetrics.rows();
         try (OutputStream out = new FileOutputStream(data.miscData().filePath())) {
             switch (data.miscData().format()) {
                 case CSV -> csvExporter.exportData(out);
@@ -28,6 +44,8 @@ public class ExportCmd implements Command {
         } catch (IOException e) {
             return CmdResult.failure(e.getMessage());
         }
+        ioMetrics.recordExport(data.miscData().format(), new File(data.miscData().filePath()).length(), rows,
+            System.nanoTime() - start);
         return CmdResult.success();
     }
 }
@@ -1,9 +1,12 @@
 package hse.bank.cmd;
 
+import hse.bank.domains.Operation;
 import hse.bank.records.CommandData;
+import hse.bank.records.OperationQueryData;
 import hse.bank.storage.AccountStorage;
 import hse.bank.storage.CategoryStorage;
 import hse.bank.storage.OperationStorage;
+import java.util.List;
 import org.springframework.stereotype.Component;
 
 /**
@@ -15,6 +18,9 @@ public class GetCmd implements Command {
 
     @Override
     public CmdResult execute(CommandData data) {
+        if (data.objectData() instanceof OperationQueryData query) {
+            return new CmdResult<>(queryOperations(query), null);
+        }
         if (data.miscData().id() == CommandData.MISC_DATA.id()) {
             return new CmdResult<>(CategoryStorage.getCategories(), null);
         }
@@ -24,4 +30,20 @@ public class GetCmd implements Command {
             case CATEGORY -> new CmdResult<>(CategoryStorage.getCategoryById(data.miscData().id()), null);
         };
     }
+
+    /**
+     * Answers operation query from the storage indexes.
+     *
+     * @param query Query
+     * @return Matching operations
+     */
+    private List<Operation> queryOperations(OperationQueryData query) {
+        if (!query.hasTimeRange()) {
+            return OperationStorage.getOperationsByAccountId(query.accountId());
+        }
+        if (query.accountId() == OperationQueryData.ANY_ACCOUNT) {
+            return OperationStorage.getOperationsBetween(query.from(), query.to());
+        }
+        return OperationStorage.getOperationsBetween(query.accountId(), query.from(), query.to());
+    }
 }
@@ -4,10 +4,14 @@ import hse.bank.records.CommandData;
 import hse.bank.services.importers.CsvImporter;
 import hse.bank.services.importers.JsonImporter;
 import hse.bank.services.importers.YamlImporter;
+import hse.bank.stats.IoMetrics;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -27,9 +31,36 @@ public class ImportCmd implements Command {
      * Importer for json.
      */
     private final JsonImporter jsonImporter = new JsonImporter();
+    /**
+     * Metrics of imports.
+     */
+    @Autowired
+    private IoMetrics ioMetrics;
+
+    /**
+     * Sets number of threads parsing large csv files.
+     *
+     * @param threads Number of threads, zero for one per processor
+     */
+    @Value("${bank.import.csv.threads:0}")
+    public void setCsvThreads(int threads) {
+        csvImporter.setThreads(threads);
+    }
+
+    /**
+     * Sets size of the part of large csv files parsed by one thread.
+     *
+     * @param chunkSize Size in bytes, zero for the default
+     */
+    @Value("${bank.import.csv.chunk-size:0}")
+    public void setCsvChunkSize(int chunkSize) {
+        csvImporter.setChunkSize(chunkSize);
+    }
 
     @Override
     public CmdResult execute(CommandData data) {
+        long start = System.nanoTime();
+        long rowsBefore = IoMetrics.rows();
         try (InputStream in = new FileInputStream(data.miscData().filePath())) {
             switch (data.miscData().format()) {
                 case CSV -> csvImporter.importData(in);
@@ -43,6 +74,8 @@ public class ImportCmd implements Command {
         } catch (IOException e) {
             return CmdResult.failure(e.getMessage());
         }
+        ioMetrics.recordImport(data.miscData().format(), new File(data.miscData().filePath()).length(),
+            IoMetrics.rows() - rowsBefore, System.nanoTime() - start);
         return CmdResult.success();
     }
 }
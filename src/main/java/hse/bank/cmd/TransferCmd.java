@@ -0,0 +1,22 @@
+package hse.bank.cmd;
+
+import hse.bank.domains.Operation;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.CommandData;
+import hse.bank.records.TransferData;
+import hse.bank.storage.OperationStorage;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transfer command, moves money between two accounts as one step.
+ */
+@Component
+public class TransferCmd implements Command {
+    @Override
+    public CmdResult execute(CommandData data) {
+        List<Operation> operations = OperationFactory.createTransfer((TransferData) data.objectData());
+        OperationStorage.addOperations(operations);
+        return new CmdResult<>(operations, null);
+    }
+}
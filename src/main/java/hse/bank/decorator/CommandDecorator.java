@@ -2,12 +2,21 @@ package hse.bank.decorator;
 
 import hse.bank.cmd.CmdResult;
 import hse.bank.cmd.Command;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
 import hse.bank.records.CommandData;
-import java.time.Instant;
-import java.util.ArrayList;
+import hse.bank.records.MiscData;
+import hse.bank.stats.CommandSample;
+import hse.bank.stats.LatencyHistogram;
+import hse.bank.stats.ResourceAccounting;
+import hse.bank.stats.SlowCommandLog;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -18,9 +27,70 @@ import org.springframework.stereotype.Component;
 @Component
 public class CommandDecorator {
     /**
-     * List of operation time to execute.
+     * Most recent slow commands printed with the stats.
      */
-    private final List<Long> operationTimes = new ArrayList<>();
+    private static final int PRINTED_SLOW_COMMANDS = 10;
+
+    /**
+     * Latencies of all commands.
+     */
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    /**
+     * Latencies per command type, the maps are filled once and never change, so they are read without locking.
+     */
+    private final Map<CmdType, LatencyHistogram> cmdTypeLatencies = histograms(CmdType.class);
+    /**
+     * Latencies per domain object type.
+     */
+    private final Map<DomainObjectType, LatencyHistogram> domainTypeLatencies = histograms(DomainObjectType.class);
+    /**
+     * Allocation and CPU time per command type.
+     */
+    private final ResourceAccounting resourceAccounting = new ResourceAccounting();
+    /**
+     * Slow and sampled commands.
+     */
+    private final SlowCommandLog slowCommands = new SlowCommandLog();
+
+    /**
+     * Turns allocation and CPU accounting of commands on or off.
+     *
+     * @param enabled Whether to account commands
+     */
+    @Value("${bank.stats.resource-accounting:false}")
+    public void setResourceAccounting(boolean enabled) {
+        resourceAccounting.setEnabled(enabled);
+    }
+
+    /**
+     * Sets duration from which a command is captured and logged as slow.
+     *
+     * @param millis Threshold in milliseconds, negative to disable
+     */
+    @Value("${bank.stats.slow-command-ms:1000}")
+    public void setSlowCommandThreshold(long millis) {
+        slowCommands.setThresholdMillis(millis);
+    }
+
+    /**
+     * Sets share of faster commands captured as a baseline.
+     *
+     * @param percent Percentage from 0 to 100
+     */
+    @Value("${bank.stats.sample-percent:1}")
+    public void setSamplePercent(double percent) {
+        slowCommands.setSamplePercent(percent);
+    }
+
+    /**
+     * Sets most slow commands logged per second, the others are only kept in the ring.
+     *
+     * @param limit Lines per second
+     */
+    @Value("${bank.stats.slow-command-logs-per-second:10}")
+    public void setSlowCommandLogRate(int limit) {
+        slowCommands.setLogsPerSecond(limit);
+    }
 
     /**
      * Execute command.
@@ -30,12 +100,56 @@ public class CommandDecorator {
      * @return Result
      */
     public CmdResult execute(Command command, CommandData data) {
-        Instant start = Instant.now();
-        var res = command.execute(data);
-        Instant end = Instant.now();
-        long execTime = end.toEpochMilli() - start.toEpochMilli();
-        operationTimes.add(execTime);
-        return res;
+        return time(command.getClass().getSimpleName(), data.type(), data.domainType(), data.miscData(),
+            () -> command.execute(data));
+    }
+
+    /**
+     * Execute action recording its time as one command, used for batches.
+     *
+     * @param type       Command type
+     * @param domainType Domain object type
+     * @param action     Action
+     * @param <T>        Type of result
+     * @return Result
+     */
+    public <T> T time(CmdType type, DomainObjectType domainType, Supplier<T> action) {
+        return time("batch", type, domainType, null, action);
+    }
+
+    /**
+     * Execute action recording its time and capturing it if slow or sampled.
+     *
+     * @param command    Name of the command
+     * @param type       Command type
+     * @param domainType Domain object type
+     * @param miscData   Misc data of the command, may be null
+     * @param action     Action
+     * @param <T>        Type of result
+     * @return Result
+     */
+    private <T> T time(String command, CmdType type, DomainObjectType domainType, MiscData miscData,
+                       Supplier<T> action) {
+        boolean accounted = type != null && resourceAccounting.isEnabled();
+        long allocatedBefore = accounted ? ResourceAccounting.allocatedBytes() : 0;
+        long cpuBefore = accounted ? ResourceAccounting.cpuNanos() : 0;
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long execTime = System.nanoTime() - start;
+            totalLatency.record(execTime);
+            if (type != null) {
+                cmdTypeLatencies.get(type).record(execTime);
+            }
+            if (domainType != null) {
+                domainTypeLatencies.get(domainType).record(execTime);
+            }
+            if (accounted) {
+                resourceAccounting.record(type, allocatedBefore, cpuBefore);
+            }
+            slowCommands.record(command, type, domainType, miscData, execTime);
+        }
     }
 
     /**
@@ -44,17 +158,49 @@ public class CommandDecorator {
      * @return Success if completes
      */
     public CmdResult getStats() {
-        try {
-            System.out.println("Operation total: " + operationTimes.size());
-            System.out.println(
-                "Operation average: " + operationTimes.stream().mapToDouble(x -> x).average().getAsDouble() + "ms");
-            System.out.println(
-                "Operation min: " + operationTimes.stream().mapToDouble(x -> x).min().getAsDouble() + "ms");
-            System.out.println(
-                "Operation max: " + operationTimes.stream().mapToDouble(x -> x).max().getAsDouble() + "ms");
-        } catch (Exception e) {
-            return CmdResult.failure(e.getMessage());
+        System.out.println("All commands: " + totalLatency.snapshot().format());
+        cmdTypeLatencies.forEach((type, histogram) -> print(type.name(), histogram));
+        domainTypeLatencies.forEach((type, histogram) -> print(type.name(), histogram));
+        if (resourceAccounting.isEnabled()) {
+            for (CmdType type : CmdType.values()) {
+                var usage = resourceAccounting.snapshot(type);
+                if (usage.count() > 0) {
+                    System.out.println(type.name() + " resources: " + usage.format());
+                }
+            }
         }
+        System.out.println("Slow commands: " + slowCommands.slowCount() + ", sampled: " + slowCommands.sampledCount());
+        List<CommandSample> slow = slowCommands.recentSlow();
+        slow.subList(Math.max(0, slow.size() - PRINTED_SLOW_COMMANDS), slow.size())
+            .forEach(sample -> System.out.println("  " + sample.format()));
         return CmdResult.success();
     }
+
+    /**
+     * Prints latencies of commands of some type if there were any.
+     *
+     * @param name      Name of the type
+     * @param histogram Latencies
+     */
+    private static void print(String name, LatencyHistogram histogram) {
+        var snapshot = histogram.snapshot();
+        if (snapshot.count() > 0) {
+            System.out.println(name + ": " + snapshot.format());
+        }
+    }
+
+    /**
+     * Creates histogram for every constant of the enum.
+     *
+     * @param type Enum class
+     * @param <E>  Enum type
+     * @return Histograms
+     */
+    private static <E extends Enum<E>> Map<E, LatencyHistogram> histograms(Class<E> type) {
+        Map<E, LatencyHistogram> histograms = new EnumMap<>(type);
+        for (E constant : type.getEnumConstants()) {
+            histograms.put(constant, new LatencyHistogram());
+        }
+        return histograms;
+    }
 }
@@ -27,6 +27,6 @@ public class BankAccount{
      */
     @Getter
     @Setter
-    private double balance;
+    private volatile double balance;
 
 }
@@ -8,4 +8,5 @@ public enum CmdType {
     EXPORT,
     IMPORT,
     ANALYTICS,
+    TRANSFER,
 }
@@ -0,0 +1,9 @@
+package hse.bank.enums;
+
+/**
+ * Way mutating commands are applied.
+ */
+public enum ExecutionMode {
+    DIRECT,
+    PIPELINE,
+}
@@ -0,0 +1,11 @@
+package hse.bank.enums;
+
+/**
+ * Backend keeping operations.
+ */
+public enum OperationBackendType {
+    CONCURRENT,
+    HEAP,
+    COLUMNAR,
+    MAPPED,
+}
@@ -0,0 +1,65 @@
+package hse.bank.events;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.records.CommandData;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one command executed by the command facade.
+ */
+@Name("hse.bank.Command")
+@Label("Bank Command")
+@Category({"Bank", "Commands"})
+@Description("Command executed by the command facade")
+@StackTrace(false)
+public final class CommandEvent extends Event {
+    /**
+     * Command type.
+     */
+    @Label("Command Type")
+    private String cmdType;
+    /**
+     * Domain object type.
+     */
+    @Label("Domain Type")
+    private String domainType;
+    /**
+     * Whether the command succeeded.
+     */
+    @Label("Success")
+    private boolean success;
+
+    /**
+     * Starts event, cheap enough to call for every command when recording is off.
+     *
+     * @return Started event
+     */
+    public static CommandEvent start() {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits event if recording wants it.
+     *
+     * @param data   Command data, possibly malformed
+     * @param result Result, null if the command threw
+     */
+    public void finish(CommandData data, CmdResult result) {
+        if (!shouldCommit()) {
+            return;
+        }
+        if (data != null) {
+            cmdType = data.type() == null ? null : data.type().name();
+            domainType = data.domainType() == null ? null : data.domainType().name();
+        }
+        success = result != null && result.isSuccess();
+        commit();
+    }
+}
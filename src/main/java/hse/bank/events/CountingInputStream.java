@@ -0,0 +1,58 @@
+package hse.bank.events;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stream counting bytes read through it.
+ */
+final class CountingInputStream extends FilterInputStream {
+    /**
+     * Bytes read.
+     */
+    private long count;
+
+    /**
+     * Constructor.
+     *
+     * @param in Underlying stream
+     */
+    CountingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Gets number of bytes read.
+     *
+     * @return Count
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count += n;
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        return skipped;
+    }
+}
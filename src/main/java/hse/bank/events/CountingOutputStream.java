@@ -0,0 +1,45 @@
+package hse.bank.events;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stream counting bytes written through it.
+ */
+final class CountingOutputStream extends FilterOutputStream {
+    /**
+     * Bytes written.
+     */
+    private long count;
+
+    /**
+     * Constructor.
+     *
+     * @param out Underlying stream
+     */
+    CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Gets number of bytes written.
+     *
+     * @return Count
+     */
+    long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+}
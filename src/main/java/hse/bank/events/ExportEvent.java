@@ -0,0 +1,84 @@
+package hse.bank.events;
+
+import hse.bank.enums.IOFormat;
+import hse.bank.stats.IoMetrics;
+import java.io.OutputStream;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one export.
+ */
+@Name("hse.bank.Export")
+@Label("Bank Export")
+@Category({"Bank", "Input and Output"})
+@Description("Data exported by an exporter")
+@StackTrace(false)
+public final class ExportEvent extends Event {
+    /**
+     * Format of the data.
+     */
+    @Label("Format")
+    private String format;
+    /**
+     * Objects of all storages when the export started.
+     */
+    @Label("Rows")
+    private long rows;
+    /**
+     * Bytes written.
+     */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+    /**
+     * Counter of written bytes, null when the event is not recorded.
+     */
+    private transient CountingOutputStream counter;
+
+    /**
+     * Starts event.
+     *
+     * @param format Format of the data
+     * @return Started event
+     */
+    public static ExportEvent start(IOFormat format) {
+        ExportEvent event = new ExportEvent();
+        if (event.isEnabled()) {
+            event.format = format.name();
+            event.rows = IoMetrics.rows();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Counts bytes written to the stream if the event is recorded.
+     *
+     * @param outputStream Stream for the data
+     * @return Stream to write the data to
+     */
+    public OutputStream count(OutputStream outputStream) {
+        if (!isEnabled()) {
+            return outputStream;
+        }
+        counter = new CountingOutputStream(outputStream);
+        return counter;
+    }
+
+    /**
+     * Commits event if recording wants it.
+     */
+    public void finish() {
+        if (!shouldCommit()) {
+            return;
+        }
+        bytes = counter == null ? 0 : counter.getCount();
+        commit();
+    }
+}
@@ -0,0 +1,102 @@
+package hse.bank.events;
+
+import hse.bank.enums.IOFormat;
+import hse.bank.stats.IoMetrics;
+import java.io.InputStream;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one import.
+ */
+@Name("hse.bank.Import")
+@Label("Bank Import")
+@Category({"Bank", "Input and Output"})
+@Description("Data imported by an importer")
+@StackTrace(false)
+public final class ImportEvent extends Event {
+    /**
+     * Format of the data.
+     */
+    @Label("Format")
+    private String format;
+    /**
+     * Imported objects of all storages.
+     */
+    @Label("Rows")
+    private long rows;
+    /**
+     * Bytes read.
+     */
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+    /**
+     * Objects in the storages when the import started.
+     */
+    private transient long rowsBefore;
+    /**
+     * Counter of read bytes, null when the event is not recorded.
+     */
+    private transient CountingInputStream counter;
+    /**
+     * Bytes read past the stream, like through a mapping of the file.
+     */
+    private transient long uncountedBytes;
+
+    /**
+     * Starts event.
+     *
+     * @param format Format of the data
+     * @return Started event
+     */
+    public static ImportEvent start(IOFormat format) {
+        ImportEvent event = new ImportEvent();
+        if (event.isEnabled()) {
+            event.format = format.name();
+            event.rowsBefore = IoMetrics.rows();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Counts bytes read from the stream if the event is recorded.
+     *
+     * @param inputStream Stream of the data
+     * @return Stream to read the data from
+     */
+    public InputStream count(InputStream inputStream) {
+        if (!isEnabled()) {
+            return inputStream;
+        }
+        counter = new CountingInputStream(inputStream);
+        return counter;
+    }
+
+    /**
+     * Counts bytes read without the stream.
+     *
+     * @param count Number of bytes
+     */
+    public void count(long count) {
+        uncountedBytes += count;
+    }
+
+    /**
+     * Commits event if recording wants it.
+     */
+    public void finish() {
+        if (!shouldCommit()) {
+            return;
+        }
+        rows = IoMetrics.rows() - rowsBefore;
+        bytes = (counter == null ? 0 : counter.getCount()) + uncountedBytes;
+        commit();
+    }
+}
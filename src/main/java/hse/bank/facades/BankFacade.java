@@ -1,5 +1,6 @@
 package hse.bank.facades;
 
+import hse.bank.cmd.CmdResult;
 import hse.bank.domains.BankAccount;
 import hse.bank.domains.Category;
 import hse.bank.domains.Operation;
@@ -9,17 +10,22 @@ import hse.bank.enums.IoFormat;
 import hse.bank.factories.BankAccountFactory;
 import hse.bank.factories.CategoryFactory;
 import hse.bank.factories.OperationFactory;
+import hse.bank.journal.CommandJournal;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
 import hse.bank.records.CommandData;
 import hse.bank.records.MiscData;
 import hse.bank.records.OperationData;
+import hse.bank.records.OperationQueryData;
+import hse.bank.records.TransferData;
 import hse.bank.storage.AccountStorage;
 import hse.bank.storage.CategoryStorage;
 import hse.bank.storage.OperationStorage;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -33,6 +39,11 @@ public class BankFacade {
      */
     @Autowired
     private CommandFacade commandFacade;
+    /**
+     * Journal of mutating commands.
+     */
+    @Autowired
+    private CommandJournal commandJournal;
 
     /**
      * Create account.
@@ -143,6 +154,53 @@ public class BankFacade {
         return result.getOperation();
     }
 
+    /**
+     * Get operations of account.
+     *
+     * @param accountId Account id
+     * @return Operations of account
+     */
+    public List<Operation> getAccountOperations(int accountId) {
+        var commandData = new CommandData(
+            CmdType.GET,
+            DomainObjectType.OPERATION,
+            new OperationQueryData(accountId),
+            CommandData.MISC_DATA
+        );
+        var result = commandFacade.execute(commandData);
+        return result.getOperationsList();
+    }
+
+    /**
+     * Get operations made in the time range.
+     *
+     * @param from Start of the range, inclusive
+     * @param to   End of the range, exclusive
+     * @return Operations ordered by date
+     */
+    public List<Operation> getOperationsBetween(LocalDateTime from, LocalDateTime to) {
+        return getOperationsBetween(OperationQueryData.ANY_ACCOUNT, from, to);
+    }
+
+    /**
+     * Get operations of account made in the time range.
+     *
+     * @param accountId Account id
+     * @param from      Start of the range, inclusive
+     * @param to        End of the range, exclusive
+     * @return Operations ordered by date
+     */
+    public List<Operation> getOperationsBetween(int accountId, LocalDateTime from, LocalDateTime to) {
+        var commandData = new CommandData(
+            CmdType.GET,
+            DomainObjectType.OPERATION,
+            new OperationQueryData(accountId, from, to),
+            CommandData.MISC_DATA
+        );
+        var result = commandFacade.execute(commandData);
+        return result.getOperationsList();
+    }
+
     /**
      * Delete operation.
      *
@@ -208,7 +266,7 @@ public class BankFacade {
     }
 
     /**
-     * Transfer money.
+     * Transfer money, withdrawal and deposit are applied together or not at all.
      *
      * @param fromAccountId From
      * @param toAccountId   To
@@ -216,8 +274,14 @@ public class BankFacade {
      * @param amount        Amount
      */
     public void transferMoney(int fromAccountId, int toAccountId, int categoryId, double amount) {
-        createOperation(-amount, fromAccountId, false, categoryId);
-        createOperation(amount, toAccountId, true, categoryId);
+        var commandData = new CommandData(
+            CmdType.TRANSFER,
+            DomainObjectType.OPERATION,
+            new TransferData(getAccount(fromAccountId), getAccount(toAccountId), amount, getCategory(categoryId),
+                Optional.empty()),
+            CommandData.MISC_DATA
+        );
+        commandFacade.execute(commandData);
     }
 
     /**
@@ -262,13 +326,19 @@ public class BankFacade {
      * @param format   Format
      */
     public void exportData(String filePath, IoFormat format) {
-        var commandData = new CommandData(
-            CmdType.EXPORT,
-            DomainObjectType.ACCOUNT,
-            CommandData.OBJECT_DATA,
-            new MiscData(filePath, format)
-        );
-        commandFacade.execute(commandData);
+        commandFacade.execute(fileCommand(CmdType.EXPORT, filePath, format));
+    }
+
+    /**
+     * Exports data in the background.
+     *
+     * @param filePath File path
+     * @param format   Format
+     * @return Future completed when the file is written, exceptionally if export fails
+     */
+    public CompletableFuture<Void> exportDataAsync(String filePath, IoFormat format) {
+        return commandFacade.executeAsync(fileCommand(CmdType.EXPORT, filePath, format))
+            .thenAccept(BankFacade::requireSuccess);
     }
 
     /**
@@ -278,17 +348,23 @@ public class BankFacade {
      * @param format   Format.
      */
     public void importData(String filePath, IoFormat format) {
-        var commandData = new CommandData(
-            CmdType.IMPORT,
-            DomainObjectType.ACCOUNT,
-            CommandData.OBJECT_DATA,
-            new MiscData(filePath, format)
-        );
-        commandFacade.execute(commandData);
+        commandFacade.execute(fileCommand(CmdType.IMPORT, filePath, format));
+    }
+
+    /**
+     * Imports data in the background.
+     *
+     * @param filePath File path.
+     * @param format   Format.
+     * @return Future completed when the file is imported, exceptionally if import fails
+     */
+    public CompletableFuture<Void> importDataAsync(String filePath, IoFormat format) {
+        return commandFacade.executeAsync(fileCommand(CmdType.IMPORT, filePath, format))
+            .thenAccept(BankFacade::requireSuccess);
     }
 
     /**
-     * Deletes all data.
+     * Deletes all data, including operations kept in the mapped file and the journal.
      */
     public void flush() {
         AccountStorage.setAccounts(new ArrayList<>());
@@ -297,5 +373,35 @@ public class BankFacade {
         BankAccountFactory.flush();
         CategoryFactory.flush();
         OperationFactory.flush();
+        commandJournal.reset();
+    }
+
+    /**
+     * Builds export or import command.
+     *
+     * @param type     Command type
+     * @param filePath File path
+     * @param format   Format
+     * @return Command data
+     */
+    private static CommandData fileCommand(CmdType type, String filePath, IoFormat format) {
+        return new CommandData(
+            type,
+            DomainObjectType.ACCOUNT,
+            CommandData.OBJECT_DATA,
+            new MiscData(filePath, format)
+        );
+    }
+
+    /**
+     * Turns failed result into an exception.
+     *
+     * @param result Command result
+     * @throws IllegalStateException If command failed
+     */
+    private static void requireSuccess(CmdResult<?> result) {
+        if (!result.isSuccess()) {
+            throw new IllegalStateException(result.getError());
+        }
     }
 }
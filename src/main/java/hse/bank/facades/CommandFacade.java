@@ -7,15 +7,45 @@ import hse.bank.cmd.DeleteCmd;
 import hse.bank.cmd.ExportCmd;
 import hse.bank.cmd.GetCmd;
 import hse.bank.cmd.ImportCmd;
+import hse.bank.cmd.TransferCmd;
 import hse.bank.decorator.CommandDecorator;
+import hse.bank.enums.CmdType;
 import hse.bank.enums.DomainObjectType;
+import hse.bank.enums.ExecutionMode;
+import hse.bank.events.CommandEvent;
+import hse.bank.journal.CommandJournal;
+import hse.bank.pipeline.CommandPipeline;
+import hse.bank.pipeline.PipelineMetrics;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
 import hse.bank.records.CommandData;
 import hse.bank.records.OperationData;
+import hse.bank.records.OperationQueryData;
+import hse.bank.records.TransferData;
+import hse.bank.stats.MetricsRegistry;
+import hse.bank.stats.ResourceAccounting;
+import hse.bank.stats.SlowCommandLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
@@ -60,6 +90,186 @@ public class CommandFacade {
      */
     @Autowired
     private AnalyticsCmd analyticsCmd;
+    /**
+     * Transfer cmd.
+     */
+    @Autowired
+    private TransferCmd transferCmd;
+    /**
+     * Journal of mutating commands.
+     */
+    @Autowired
+    private CommandJournal commandJournal;
+    /**
+     * Concurrency limits of asynchronous commands as {@code TYPE=limit} pairs with positive limits, other types are
+     * not limited.
+     */
+    @Value("${bank.async.limits:EXPORT=2,IMPORT=1}")
+    private String asyncLimits;
+    /**
+     * Executor of asynchronous commands, every command gets its own virtual thread.
+     */
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * Permits of command types with limited concurrency.
+     */
+    private final Map<CmdType, Semaphore> asyncPermits = new EnumMap<>(CmdType.class);
+    /**
+     * Way mutating commands are applied.
+     */
+    @Getter
+    @Value("${bank.execution.mode:DIRECT}")
+    private ExecutionMode executionMode;
+    /**
+     * Number of slots of the command pipeline.
+     */
+    @Value("${bank.pipeline.capacity:4096}")
+    private int pipelineCapacity;
+    /**
+     * Pipeline applying mutating commands in {@link ExecutionMode#PIPELINE} mode, null otherwise.
+     */
+    private CommandPipeline pipeline;
+    /**
+     * Registry of metrics.
+     */
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    /**
+     * Failed commands per type.
+     */
+    private final Map<CmdType, LongAdder> errorCounters = new EnumMap<>(CmdType.class);
+    /**
+     * Failed commands without a type.
+     */
+    private LongAdder unknownErrors;
+
+    /**
+     * Parses concurrency limits of asynchronous commands.
+     *
+     * @throws IllegalStateException If limits are malformed or not positive, a command type without permits would
+     *                               wait forever
+     */
+    @PostConstruct
+    public void initAsyncLimits() {
+        if (asyncLimits == null || asyncLimits.isBlank()) {
+            return;
+        }
+        for (String entry : asyncLimits.split(",")) {
+            String[] parts = entry.split("=");
+            CmdType type;
+            int limit;
+            try {
+                type = CmdType.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+                limit = Integer.parseInt(parts[1].trim());
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalStateException("Malformed async limit: " + entry);
+            }
+            if (limit <= 0) {
+                throw new IllegalStateException("Async limit must be positive: " + entry);
+            }
+            asyncPermits.put(type, new Semaphore(limit, true));
+        }
+    }
+
+    /**
+     * Starts the command pipeline if mutating commands are applied by a single writer.
+     */
+    @PostConstruct
+    public void initPipeline() {
+        if (executionMode == ExecutionMode.PIPELINE) {
+            pipeline = new CommandPipeline(pipelineCapacity, this::applyInOrder);
+            log.info("Mutating commands are applied by pipeline of {} slots", pipelineCapacity);
+            metricsRegistry.gauge("bank_pipeline_depth", "Commands published but not applied yet",
+                () -> pipeline.metrics().depth());
+            metricsRegistry.gauge("bank_pipeline_applied", "Commands applied by the pipeline writer",
+                () -> pipeline.metrics().applied());
+            metricsRegistry.gauge("bank_pipeline_backpressure_waits", "Publications that found the pipeline full",
+                () -> pipeline.metrics().backpressureWaits());
+        }
+    }
+
+    /**
+     * Registers latencies and error counters of commands.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        String errorHelp = "Commands which returned a failure";
+        for (CmdType type : CmdType.values()) {
+            errorCounters.put(type,
+                metricsRegistry.counter("bank_command_errors_total", errorHelp, "type", type.name()));
+            metricsRegistry.summary("bank_command_latency_seconds", "Latency of commands per command type",
+                commandDecorator.getCmdTypeLatencies().get(type), "type", type.name());
+        }
+        unknownErrors = metricsRegistry.counter("bank_command_errors_total", errorHelp, "type", "UNKNOWN");
+        ResourceAccounting resources = commandDecorator.getResourceAccounting();
+        for (CmdType type : CmdType.values()) {
+            metricsRegistry.counter("bank_command_allocated_bytes_total", "Bytes allocated by accounted commands",
+                () -> resources.snapshot(type).allocatedBytes(), "type", type.name());
+            metricsRegistry.counter("bank_command_cpu_nanoseconds_total", "CPU time of accounted commands",
+                () -> resources.snapshot(type).cpuNanos(), "type", type.name());
+        }
+        SlowCommandLog slowCommands = commandDecorator.getSlowCommands();
+        metricsRegistry.counter("bank_slow_commands_total", "Commands slower than the threshold",
+            slowCommands::slowCount);
+        commandDecorator.getDomainTypeLatencies().forEach((domain, histogram) -> metricsRegistry.summary(
+            "bank_command_domain_latency_seconds", "Latency of commands per domain object type",
+            histogram, "domain", domain.name()
+        ));
+    }
+
+    /**
+     * Gets counters of the command pipeline.
+     *
+     * @return Metrics, empty in {@link ExecutionMode#DIRECT} mode
+     */
+    public Optional<PipelineMetrics> getPipelineMetrics() {
+        return Optional.ofNullable(pipeline).map(CommandPipeline::metrics);
+    }
+
+    /**
+     * Executes a command on a virtual thread.
+     * Commands of types with a concurrency limit wait for a permit there, so the caller is never blocked.
+     *
+     * @param data The data containing information about the command to execute
+     * @return Future of the command result, completed exceptionally if the command throws
+     */
+    public CompletableFuture<CmdResult> executeAsync(CommandData data) {
+        Semaphore permits = data == null || data.type() == null ? null : asyncPermits.get(data.type());
+        return CompletableFuture.supplyAsync(() -> {
+            if (permits == null) {
+                return execute(data);
+            }
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CmdResult.failure("Interrupted while waiting to execute " + data.type());
+            }
+            try {
+                return execute(data);
+            } finally {
+                permits.release();
+            }
+        }, asyncExecutor);
+    }
+
+    /**
+     * Waits for running asynchronous commands and stops the executor.
+     */
+    @PreDestroy
+    public void shutdownAsync() {
+        asyncExecutor.shutdown();
+        try {
+            if (!asyncExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Asynchronous commands did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
 
     /**
      * Executes a command based on the provided command data.
@@ -70,23 +280,219 @@ public class CommandFacade {
      * @throws IllegalStateException If the command data is invalid
      */
     public CmdResult execute(CommandData data) {
+        CommandEvent event = CommandEvent.start();
+        CmdResult res = null;
+        try {
+            res = validateAndRun(data);
+            return res;
+        } finally {
+            event.finish(data, res);
+        }
+    }
+
+    /**
+     * Validates command and routes it to its handler or to the pipeline.
+     *
+     * @param data Command data
+     * @return Result of the command execution
+     */
+    private CmdResult validateAndRun(CommandData data) {
         try {
             validateData(data);
         } catch (IllegalStateException e) {
             log.error(e.getMessage());
+            countError(data);
             return CmdResult.failure(e.getMessage());
         }
+        if (pipeline != null && isMutating(data.type())) {
+            return await(pipeline.publish(data));
+        }
+        return dispatch(data);
+    }
+
+    /**
+     * Executes batch of commands.
+     *
+     * <p>Commands run in the order of the batch. Consecutive operation creations are applied together grouped by
+     * account, so every account is locked and every operation is stored only once per run. Invalid commands and
+     * commands which throw, like when the journal cannot be written, fail on their own without affecting the rest of
+     * the batch. In {@link ExecutionMode#PIPELINE} mode the whole batch is published to the pipeline.
+     *
+     * @param batch Data of the commands
+     * @return Results of the commands in the order of the batch
+     */
+    public List<CmdResult> executeBatch(List<CommandData> batch) {
+        CmdResult[] results = new CmdResult[batch.size()];
+        List<CommandData> valid = new ArrayList<>(batch.size());
+        List<Integer> validIndexes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            CommandData data = batch.get(i);
+            try {
+                validateData(data);
+            } catch (IllegalStateException e) {
+                log.error(e.getMessage());
+                countError(data);
+                results[i] = CmdResult.failure(e.getMessage());
+                continue;
+            }
+            valid.add(data);
+            validIndexes.add(i);
+        }
+        List<CompletableFuture<CmdResult>> futures = new ArrayList<>(valid.size());
+        if (pipeline != null) {
+            valid.forEach(data -> futures.add(pipeline.publish(data)));
+        } else {
+            valid.forEach(data -> futures.add(new CompletableFuture<>()));
+            applyInOrder(valid, futures);
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            results[validIndexes.get(i)] = resultOf(futures.get(i), valid.get(i));
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies run of commands drained by the pipeline writer, or a batch, in their order.
+     * Consecutive operation creations are applied as one batch with a single journal sync. A command, or a group of
+     * operation creations, which throws fails on its own and the rest of the run is still applied.
+     *
+     * @param commands Valid commands
+     * @param results  Futures completed with results of the commands
+     */
+    private void applyInOrder(List<CommandData> commands, List<CompletableFuture<CmdResult>> results) {
+        int i = 0;
+        while (i < commands.size()) {
+            int end = i;
+            while (end < commands.size() && isOperationCreation(commands.get(end))) {
+                end++;
+            }
+            if (end > i) {
+                try {
+                    List<CmdResult<?>> created = createOperations(commands.subList(i, end));
+                    for (int j = 0; j < created.size(); j++) {
+                        results.get(i + j).complete(created.get(j));
+                    }
+                } catch (RuntimeException e) {
+                    for (int j = i; j < end; j++) {
+                        results.get(j).completeExceptionally(e);
+                    }
+                }
+                i = end;
+                continue;
+            }
+            try {
+                results.get(i).complete(dispatch(commands.get(i)));
+            } catch (RuntimeException e) {
+                results.get(i).completeExceptionally(e);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Creates operations as one batch grouped by account.
+     *
+     * @param operations Valid operation creations
+     * @return Results in the order of the operations
+     */
+    private List<CmdResult<?>> createOperations(List<CommandData> operations) {
+        List<CmdResult<?>> created = commandJournal.recordBatch(operations, () -> commandDecorator.time(
+            CmdType.CREATE, DomainObjectType.OPERATION, () -> createDomain.executeOperations(operations)
+        ));
+        for (CmdResult<?> res : created) {
+            if (!res.isSuccess()) {
+                log.error(res.getError());
+                errorCounters.get(CmdType.CREATE).increment();
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Waits for result of a command of a batch, a thrown exception becomes the failure of that command.
+     *
+     * @param future Future of the result
+     * @param data   Command data
+     * @return Result
+     */
+    private CmdResult resultOf(CompletableFuture<CmdResult> future, CommandData data) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            log.error(cause.getMessage());
+            countError(data);
+            return CmdResult.failure(cause.getMessage());
+        }
+    }
+
+    /**
+     * Counts failed command.
+     *
+     * @param data Command data, possibly malformed
+     */
+    private void countError(CommandData data) {
+        CmdType type = data == null ? null : data.type();
+        (type == null ? unknownErrors : errorCounters.get(type)).increment();
+    }
+
+    /**
+     * Waits for result of a command published to the pipeline, rethrowing its exception as is.
+     *
+     * @param future Future of the result
+     * @return Result
+     */
+    private static CmdResult await(CompletableFuture<CmdResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether commands of the type change the storages.
+     *
+     * @param type Command type
+     * @return True for mutating commands
+     */
+    private static boolean isMutating(CmdType type) {
+        return type == CmdType.CREATE || type == CmdType.DELETE || type == CmdType.IMPORT || type == CmdType.TRANSFER;
+    }
+
+    /**
+     * Checks whether command creates an operation.
+     *
+     * @param data Command data
+     * @return True for operation creations
+     */
+    private static boolean isOperationCreation(CommandData data) {
+        return data.type() == CmdType.CREATE && data.domainType() == DomainObjectType.OPERATION;
+    }
+
+    /**
+     * Routes valid command to its handler.
+     *
+     * @param data Command data
+     * @return Result of the command execution
+     */
+    private CmdResult dispatch(CommandData data) {
         var res = switch (data.type()) {
-            case CREATE -> commandDecorator.execute(createDomain, data);
+            case CREATE -> commandJournal.record(data, () -> commandDecorator.execute(createDomain, data));
             case GET -> commandDecorator.execute(getDomain, data);
-            case DELETE -> commandDecorator.execute(deleteDomain, data);
+            case DELETE -> commandJournal.record(data, () -> commandDecorator.execute(deleteDomain, data));
             case STATISTICS -> commandDecorator.getStats();
             case EXPORT -> commandDecorator.execute(exportCmd, data);
-            case IMPORT -> commandDecorator.execute(importCmd, data);
+            case IMPORT -> commandJournal.record(data, () -> commandDecorator.execute(importCmd, data));
             case ANALYTICS -> commandDecorator.execute(analyticsCmd, data);
+            case TRANSFER -> commandJournal.record(data, () -> commandDecorator.execute(transferCmd, data));
         };
         if (!res.isSuccess()) {
             log.error(res.getError());
+            countError(data);
         }
         return res;
     }
@@ -115,7 +521,9 @@ public class CommandFacade {
 
         switch (cmdType) {
             case CREATE -> validateCreateCommand(data);
+            case GET -> validateGetCommand(data);
             case IMPORT -> validateImportCommand(data);
+            case TRANSFER -> validateTransferCommand(data);
             default -> {
             }
         }
@@ -152,6 +560,48 @@ public class CommandFacade {
         }
     }
 
+    /**
+     * Validates that operation queries are issued for operations only and have a whole time range.
+     *
+     * @param data The command data to validate
+     * @throws IllegalStateException If the command data is invalid for a get operation
+     */
+    private void validateGetCommand(CommandData data) {
+        if (
+            data.objectData() instanceof OperationQueryData
+                && data.domainType() != DomainObjectType.OPERATION
+        ) {
+            throw new IllegalStateException("Operation query can only be issued for operations");
+        }
+        if (
+            data.objectData() instanceof OperationQueryData query
+                && (query.from() == null) != (query.to() == null)
+        ) {
+            throw new IllegalStateException("Operation query needs both ends of the time range");
+        }
+    }
+
+    /**
+     * Validates a transfer command moves a positive amount between two existing accounts.
+     *
+     * @param data The command data to validate
+     * @throws IllegalStateException If the command data is invalid for a transfer
+     */
+    private void validateTransferCommand(CommandData data) {
+        if (!(data.objectData() instanceof TransferData transfer)) {
+            throw new IllegalStateException("Transfer command needs transfer data");
+        }
+        if (transfer.from() == null || transfer.to() == null) {
+            throw new IllegalStateException("Transfer needs both accounts");
+        }
+        if (transfer.from().getId() == transfer.to().getId()) {
+            throw new IllegalStateException("Cannot transfer money to the same account");
+        }
+        if (!(transfer.amount() > 0)) {
+            throw new IllegalStateException("Transfer amount must be positive");
+        }
+    }
+
     /**
      * Validates an import command has the necessary file path.
      *
@@ -6,20 +6,26 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class BankAccountFactory {
-    static int globalId = -1;
+    private static final IdAllocator ids = new IdAllocator(1);
 
     public static BankAccount createAccount(BankAccountData data) {
-        globalId++;
-        return new BankAccount(globalId, data.name(), data.initialBalance());
+        return new BankAccount(ids.next(), data.name(), data.initialBalance());
     }
 
     public static BankAccount createAccountWithId(BankAccountData data, int id) {
-        if (id > globalId) {
-            globalId = id;
-        }
+        ids.bump(id);
         return new BankAccount(id, data.name(), data.initialBalance());
     }
+
+    public static int getLastId() {
+        return ids.last();
+    }
+
+    public static void restoreLastId(int id) {
+        ids.reset(id);
+    }
+
     public static void flush() {
-        globalId = -1;
+        ids.reset(-1);
     }
 }
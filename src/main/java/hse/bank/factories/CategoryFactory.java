@@ -6,19 +6,25 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class CategoryFactory {
-    private static int globalId = -1;
+    private static final IdAllocator ids = new IdAllocator(1);
 
     public static Category createCategory(CategoryData categoryData) {
-        globalId++;
-        return new Category(globalId, categoryData.isPositive(), categoryData.name());
+        return new Category(ids.next(), categoryData.isPositive(), categoryData.name());
     }
     public static Category createCategoryWithId(CategoryData categoryData, int id) {
-        if (id > globalId) {
-            globalId = id;
-        }
+        ids.bump(id);
         return new Category(id, categoryData.isPositive(), categoryData.name());
     }
+
+    public static int getLastId() {
+        return ids.last();
+    }
+
+    public static void restoreLastId(int id) {
+        ids.reset(id);
+    }
+
     public static void flush() {
-        globalId = -1;
+        ids.reset(-1);
     }
 }
@@ -0,0 +1,121 @@
+package hse.bank.factories;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free allocator of ids.
+ *
+ * <p>All ids come from one high-water mark advanced by CAS. With a block size above one every platform thread takes
+ * a contiguous block at once and hands ids out of it, so busy threads do not fight over the shared counter; virtual
+ * threads are short-lived and always allocate directly. Ids set explicitly by importers and the journal only raise
+ * the high-water mark. An explicit id at or below the mark may lie inside a block some thread holds, so all blocks
+ * are dropped in that case and the unused rest of them is skipped.
+ */
+public final class IdAllocator {
+    /**
+     * Last id handed out or reserved.
+     */
+    private final AtomicInteger lastId = new AtomicInteger(-1);
+    /**
+     * Incremented whenever blocks held by threads become invalid.
+     */
+    private final AtomicInteger epoch = new AtomicInteger();
+    /**
+     * Number of ids a thread reserves at once.
+     */
+    private final int blockSize;
+    /**
+     * Block of the current thread.
+     */
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    /**
+     * Constructor.
+     *
+     * @param blockSize Number of ids a thread reserves at once, one disables per-thread blocks
+     */
+    public IdAllocator(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocates next id.
+     *
+     * @return Id
+     */
+    public int next() {
+        if (blockSize == 1 || Thread.currentThread().isVirtual()) {
+            return lastId.incrementAndGet();
+        }
+        Block block = blocks.get();
+        int currentEpoch = epoch.get();
+        if (block.epoch != currentEpoch || block.next == block.end) {
+            block.next = reserve(blockSize);
+            block.end = block.next + blockSize;
+            block.epoch = currentEpoch;
+        }
+        return block.next++;
+    }
+
+    /**
+     * Reserves contiguous ids, for example for a batch of imported objects.
+     *
+     * @param count Number of ids
+     * @return First reserved id
+     */
+    public int reserve(int count) {
+        return lastId.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Makes sure the id is never allocated, used for objects created with explicit ids.
+     *
+     * @param id Id taken by an object
+     */
+    public void bump(int id) {
+        int previous = lastId.getAndAccumulate(id, Math::max);
+        if (id <= previous && blockSize > 1) {
+            epoch.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gets last allocated or reserved id.
+     *
+     * @return Id
+     */
+    public int last() {
+        return lastId.get();
+    }
+
+    /**
+     * Restarts allocation after the given id.
+     *
+     * @param id Last taken id
+     */
+    public void reset(int id) {
+        lastId.set(id);
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * Range of ids reserved by a thread.
+     */
+    private static final class Block {
+        /**
+         * Next id to hand out.
+         */
+        private int next;
+        /**
+         * End of the range, exclusive.
+         */
+        private int end;
+        /**
+         * Epoch the range was reserved in.
+         */
+        private int epoch = -1;
+    }
+}
@@ -1,40 +1,139 @@
 package hse.bank.factories;
 
+import hse.bank.domains.BankAccount;
 import hse.bank.domains.Operation;
 import hse.bank.records.OperationData;
+import hse.bank.records.TransferData;
+import hse.bank.storage.AccountLocks;
+import hse.bank.storage.AccountStorage;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 @Component
 public class OperationFactory {
-    private static int globalId = -1;
+    /**
+     * Ids of operations, threads creating many operations take them in blocks.
+     */
+    private static final IdAllocator ids = new IdAllocator(32);
 
+    /**
+     * Creates operation and applies it to the balance, atomically for operations on the same account.
+     */
     public static Operation createOperation(OperationData data) {
-        if (data.account().getBalance() + data.amount() < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
+        Lock lock = AccountLocks.lockFor(data.account().getId());
+        lock.lock();
+        try {
+            requireStored(data.account());
+            if (data.account().getBalance() + data.amount() < 0) {
+                throw new IllegalArgumentException("Insufficient funds");
+            }
+            double newBalance = data.account().getBalance() + data.amount();
+            data.account().setBalance(newBalance);
+            return new Operation(ids.next(), data.type(), data.account(), data.amount(),
+                LocalDateTime.now(), data.category(), data.desc());
+        } finally {
+            lock.unlock();
         }
-        globalId++;
-        double newBalance = data.account().getBalance() + data.amount();
-        data.account().setBalance(newBalance);
-        return new Operation(globalId, data.type(), data.account(), data.amount(), LocalDateTime.now(), data.category(), data.desc());
     }
 
-    public static Operation createOperationWithId(OperationData data, int id) {
-        if (id > globalId) {
-            globalId = id;
+    /**
+     * Creates operations of one account holding its lock once, operations exceeding the balance are skipped.
+     *
+     * @return Created operations aligned with the data, null where funds were insufficient
+     * @throws IllegalArgumentException If the account has been deleted
+     */
+    public static List<Operation> createOperations(BankAccount account, List<OperationData> data) {
+        List<Operation> operations = new ArrayList<>(data.size());
+        Lock lock = AccountLocks.lockFor(account.getId());
+        lock.lock();
+        try {
+            requireStored(account);
+            double balance = account.getBalance();
+            for (OperationData item : data) {
+                if (balance + item.amount() < 0) {
+                    operations.add(null);
+                    continue;
+                }
+                balance += item.amount();
+                operations.add(new Operation(ids.next(), item.type(), account, item.amount(), LocalDateTime.now(),
+                    item.category(), item.desc()));
+            }
+            account.setBalance(balance);
+        } finally {
+            lock.unlock();
         }
+        return operations;
+    }
+
+    /**
+     * Creates withdrawal and deposit of a transfer and applies both to the balances at once.
+     */
+    public static List<Operation> createTransfer(TransferData data) {
+        return AccountLocks.withLocks(data.from().getId(), data.to().getId(), () -> {
+            requireStored(data.from());
+            requireStored(data.to());
+            if (data.from().getBalance() - data.amount() < 0) {
+                throw new IllegalArgumentException("Insufficient funds");
+            }
+            data.from().setBalance(data.from().getBalance() - data.amount());
+            data.to().setBalance(data.to().getBalance() + data.amount());
+            LocalDateTime date = LocalDateTime.now();
+            return List.of(
+                new Operation(ids.next(), false, data.from(), -data.amount(), date, data.category(),
+                    data.desc()),
+                new Operation(ids.next(), true, data.to(), data.amount(), date, data.category(),
+                    data.desc())
+            );
+        });
+    }
+
+    public static Operation createOperationWithId(OperationData data, int id) {
+        ids.bump(id);
         return new Operation(id, data.type(), data.account(), data.amount(), LocalDateTime.now(), data.category(), data.desc());
     }
     public static Operation createOperationWithIdAndTime(OperationData data,LocalDateTime time,  int id) {
-        if (id > globalId) {
-            globalId = id;
-        }
+        ids.bump(id);
         return new Operation(id, data.type(), data.account(), data.amount(), time, data.category(), data.desc());
     }
 
+    /**
+     * Reserves contiguous ids for a batch of operations created together.
+     */
+    public static int reserveIds(int count) {
+        return ids.reserve(count);
+    }
+
+    public static int getLastId() {
+        return ids.last();
+    }
+
+    public static void restoreLastId(int id) {
+        ids.reset(id);
+    }
+
+    /**
+     * Makes sure ids up to the given one are never allocated, used when operations are reloaded from a file.
+     */
+    public static void bumpLastId(int id) {
+        ids.bump(id);
+    }
+
+    /**
+     * Checks that the account is still stored, called holding its lock, which deletion of the account takes too.
+     * Commands are validated before they run, so the account may have been deleted in the meantime.
+     */
+    private static void requireStored(BankAccount account) {
+        if (AccountStorage.getUserById(account.getId()) != account) {
+            throw new IllegalArgumentException("Account " + account.getId() + " not found");
+        }
+    }
+
     public static void flush() {
-        globalId = -1;
+        ids.reset(-1);
     }
 
 }
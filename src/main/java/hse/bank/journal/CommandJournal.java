@@ -0,0 +1,699 @@
+package hse.bank.journal;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.enums.CmdType;
+import hse.bank.records.CommandData;
+import hse.bank.stats.LatencyHistogram;
+import hse.bank.stats.MetricsRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only journal of mutating commands with periodic snapshots.
+ *
+ * <p>Every record is framed as length, payload and CRC32 of the payload, so a torn write at the tail is detected
+ * and cut off on replay. Records are buffered in memory and written with one fsync per group: a background thread
+ * syncs as soon as {@code bank.journal.sync-batch} records are pending or {@code bank.journal.sync-interval-ms}
+ * passes. With {@code bank.journal.await-sync} callers additionally wait until their record is durable.
+ * The journal is disabled while {@code bank.journal.path} is empty.
+ *
+ * <p>The journal is split into numbered segments next to {@code bank.journal.path}. Every
+ * {@code bank.snapshot.interval-s} seconds commands are paused just long enough to start a new segment and copy the
+ * accounts and categories. The copy is then written to the snapshot file in the background together with the
+ * operations, which are read from the storage in small chunks while commands run, after which older segments are
+ * deleted. Startup loads the snapshot and replays only the segments written after it.
+ *
+ * <p>Imports cannot be expressed as records, so an import runs with other commands paused and they stay paused
+ * until a snapshot covering it is synced. The import is acknowledged only then, and no record can refer to imported
+ * objects which are not on the disk yet.
+ */
+@Log4j2
+@Component
+@DependsOn("operationBackendConfig")
+public class CommandJournal {
+    /**
+     * Suffix of the snapshot file.
+     */
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    /**
+     * Suffix of the snapshot file being written.
+     */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Journal file, empty if journaling is disabled.
+     */
+    @Value("${bank.journal.path:}")
+    private String path;
+    /**
+     * Number of pending records which triggers sync, positive.
+     */
+    @Value("${bank.journal.sync-batch:64}")
+    private int syncBatch;
+    /**
+     * Longest time a record waits for sync, positive.
+     */
+    @Value("${bank.journal.sync-interval-ms:10}")
+    private long syncIntervalMillis;
+    /**
+     * Whether append waits for its record to be synced.
+     */
+    @Value("${bank.journal.await-sync:false}")
+    private boolean awaitSync;
+    /**
+     * Period of snapshots, zero disables periodic snapshots.
+     */
+    @Value("${bank.snapshot.interval-s:300}")
+    private long snapshotIntervalSeconds;
+    /**
+     * Registry of metrics.
+     */
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    /**
+     * Commands hold the read lock, imports and snapshot capture hold the write lock.
+     */
+    private final ReadWriteLock mutationLock = new ReentrantReadWriteLock();
+    /**
+     * Guards buffer and sequence numbers.
+     */
+    private final Object lock = new Object();
+    /**
+     * Guards file writes, segments and snapshot file.
+     */
+    private final Object writeLock = new Object();
+    /**
+     * Latencies of writing and syncing pending records.
+     */
+    private final LatencyHistogram syncLatency = new LatencyHistogram();
+    /**
+     * Records waiting to be written.
+     */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    /**
+     * Scratch buffer for record payload.
+     */
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    /**
+     * Number of appended records.
+     */
+    private long appendedSequence;
+    /**
+     * Number of synced records.
+     */
+    private long syncedSequence;
+    /**
+     * Number of records appended since the last snapshot.
+     */
+    private long recordsSinceSnapshot;
+    /**
+     * Base path of segments and snapshot.
+     */
+    private Path base;
+    /**
+     * Generation of the current segment.
+     */
+    private long generation;
+    /**
+     * Number of resets, a snapshot captured before a reset is discarded.
+     */
+    private long resets;
+    /**
+     * Current segment channel.
+     */
+    private FileChannel channel;
+    /**
+     * Thread syncing pending records.
+     */
+    private Thread flusher;
+    /**
+     * Thread writing snapshots.
+     */
+    private ScheduledExecutorService snapshotter;
+    /**
+     * Whether the journal accepts records.
+     */
+    private volatile boolean running;
+
+    /**
+     * Loads the latest snapshot, replays the journal written after it and starts accepting records.
+     *
+     * @throws IOException           If journal or snapshot cannot be read
+     * @throws IllegalStateException If sync batch or interval is not positive, the flushing thread would either
+     *                               wait without a timeout or never wait
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        metricsRegistry.summary("bank_journal_fsync_seconds", "Latency of writing and syncing journal records",
+            syncLatency);
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        if (syncIntervalMillis <= 0) {
+            throw new IllegalStateException("Journal sync interval must be positive: " + syncIntervalMillis);
+        }
+        if (syncBatch <= 0) {
+            throw new IllegalStateException("Journal sync batch must be positive: " + syncBatch);
+        }
+        base = Path.of(path).toAbsolutePath();
+        Files.createDirectories(base.getParent());
+        Files.deleteIfExists(temporarySnapshotFile());
+        long firstGeneration = 0;
+        if (Files.exists(snapshotFile())) {
+            firstGeneration = SnapshotCodec.load(snapshotFile());
+            log.info("Loaded snapshot {}", snapshotFile());
+        }
+        deleteSegmentsBefore(firstGeneration);
+        List<Long> generations = segmentGenerations();
+        generation = generations.isEmpty() ? firstGeneration : generations.get(generations.size() - 1);
+        for (long segment : generations) {
+            try (FileChannel segmentChannel = openSegment(segment)) {
+                long validEnd = replay(segmentChannel);
+                if (validEnd < segmentChannel.size()) {
+                    if (segment != generation) {
+                        throw new IOException("Journal segment " + segmentFile(segment) + " is damaged");
+                    }
+                    log.warn("Journal {} has a torn tail, truncating {} bytes",
+                        segmentFile(segment), segmentChannel.size() - validEnd);
+                    segmentChannel.truncate(validEnd);
+                }
+            }
+        }
+        channel = openSegment(generation);
+        channel.position(channel.size());
+        running = true;
+        flusher = Thread.ofPlatform().daemon().name("journal-flusher").start(this::flushLoop);
+        snapshotter = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("journal-snapshot").factory()
+        );
+        if (snapshotIntervalSeconds > 0) {
+            snapshotter.scheduleWithFixedDelay(
+                this::periodicSnapshot, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * Checks if journal is enabled.
+     *
+     * @return Boolean
+     */
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Runs mutating command and journals its result if it succeeds.
+     * Imports cannot be journaled, a snapshot is written before they return instead.
+     *
+     * @param data    Command data
+     * @param command Command execution
+     * @return Command result
+     */
+    public CmdResult<?> record(CommandData data, Supplier<CmdResult<?>> command) {
+        if (!running) {
+            return command.get();
+        }
+        if (data.type() == CmdType.IMPORT) {
+            return recordImport(command);
+        }
+        CmdResult<?> result;
+        long sequence;
+        mutationLock.readLock().lock();
+        try {
+            result = command.get();
+            sequence = result.isSuccess() ? append(data, result) : 0;
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+        if (awaitSync && sequence > 0) {
+            awaitSynced(sequence);
+        }
+        return result;
+    }
+
+    /**
+     * Runs batch of mutating commands and journals every successful one.
+     *
+     * @param data     Data of the commands
+     * @param commands Execution of the whole batch returning results aligned with the data
+     * @return Command results
+     */
+    public List<CmdResult<?>> recordBatch(List<CommandData> data, Supplier<List<CmdResult<?>>> commands) {
+        if (!running) {
+            return commands.get();
+        }
+        List<CmdResult<?>> results;
+        long sequence = 0;
+        mutationLock.readLock().lock();
+        try {
+            results = commands.get();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isSuccess()) {
+                    sequence = Math.max(sequence, append(data.get(i), results.get(i)));
+                }
+            }
+        } finally {
+            mutationLock.readLock().unlock();
+        }
+        if (awaitSync && sequence > 0) {
+            awaitSynced(sequence);
+        }
+        return results;
+    }
+
+    /**
+     * Takes snapshot in the background.
+     *
+     * @return Future completed once the snapshot is durable
+     */
+    public CompletableFuture<Void> snapshot() {
+        if (!running) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(this::takeSnapshot, snapshotter);
+    }
+
+    /**
+     * Writes and syncs all pending records.
+     */
+    public void sync() {
+        synchronized (writeLock) {
+            byte[] bytes;
+            long sequence;
+            synchronized (lock) {
+                if (appendedSequence == syncedSequence) {
+                    return;
+                }
+                bytes = pending.toByteArray();
+                pending = new ByteArrayOutputStream(Math.max(32, bytes.length));
+                sequence = appendedSequence;
+            }
+            long start = System.nanoTime();
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                syncLatency.record(System.nanoTime() - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronized (lock) {
+                syncedSequence = sequence;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Drops all records and the snapshot, used when the storages are flushed.
+     */
+    public void reset() {
+        if (!running) {
+            return;
+        }
+        mutationLock.writeLock().lock();
+        try {
+            synchronized (writeLock) {
+                synchronized (lock) {
+                    pending.reset();
+                    syncedSequence = appendedSequence;
+                    recordsSinceSnapshot = 0;
+                    lock.notifyAll();
+                }
+                resets++;
+                try {
+                    startSegment(generation + 1);
+                    deleteSegmentsBefore(generation);
+                    Files.deleteIfExists(snapshotFile());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        } finally {
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Syncs pending records and closes the journal.
+     *
+     * @throws IOException If journal cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        snapshotter.shutdown();
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        channel.close();
+    }
+
+    /**
+     * Appends result of a successful command, commands not changing the storages are ignored.
+     *
+     * @param data   Command data
+     * @param result Command result
+     * @return Sequence number of the record or zero if nothing was appended
+     */
+    private long append(CommandData data, CmdResult<?> result) {
+        synchronized (lock) {
+            payload.reset();
+            try {
+                if (!JournalCodec.write(data, result, new DataOutputStream(payload))) {
+                    return 0;
+                }
+                writeFrame(payload.toByteArray(), new DataOutputStream(pending));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            recordsSinceSnapshot++;
+            if (++appendedSequence - syncedSequence >= syncBatch) {
+                lock.notifyAll();
+            }
+            return appendedSequence;
+        }
+    }
+
+    /**
+     * Runs import with other commands paused and keeps them paused until a snapshot covering it is synced.
+     *
+     * @param command Import execution
+     * @return Import result, failure if the snapshot cannot be written
+     */
+    private CmdResult<?> recordImport(Supplier<CmdResult<?>> command) {
+        mutationLock.writeLock().lock();
+        try {
+            CmdResult<?> result = command.get();
+            if (result.isSuccess()) {
+                takeSnapshot();
+            }
+            return result;
+        } catch (UncheckedIOException e) {
+            log.error("Snapshot after import failed: {}", e.getMessage());
+            return CmdResult.failure("Imported data is not saved: " + e.getMessage());
+        } finally {
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes snapshot if anything was journaled since the previous one.
+     */
+    private void periodicSnapshot() {
+        synchronized (lock) {
+            if (recordsSinceSnapshot == 0) {
+                return;
+            }
+        }
+        try {
+            takeSnapshot();
+        } catch (UncheckedIOException e) {
+            log.error("Snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a new segment and copies accounts and categories while commands are paused, then writes them with the
+     * operations and deletes segments the snapshot covers.
+     */
+    private void takeSnapshot() {
+        Snapshot snapshot;
+        long resetsAtCapture;
+        mutationLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            synchronized (writeLock) {
+                startSegment(generation + 1);
+                resetsAtCapture = resets;
+            }
+            synchronized (lock) {
+                recordsSinceSnapshot = 0;
+            }
+            snapshot = Snapshot.capture(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            mutationLock.writeLock().unlock();
+        }
+        int operations;
+        try {
+            Path temporary = temporarySnapshotFile();
+            operations = SnapshotCodec.write(snapshot, temporary);
+            synchronized (writeLock) {
+                if (resets != resetsAtCapture) {
+                    Files.deleteIfExists(temporary);
+                    return;
+                }
+                Files.move(temporary, snapshotFile(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+                deleteSegmentsBefore(snapshot.generation());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Snapshot of {} operations written, journal starts at segment {}",
+            operations, snapshot.generation());
+    }
+
+    /**
+     * Syncs pending records into the current segment and switches to a new one.
+     *
+     * @param newGeneration Generation of the new segment
+     * @throws IOException If segment cannot be opened
+     */
+    private void startSegment(long newGeneration) throws IOException {
+        synchronized (writeLock) {
+            sync();
+            FileChannel newChannel = openSegment(newGeneration);
+            newChannel.truncate(0);
+            channel.close();
+            channel = newChannel;
+            generation = newGeneration;
+        }
+    }
+
+    /**
+     * Syncs pending records until the journal is closed.
+     */
+    private void flushLoop() {
+        while (running) {
+            synchronized (lock) {
+                if (running && appendedSequence - syncedSequence < syncBatch) {
+                    try {
+                        lock.wait(syncIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            try {
+                sync();
+            } catch (UncheckedIOException e) {
+                log.error("Journal sync failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Waits until the record is synced.
+     *
+     * @param sequence Sequence number of the record
+     */
+    private void awaitSynced(long sequence) {
+        synchronized (lock) {
+            lock.notifyAll();
+            while (syncedSequence < sequence && running) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays records from the beginning of the segment.
+     *
+     * @param segment Segment channel
+     * @return Offset right after the last valid record
+     * @throws IOException If segment cannot be read
+     */
+    private long replay(FileChannel segment) throws IOException {
+        long validEnd = 0;
+        int records = 0;
+        InputStream stream = new BufferedInputStream(Channels.newInputStream(segment), 1 << 16);
+        DataInputStream in = new DataInputStream(stream);
+        while (true) {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > segment.size()) {
+                    break;
+                }
+                record = new byte[length];
+                in.readFully(record);
+                if (in.readInt() != checksum(record)) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            JournalCodec.apply(new DataInputStream(new ByteArrayInputStream(record)));
+            validEnd += Integer.BYTES * 2 + record.length;
+            records++;
+        }
+        log.info("Replayed {} journal records", records);
+        return validEnd;
+    }
+
+    /**
+     * Generations of existing segments in ascending order.
+     *
+     * @return Generations
+     * @throws IOException If directory cannot be listed
+     */
+    private List<Long> segmentGenerations() throws IOException {
+        String prefix = base.getFileName() + ".";
+        try (Stream<Path> files = Files.list(base.getParent())) {
+            return files
+                .map(file -> file.getFileName().toString())
+                .filter(name -> name.startsWith(prefix))
+                .map(name -> name.substring(prefix.length()))
+                .filter(suffix -> !suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit))
+                .map(Long::parseLong)
+                .sorted()
+                .toList();
+        }
+    }
+
+    /**
+     * Deletes segments covered by a snapshot.
+     *
+     * @param firstKept Generation of the first segment to keep
+     * @throws IOException If segment cannot be deleted
+     */
+    private void deleteSegmentsBefore(long firstKept) throws IOException {
+        for (long segment : segmentGenerations()) {
+            if (segment < firstKept) {
+                Files.deleteIfExists(segmentFile(segment));
+            }
+        }
+    }
+
+    /**
+     * Opens segment for reading and writing, creating it when needed.
+     *
+     * @param segment Generation
+     * @return Channel positioned at the start
+     * @throws IOException If segment cannot be opened
+     */
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(
+            segmentFile(segment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+    }
+
+    /**
+     * Path of the segment.
+     *
+     * @param segment Generation
+     * @return Path
+     */
+    private Path segmentFile(long segment) {
+        return base.resolveSibling(base.getFileName() + "." + segment);
+    }
+
+    /**
+     * Path of the snapshot.
+     *
+     * @return Path
+     */
+    private Path snapshotFile() {
+        return base.resolveSibling(base.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Path of the snapshot being written.
+     *
+     * @return Path
+     */
+    private Path temporarySnapshotFile() {
+        return base.resolveSibling(base.getFileName() + SNAPSHOT_SUFFIX + TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Writes framed record.
+     *
+     * @param record Record payload
+     * @param out    Output
+     * @throws IOException If output fails
+     */
+    private static void writeFrame(byte[] record, DataOutputStream out) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+        out.writeInt(checksum(record));
+    }
+
+    /**
+     * Checksum of record payload.
+     *
+     * @param record Record payload
+     * @return CRC32 truncated to int
+     */
+    private static int checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+}
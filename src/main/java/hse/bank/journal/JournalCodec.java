@@ -0,0 +1,202 @@
+package hse.bank.journal;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.BankAccountData;
+import hse.bank.records.CategoryData;
+import hse.bank.records.CommandData;
+import hse.bank.records.OperationData;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+/**
+ * Encodes mutating commands into journal records and applies records back to the storages.
+ */
+final class JournalCodec {
+    private JournalCodec() {
+    }
+
+    /**
+     * Encodes result of successful command.
+     *
+     * @param data   Command data
+     * @param result Command result
+     * @param out    Output
+     * @return False if command does not change the storages
+     * @throws IOException If output fails
+     */
+    static boolean write(CommandData data, CmdResult<?> result, DataOutput out) throws IOException {
+        switch (data.type()) {
+            case CREATE -> {
+                switch (data.domainType()) {
+                    case ACCOUNT -> writeAccount(result.getBankAccount(), (BankAccountData) data.objectData(), out);
+                    case CATEGORY -> writeCategory(result.getCategory(), out);
+                    case OPERATION -> writeOperation(result.getOperation(), out);
+                    default -> {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case TRANSFER -> {
+                out.writeByte(JournalRecordType.TRANSFER.ordinal());
+                for (Operation operation : result.getOperationsList()) {
+                    writeOperationBody(operation, out);
+                }
+                return true;
+            }
+            case DELETE -> {
+                JournalRecordType type = switch (data.domainType()) {
+                    case ACCOUNT -> JournalRecordType.DELETE_ACCOUNT;
+                    case CATEGORY -> JournalRecordType.DELETE_CATEGORY;
+                    case OPERATION -> JournalRecordType.DELETE_OPERATION;
+                };
+                out.writeByte(type.ordinal());
+                out.writeInt(data.miscData().id());
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Applies one record to the storages and factory counters.
+     *
+     * @param in Input positioned at the record
+     * @throws IOException If record is malformed
+     */
+    static void apply(DataInput in) throws IOException {
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= JournalRecordType.values().length) {
+            throw new IOException("Unknown journal record type " + ordinal);
+        }
+        switch (JournalRecordType.values()[ordinal]) {
+            case CREATE_ACCOUNT -> {
+                int id = in.readInt();
+                String name = readString(in);
+                double balance = in.readDouble();
+                BankAccountData accountData = new BankAccountData(name, balance);
+                AccountStorage.addUser(BankAccountFactory.createAccountWithId(accountData, id));
+            }
+            case CREATE_CATEGORY -> {
+                int id = in.readInt();
+                boolean isPositive = in.readBoolean();
+                String name = readString(in);
+                CategoryData categoryData = new CategoryData(isPositive, name);
+                CategoryStorage.addCategory(CategoryFactory.createCategoryWithId(categoryData, id));
+            }
+            case CREATE_OPERATION -> applyOperation(in);
+            case TRANSFER -> {
+                applyOperation(in);
+                applyOperation(in);
+            }
+            case DELETE_ACCOUNT -> AccountStorage.deleteUserById(in.readInt());
+            case DELETE_CATEGORY -> CategoryStorage.deleteCategoryById(in.readInt());
+            case DELETE_OPERATION -> OperationStorage.deleteOperationById(in.readInt());
+            default -> throw new IOException("Unsupported journal record type " + ordinal);
+        }
+    }
+
+    /**
+     * Writes created account with its initial balance, later balance changes are replayed from operations.
+     */
+    private static void writeAccount(BankAccount account, BankAccountData data, DataOutput out) throws IOException {
+        out.writeByte(JournalRecordType.CREATE_ACCOUNT.ordinal());
+        out.writeInt(account.getId());
+        writeString(account.getName(), out);
+        out.writeDouble(data.initialBalance());
+    }
+
+    /**
+     * Writes created category.
+     */
+    private static void writeCategory(Category category, DataOutput out) throws IOException {
+        out.writeByte(JournalRecordType.CREATE_CATEGORY.ordinal());
+        out.writeInt(category.getId());
+        out.writeBoolean(category.isPositive());
+        writeString(category.getName(), out);
+    }
+
+    /**
+     * Writes created operation.
+     */
+    private static void writeOperation(Operation operation, DataOutput out) throws IOException {
+        out.writeByte(JournalRecordType.CREATE_OPERATION.ordinal());
+        writeOperationBody(operation, out);
+    }
+
+    /**
+     * Writes operation fields, a transfer record holds two of them.
+     */
+    private static void writeOperationBody(Operation operation, DataOutput out) throws IOException {
+        out.writeInt(operation.getId());
+        out.writeBoolean(operation.isType());
+        out.writeInt(operation.getAccount().getId());
+        out.writeDouble(operation.getAmount());
+        out.writeLong(operation.getDate().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(operation.getDate().getNano());
+        out.writeInt(operation.getCategory().getId());
+        out.writeBoolean(operation.getDescription().isPresent());
+        if (operation.getDescription().isPresent()) {
+            writeString(operation.getDescription().get(), out);
+        }
+    }
+
+    /**
+     * Replays created operation including its effect on the account balance. An operation journaled after its
+     * account or category was deleted gets a placeholder carrying just the id, like when loading a snapshot.
+     */
+    private static void applyOperation(DataInput in) throws IOException {
+        int id = in.readInt();
+        boolean type = in.readBoolean();
+        int accountId = in.readInt();
+        double amount = in.readDouble();
+        LocalDateTime date = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        int categoryId = in.readInt();
+        Optional<String> description = in.readBoolean() ? Optional.of(readString(in)) : Optional.empty();
+        BankAccount account = AccountStorage.getUserById(accountId);
+        Category category = CategoryStorage.getCategoryById(categoryId);
+        if (account == null) {
+            account = new BankAccount(accountId, "", 0);
+        }
+        if (category == null) {
+            category = new Category(categoryId, type, "");
+        }
+        OperationData data = new OperationData(type, account, amount, category, description);
+        OperationStorage.addOperation(OperationFactory.createOperationWithIdAndTime(data, date, id));
+        account.setBalance(account.getBalance() + amount);
+    }
+
+    /**
+     * Writes length-prefixed UTF-8 string.
+     */
+    static void writeString(String value, DataOutput out) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads length-prefixed UTF-8 string.
+     */
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,14 @@
+package hse.bank.journal;
+
+/**
+ * Type of journal record.
+ */
+enum JournalRecordType {
+    CREATE_ACCOUNT,
+    CREATE_CATEGORY,
+    CREATE_OPERATION,
+    DELETE_ACCOUNT,
+    DELETE_CATEGORY,
+    DELETE_OPERATION,
+    TRANSFER,
+}
@@ -0,0 +1,56 @@
+package hse.bank.journal;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copy of accounts, categories and factory counters taken while commands are paused.
+ *
+ * <p>Operations are not copied, {@link SnapshotCodec} reads them from the storage once commands run again. The file
+ * may then hold changes which are also in the journal segments after the snapshot and are replayed once more: an
+ * operation is put and deleted by id, and its amount is added to an account balance copied before it was made, so
+ * it is still counted once.
+ *
+ * @param generation      First journal segment not covered by the snapshot
+ * @param lastAccountId   Last issued account id
+ * @param lastCategoryId  Last issued category id
+ * @param lastOperationId Last issued operation id
+ * @param accounts        Copies of accounts, balances do not change after capture
+ * @param categories      Categories
+ */
+record Snapshot(
+    long generation,
+    int lastAccountId,
+    int lastCategoryId,
+    int lastOperationId,
+    List<BankAccount> accounts,
+    List<Category> categories
+) {
+    /**
+     * Copies current state, callers make sure no command runs meanwhile.
+     *
+     * @param generation First journal segment not covered by the snapshot
+     * @return Snapshot
+     */
+    static Snapshot capture(long generation) {
+        List<BankAccount> accounts = new ArrayList<>(AccountStorage.size());
+        AccountStorage.walk().forEach(
+            account -> accounts.add(new BankAccount(account.getId(), account.getName(), account.getBalance()))
+        );
+        return new Snapshot(
+            generation,
+            BankAccountFactory.getLastId(),
+            CategoryFactory.getLastId(),
+            OperationFactory.getLastId(),
+            accounts,
+            new ArrayList<>(CategoryStorage.getCategories())
+        );
+    }
+}
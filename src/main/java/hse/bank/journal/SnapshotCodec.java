@@ -0,0 +1,205 @@
+package hse.bank.journal;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.IntHashIndex;
+import hse.bank.storage.OperationStorage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes snapshots into binary files and loads them back into the storages.
+ *
+ * <p>A file holds a header with the journal generation and factory counters, then accounts, categories and
+ * operations, each section prefixed by its size, and ends with CRC32 of everything before it.
+ */
+final class SnapshotCodec {
+    /**
+     * File signature.
+     */
+    private static final int MAGIC = 0x534E4150;
+    /**
+     * File format version.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of file buffers.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Flag of income operation.
+     */
+    private static final int TYPE_FLAG = 1;
+    /**
+     * Flag of operation having description.
+     */
+    private static final int DESCRIPTION_FLAG = 2;
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * Writes snapshot with the operations currently in the storage and syncs the file.
+     *
+     * @param snapshot Snapshot
+     * @param file     Target file, replaced if exists
+     * @return Number of written operations
+     * @throws IOException If file cannot be written
+     */
+    static int write(Snapshot snapshot, Path file) throws IOException {
+        List<Operation> operations = new ArrayList<>(OperationStorage.size());
+        OperationStorage.forEachOf(OperationStorage.getIds(), operations::add);
+        CRC32 crc = new CRC32();
+        try (FileOutputStream stream = new FileOutputStream(file.toFile())) {
+            BufferedOutputStream buffered = new BufferedOutputStream(stream, BUFFER_SIZE);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(snapshot.generation());
+            out.writeInt(snapshot.lastAccountId());
+            out.writeInt(snapshot.lastCategoryId());
+            out.writeInt(snapshot.lastOperationId());
+            out.writeInt(snapshot.accounts().size());
+            for (BankAccount account : snapshot.accounts()) {
+                out.writeInt(account.getId());
+                JournalCodec.writeString(account.getName(), out);
+                out.writeDouble(account.getBalance());
+            }
+            out.writeInt(snapshot.categories().size());
+            for (Category category : snapshot.categories()) {
+                out.writeInt(category.getId());
+                out.writeBoolean(category.isPositive());
+                JournalCodec.writeString(category.getName(), out);
+            }
+            out.writeInt(operations.size());
+            for (Operation operation : operations) {
+                writeOperation(operation, out);
+            }
+            out.flush();
+            new DataOutputStream(buffered).writeLong(crc.getValue());
+            buffered.flush();
+            stream.getFD().sync();
+        }
+        return operations.size();
+    }
+
+    /**
+     * Replaces the storages and factory counters with the snapshot.
+     *
+     * @param file Snapshot file
+     * @return First journal segment not covered by the snapshot
+     * @throws IOException If file cannot be read or is damaged
+     */
+    static long load(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(stream, crc));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            long generation = in.readLong();
+            int lastAccountId = in.readInt();
+            int lastCategoryId = in.readInt();
+            int lastOperationId = in.readInt();
+
+            List<BankAccount> accounts = new ArrayList<>();
+            IntHashIndex<BankAccount> accountsById = new IntHashIndex<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                BankAccount account = new BankAccount(in.readInt(), JournalCodec.readString(in), in.readDouble());
+                accounts.add(account);
+                accountsById.put(account.getId(), account);
+            }
+            List<Category> categories = new ArrayList<>();
+            IntHashIndex<Category> categoriesById = new IntHashIndex<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                Category category = new Category(in.readInt(), in.readBoolean(), JournalCodec.readString(in));
+                categories.add(category);
+                categoriesById.put(category.getId(), category);
+            }
+            List<Operation> operations = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                operations.add(readOperation(in, accountsById, categoriesById));
+            }
+            if (new DataInputStream(stream).readLong() != crc.getValue()) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+
+            AccountStorage.setAccounts(accounts);
+            CategoryStorage.setCategories(categories);
+            OperationStorage.setOperations(operations);
+            BankAccountFactory.restoreLastId(lastAccountId);
+            CategoryFactory.restoreLastId(lastCategoryId);
+            OperationFactory.restoreLastId(lastOperationId);
+            return generation;
+        }
+    }
+
+    /**
+     * Writes operation referring to its account and category by id.
+     */
+    private static void writeOperation(Operation operation, DataOutput out) throws IOException {
+        Optional<String> description = operation.getDescription();
+        out.writeInt(operation.getId());
+        out.writeByte((operation.isType() ? TYPE_FLAG : 0) | (description.isPresent() ? DESCRIPTION_FLAG : 0));
+        out.writeInt(operation.getAccount().getId());
+        out.writeInt(operation.getCategory().getId());
+        out.writeDouble(operation.getAmount());
+        out.writeLong(operation.getDate().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(operation.getDate().getNano());
+        if (description.isPresent()) {
+            JournalCodec.writeString(description.get(), out);
+        }
+    }
+
+    /**
+     * Reads operation, deleted accounts and categories are replaced with placeholders carrying just the id.
+     */
+    private static Operation readOperation(
+        DataInput in,
+        IntHashIndex<BankAccount> accountsById,
+        IntHashIndex<Category> categoriesById
+    ) throws IOException {
+        int id = in.readInt();
+        int flags = in.readUnsignedByte();
+        int accountId = in.readInt();
+        int categoryId = in.readInt();
+        double amount = in.readDouble();
+        LocalDateTime date = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        Optional<String> description = (flags & DESCRIPTION_FLAG) != 0
+            ? Optional.of(JournalCodec.readString(in))
+            : Optional.empty();
+        boolean type = (flags & TYPE_FLAG) != 0;
+        BankAccount account = accountsById.get(accountId);
+        if (account == null) {
+            account = new BankAccount(accountId, "", 0);
+        }
+        Category category = categoriesById.get(categoryId);
+        if (category == null) {
+            category = new Category(categoryId, type, "");
+        }
+        return new Operation(id, type, account, amount, date, category, description);
+    }
+}
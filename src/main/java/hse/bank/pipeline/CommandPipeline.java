@@ -0,0 +1,264 @@
+package hse.bank.pipeline;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.records.CommandData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Pipeline applying commands on a single writer thread.
+ *
+ * <p>Producers claim slots of a pre-allocated ring buffer with a CAS on the claim counter and publish a command by
+ * writing the sequence of its slot. The writer drains every contiguous published slot at once and hands the whole
+ * run to the handler in publication order, so commands never race with each other and the handler is free to
+ * batch journal writes. When the buffer is full producers wait for the writer instead of growing the queue.
+ */
+@Log4j2
+public final class CommandPipeline implements AutoCloseable {
+    /**
+     * Largest number of commands handed to the handler at once.
+     */
+    private static final int MAX_BATCH = 256;
+    /**
+     * Longest time the idle writer sleeps without being woken up.
+     */
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    /**
+     * Pause of a producer waiting for a free slot.
+     */
+    private static final long BACKPRESSURE_PARK_NANOS = 1_000;
+    /**
+     * Claim counter value after the writer stopped, no slot can be claimed anymore.
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /**
+     * Slots.
+     */
+    private final Slot[] slots;
+    /**
+     * Mask turning a sequence into a slot index.
+     */
+    private final int mask;
+    /**
+     * Applies a run of commands and completes their futures.
+     */
+    private final BiConsumer<List<CommandData>, List<CompletableFuture<CmdResult>>> handler;
+    /**
+     * Next sequence to claim, {@link #CLOSED} once the writer stopped.
+     */
+    private final AtomicLong claimed = new AtomicLong();
+    /**
+     * Next sequence the writer applies, slots before it are free.
+     */
+    private volatile long consumed;
+    /**
+     * Whether the writer is about to park.
+     */
+    private volatile boolean writerIdle;
+    /**
+     * Whether the pipeline accepts commands.
+     */
+    private volatile boolean running = true;
+    /**
+     * Writer thread.
+     */
+    private final Thread writer;
+    /**
+     * Number of drained batches.
+     */
+    private final LongAdder batches = new LongAdder();
+    /**
+     * Number of publications that found the buffer full.
+     */
+    private final LongAdder backpressureWaits = new LongAdder();
+    /**
+     * Time producers spent waiting for a free slot.
+     */
+    private final LongAdder backpressureNanos = new LongAdder();
+
+    /**
+     * Constructor, starts the writer.
+     *
+     * @param capacity Number of slots, rounded up to a power of two
+     * @param handler  Applies a run of commands in order and completes their futures
+     */
+    public CommandPipeline(int capacity,
+                           BiConsumer<List<CommandData>, List<CompletableFuture<CmdResult>>> handler) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.handler = handler;
+        this.writer = Thread.ofPlatform().name("command-pipeline").daemon().start(this::drain);
+    }
+
+    /**
+     * Publishes command, waiting while the buffer is full.
+     *
+     * @param data Command data
+     * @return Future of the command result, failed if the pipeline is closed
+     */
+    public CompletableFuture<CmdResult> publish(CommandData data) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Command pipeline is closed"));
+        }
+        CompletableFuture<CmdResult> future = new CompletableFuture<>();
+        Slot slot = slots[(int) sequence & mask];
+        slot.data = data;
+        slot.future = future;
+        slot.sequence = sequence;
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return future;
+    }
+
+    /**
+     * Gets current counters.
+     *
+     * @return Metrics
+     */
+    public PipelineMetrics metrics() {
+        long applied = consumed;
+        long published = Math.max(claimed.get(), applied);
+        return new PipelineMetrics(slots.length, Math.max(0, published - applied), published, applied,
+            batches.sum(), backpressureWaits.sum(), backpressureNanos.sum());
+    }
+
+    /**
+     * Stops accepting commands and waits until the writer applies the published ones.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Claims next free slot.
+     *
+     * @return Sequence of the slot, negative if the pipeline is closed
+     */
+    private long claim() {
+        long waitStart = 0;
+        while (true) {
+            long sequence = claimed.get();
+            if (!running || sequence == CLOSED) {
+                return -1;
+            }
+            if (sequence - consumed >= slots.length) {
+                if (waitStart == 0) {
+                    waitStart = System.nanoTime();
+                    backpressureWaits.increment();
+                }
+                LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                if (waitStart != 0) {
+                    backpressureNanos.add(System.nanoTime() - waitStart);
+                }
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Loop of the writer thread.
+     */
+    private void drain() {
+        List<CommandData> commands = new ArrayList<>(MAX_BATCH);
+        List<CompletableFuture<CmdResult>> futures = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            long next = consumed;
+            int count = 0;
+            while (count < MAX_BATCH && slots[(int) (next + count) & mask].sequence == next + count) {
+                Slot slot = slots[(int) (next + count) & mask];
+                commands.add(slot.data);
+                futures.add(slot.future);
+                slot.data = null;
+                slot.future = null;
+                count++;
+            }
+            if (count == 0) {
+                if (!running && claimed.compareAndSet(next, CLOSED)) {
+                    return;
+                }
+                park(next);
+                continue;
+            }
+            apply(commands, futures);
+            batches.increment();
+            consumed = next + count;
+            commands.clear();
+            futures.clear();
+        }
+    }
+
+    /**
+     * Passes run of commands to the handler, failing futures it left incomplete.
+     *
+     * @param commands Commands
+     * @param futures  Futures of their results
+     */
+    private void apply(List<CommandData> commands, List<CompletableFuture<CmdResult>> futures) {
+        try {
+            handler.accept(commands, futures);
+        } catch (RuntimeException e) {
+            log.error("Command pipeline handler failed", e);
+            futures.forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Parks the writer until a command is published at the sequence.
+     *
+     * @param next Sequence the writer waits for
+     */
+    private void park(long next) {
+        writerIdle = true;
+        if (slots[(int) next & mask].sequence != next && running) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        writerIdle = false;
+    }
+
+    /**
+     * Slot of the ring buffer.
+     */
+    private static final class Slot {
+        /**
+         * Sequence of the command in the slot, the write publishes the command.
+         */
+        private volatile long sequence = -1;
+        /**
+         * Command.
+         */
+        private CommandData data;
+        /**
+         * Future of the command result.
+         */
+        private CompletableFuture<CmdResult> future;
+    }
+}
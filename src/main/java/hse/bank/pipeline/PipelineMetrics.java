@@ -0,0 +1,24 @@
+package hse.bank.pipeline;
+
+/**
+ * Snapshot of command pipeline counters.
+ *
+ * @param capacity          Number of slots in the ring buffer
+ * @param depth             Commands published but not applied yet
+ * @param published         Commands published since start
+ * @param applied           Commands applied since start
+ * @param batches           Batches drained by the writer
+ * @param backpressureWaits Publications that found the ring buffer full
+ * @param backpressureNanos Time producers spent waiting for a free slot
+ */
+public record PipelineMetrics(int capacity, long depth, long published, long applied, long batches,
+                              long backpressureWaits, long backpressureNanos) {
+    /**
+     * Gets mean number of commands per drained batch.
+     *
+     * @return Mean batch size
+     */
+    public double meanBatchSize() {
+        return batches == 0 ? 0 : (double) applied / batches;
+    }
+}
@@ -0,0 +1,31 @@
+package hse.bank.records;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query for operations, optionally restricted to one account and to a time range.
+ *
+ * @param accountId Account id or {@link #ANY_ACCOUNT}
+ * @param from      Start of the range, inclusive, or null for no time restriction
+ * @param to        End of the range, exclusive, or null for no time restriction
+ */
+public record OperationQueryData(int accountId, LocalDateTime from, LocalDateTime to) implements ObjectData {
+    public static final int ANY_ACCOUNT = -1;
+
+    public OperationQueryData(int accountId) {
+        this(accountId, null, null);
+    }
+
+    public OperationQueryData(LocalDateTime from, LocalDateTime to) {
+        this(ANY_ACCOUNT, from, to);
+    }
+
+    /**
+     * Checks if query is restricted to a time range.
+     *
+     * @return Boolean
+     */
+    public boolean hasTimeRange() {
+        return from != null && to != null;
+    }
+}
@@ -0,0 +1,18 @@
+package hse.bank.records;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import java.util.Optional;
+
+/**
+ * Transfer of money between two accounts.
+ *
+ * @param from     Account money leaves
+ * @param to       Account money arrives to
+ * @param amount   Positive amount
+ * @param category Category of both operations
+ * @param desc     Description of both operations
+ */
+public record TransferData(BankAccount from, BankAccount to, double amount, Category category, Optional<String> desc)
+    implements ObjectData {
+}
@@ -1,49 +1,105 @@
 package hse.bank.services.exporters;
 
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.enums.IOFormat;
+import hse.bank.events.ExportEvent;
 import hse.bank.visitor.StorageVisitor;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
 /**
  * Class for exporting data to csv format.
+ *
+ * <p>Names and descriptions are quoted only when they contain a comma, a quote or a line break, or start or end with
+ * a space, so plain values are written as before. Numbers always use a dot as the decimal separator.
+ *
+ * <p>Rows are appended to the buffer of a {@link CsvWriter}, which formats numbers and dates itself and writes to the
+ * stream in large blocks, while the operations are visited in the storage without copying them.
  */
+@Log4j2
 @Component
 public class CsvExporter implements BaseExporter {
 
     @Override
     public void exportData(OutputStream outputStream) {
-        try (PrintWriter writer = new PrintWriter(outputStream, true, StandardCharsets.UTF_8)) {
+        ExportEvent event = ExportEvent.start(IOFormat.CSV);
+        try {
+            CsvWriter writer = new CsvWriter(event.count(outputStream));
 
-            writer.println("=== Accounts ===");
-            writer.println("ID,Name,Balance");
-            StorageVisitor.walkBankAccountStorage().forEach(account -> {
-                writer.printf("%d,%s,%.2f%n", account.getId(), account.getName(), account.getBalance());
-            });
-            writer.println();
+            writer.line("=== Accounts ===");
+            writer.line("ID,Name,Balance");
+            for (Iterator<BankAccount> it = StorageVisitor.walkBankAccountStorage().iterator(); it.hasNext(); ) {
+                writeAccount(writer, it.next());
+            }
+            writer.newLine();
 
-            writer.println("=== Categories ===");
-            writer.println("ID,Name");
-            StorageVisitor.walkCategoryStorage().forEach(category -> {
-                writer.printf("%d,%b,%s%n", category.getId(), category.isPositive(), category.getName());
-            });
+            writer.line("=== Categories ===");
+            writer.line("ID,Name");
+            for (Iterator<Category> it = StorageVisitor.walkCategoryStorage().iterator(); it.hasNext(); ) {
+                writeCategory(writer, it.next());
+            }
+
+            writer.newLine();
 
-            writer.println();
-
-            writer.println("=== Operations ===");
-            writer.println("ID,Amount,Type,CategoryID");
-            StorageVisitor.walkOperationStorage().forEach(operation -> {
-                writer.printf("%d,%b,%d,%.2f,%s,%d,%s%n",
-                    operation.getId(),
-                    operation.isType(),
-                    operation.getAccount().getId(),
-                    operation.getAmount(),
-                    operation.getDate().toString(),
-                    operation.getCategory().getId(),
-                    operation.getDescription().isPresent() ? operation.getDescription().get() : ""
-                );
+            writer.line("=== Operations ===");
+            writer.line("ID,Amount,Type,CategoryID");
+            StorageVisitor.visitOperationStorage(operation -> {
+                try {
+                    writeOperation(writer, operation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
             });
+            writer.flush();
+
+        } catch (IOException e) {
+            log.error("Ошибка при экспорте данных в CSV: {}", e.getMessage());
+        } catch (UncheckedIOException e) {
+            log.error("Ошибка при экспорте данных в CSV: {}", e.getCause().getMessage());
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Writes account row.
+     */
+    private static void writeAccount(CsvWriter writer, BankAccount account) throws IOException {
+        writer.integer(account.getId()).comma()
+            .field(account.getName()).comma()
+            .cents(account.getBalance())
+            .newLine();
+    }
+
+    /**
+     * Writes category row.
+     */
+    private static void writeCategory(CsvWriter writer, Category category) throws IOException {
+        writer.integer(category.getId()).comma()
+            .bool(category.isPositive()).comma()
+            .field(category.getName())
+            .newLine();
+    }
+
+    /**
+     * Writes operation row.
+     */
+    private static void writeOperation(CsvWriter writer, Operation operation) throws IOException {
+        writer.integer(operation.getId()).comma()
+            .bool(operation.isType()).comma()
+            .integer(operation.getAccount().getId()).comma()
+            .cents(operation.getAmount()).comma()
+            .dateTime(operation.getDate()).comma()
+            .integer(operation.getCategory().getId()).comma();
+        if (operation.getDescription().isPresent()) {
+            writer.field(operation.getDescription().get());
         }
+        writer.newLine();
     }
 }
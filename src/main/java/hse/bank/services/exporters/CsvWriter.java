@@ -0,0 +1,383 @@
+package hse.bank.services.exporters;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Writer of csv rows appending fields as UTF-8 bytes to one reusable buffer, which goes to the stream in large
+ * blocks.
+ *
+ * <p>Numbers and dates are formatted by hand into the buffer, producing the same text as {@code %d}, {@code %b},
+ * {@code %.2f} of {@link java.util.Formatter} with {@link Locale#ROOT} and {@link LocalDateTime#toString()}. Values
+ * those fast paths are not sure about, like amounts exactly between two cents, are formatted by the JDK.
+ */
+final class CsvWriter {
+    /**
+     * Size of the buffer.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Largest absolute value rounded to cents by hand, the error of scaling it is far below the tie margin.
+     */
+    private static final double MAX_FIXED = 1e9;
+    /**
+     * Distance from a half cent within which rounding is left to the JDK.
+     */
+    private static final double TIE_MARGIN = 1e-4;
+    /**
+     * Line separator as written by {@link java.io.PrintWriter#println()}.
+     */
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    /**
+     * Bytes of "true".
+     */
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    /**
+     * Bytes of "false".
+     */
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    /**
+     * Bytes of "null".
+     */
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    /**
+     * Destination of the bytes.
+     */
+    private final OutputStream out;
+    /**
+     * Bytes not written to the stream yet.
+     */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    /**
+     * Number of bytes in the buffer.
+     */
+    private int count;
+
+    /**
+     * Constructor.
+     *
+     * @param out Destination of the bytes
+     */
+    CsvWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes ascii text followed by a line separator.
+     *
+     * @param text Text
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter line(String text) throws IOException {
+        return text(text).newLine();
+    }
+
+    /**
+     * Writes line separator.
+     *
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter newLine() throws IOException {
+        return bytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes field separator.
+     *
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter comma() throws IOException {
+        ensure(1);
+        buffer[count++] = ',';
+        return this;
+    }
+
+    /**
+     * Writes int like {@code %d}.
+     *
+     * @param value Value
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter integer(int value) throws IOException {
+        ensure(11);
+        long rest = value;
+        if (rest < 0) {
+            buffer[count++] = '-';
+            rest = -rest;
+        }
+        int end = count + digitCount(rest);
+        for (int i = end - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        count = end;
+        return this;
+    }
+
+    /**
+     * Writes boolean like {@code %b}.
+     *
+     * @param value Value
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter bool(boolean value) throws IOException {
+        return bytes(value ? TRUE : FALSE);
+    }
+
+    /**
+     * Writes double with two decimals like {@code %.2f}, the sign of negative values rounded to zero is kept.
+     *
+     * @param value Value
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter cents(double value) throws IOException {
+        double abs = Math.abs(value);
+        double scaled = abs * 100;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (!(abs < MAX_FIXED) || Math.abs(fraction - 0.5) < TIE_MARGIN) {
+            return text(String.format(Locale.ROOT, "%.2f", value));
+        }
+        long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+        ensure(24);
+        if (Double.doubleToRawLongBits(value) < 0) {
+            buffer[count++] = '-';
+        }
+        long whole = units / 100;
+        int end = count + digitCount(whole);
+        for (int i = end - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + whole % 10);
+            whole /= 10;
+        }
+        count = end;
+        int hundredths = (int) (units % 100);
+        buffer[count++] = '.';
+        buffer[count++] = (byte) ('0' + hundredths / 10);
+        buffer[count++] = (byte) ('0' + hundredths % 10);
+        return this;
+    }
+
+    /**
+     * Writes date like {@link LocalDateTime#toString()}.
+     *
+     * @param value Value
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter dateTime(LocalDateTime value) throws IOException {
+        int year = value.getYear();
+        if (year < 1000 || year > 9999) {
+            return text(value.toString());
+        }
+        ensure(29);
+        pad(year, 4);
+        buffer[count++] = '-';
+        pad(value.getMonthValue(), 2);
+        buffer[count++] = '-';
+        pad(value.getDayOfMonth(), 2);
+        buffer[count++] = 'T';
+        pad(value.getHour(), 2);
+        buffer[count++] = ':';
+        pad(value.getMinute(), 2);
+        int second = value.getSecond();
+        int nano = value.getNano();
+        if (second > 0 || nano > 0) {
+            buffer[count++] = ':';
+            pad(second, 2);
+            if (nano > 0) {
+                buffer[count++] = '.';
+                if (nano % 1_000_000 == 0) {
+                    pad(nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    pad(nano / 1000, 6);
+                } else {
+                    pad(nano, 9);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes text field, quoted only if it would not be read back as is, with quotes inside it doubled.
+     * Null is written as "null" like {@code %s} does and the empty string as two quotes.
+     *
+     * @param value Text
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter field(String value) throws IOException {
+        if (value == null) {
+            return bytes(NULL);
+        }
+        if (!needsQuotes(value)) {
+            return text(value);
+        }
+        ensure(1);
+        buffer[count++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                ensure(1);
+                buffer[count++] = '"';
+            }
+            i = encode(value, i);
+        }
+        ensure(1);
+        buffer[count++] = '"';
+        return this;
+    }
+
+    /**
+     * Writes text as UTF-8, unpaired surrogates become question marks like with {@link java.io.PrintWriter}.
+     *
+     * @param value Text
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    CsvWriter text(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = encode(value, i);
+        }
+        return this;
+    }
+
+    /**
+     * Writes buffered bytes to the stream and flushes it.
+     *
+     * @throws IOException If the stream fails
+     */
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * Checks whether text has to be quoted.
+     *
+     * @param value Text
+     * @return Boolean
+     */
+    private static boolean needsQuotes(String value) {
+        if (value.isEmpty() || value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Encodes character, or surrogate pair, as UTF-8.
+     *
+     * @param value Text
+     * @param index Index of the character
+     * @return Index of the last encoded character
+     * @throws IOException If the stream fails
+     */
+    private int encode(String value, int index) throws IOException {
+        ensure(4);
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[count++] = (byte) (0xC0 | c >> 6);
+            buffer[count++] = (byte) (0x80 | c & 0x3F);
+        } else if (!Character.isSurrogate(c)) {
+            buffer[count++] = (byte) (0xE0 | c >> 12);
+            buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[count++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+            && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++index));
+            buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+        } else {
+            buffer[count++] = '?';
+        }
+        return index;
+    }
+
+    /**
+     * Writes number padded with zeros.
+     *
+     * @param value  Non-negative value
+     * @param digits Number of digits
+     */
+    private void pad(int value, int digits) {
+        int rest = value;
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        count += digits;
+    }
+
+    /**
+     * Writes bytes.
+     *
+     * @param bytes Bytes, not longer than the buffer
+     * @return This writer
+     * @throws IOException If the stream fails
+     */
+    private CsvWriter bytes(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    /**
+     * Makes room in the buffer.
+     *
+     * @param length Number of bytes to be written
+     * @throws IOException If the stream fails
+     */
+    private void ensure(int length) throws IOException {
+        if (count + length > buffer.length) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes buffered bytes to the stream.
+     *
+     * @throws IOException If the stream fails
+     */
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Counts decimal digits.
+     *
+     * @param value Non-negative value
+     * @return Number of digits, one for zero
+     */
+    private static int digitCount(long value) {
+        int digits = 1;
+        for (long rest = value; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+}
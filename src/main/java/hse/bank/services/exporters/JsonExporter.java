@@ -1,74 +1,152 @@
 package hse.bank.services.exporters;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
 import hse.bank.domains.Operation;
+import hse.bank.enums.IOFormat;
+import hse.bank.events.ExportEvent;
 import hse.bank.visitor.StorageVisitor;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Type;
-import java.time.LocalDateTime;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Iterator;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
 /**
  * Class for json export.
+ *
+ * <p>Objects are written one by one to a buffered {@link JsonWriter} while the storages are walked, so neither the
+ * document nor a list of the operations is ever held in memory, and the storage is not locked while the stream is
+ * written. The field names and the escaping of html characters are those the exporter always wrote, so older files
+ * and new ones are read and compared the same way.
  */
 @Log4j2
 @Component
 public class JsonExporter implements BaseExporter {
+    /**
+     * Size of the character buffer in front of the stream.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Formatter of operation dates.
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
-    @Override
-    public void exportData(OutputStream outputStream) {
-        Map<String, Object> data = new LinkedHashMap<>();
-        data.put("accounts", StorageVisitor.walkBankAccountStorage().collect(Collectors.toList()));
-        data.put("categories", StorageVisitor.walkCategoryStorage().collect(Collectors.toList()));
-        data.put("operations", StorageVisitor.walkOperationStorage().collect(Collectors.toList()));
-
-        Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, new JsonSerializer<LocalDateTime>() {
-                @Override
-                public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-                    return new JsonPrimitive(src.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
-                }
-            })
-            .registerTypeAdapter(Operation.class, new JsonSerializer<Operation>() {
-                @Override
-                public JsonElement serialize(Operation operation, Type typeOfSrc, JsonSerializationContext context) {
-                    JsonObject jsonObject = new JsonObject();
-
-                    jsonObject.addProperty("id", operation.getId());
-                    jsonObject.addProperty("type", operation.isType());
-                    jsonObject.addProperty("amount", operation.getAmount());
+    /**
+     * Whether the document is indented.
+     */
+    private volatile boolean pretty = true;
 
-                    jsonObject.addProperty("accountId", operation.getAccount().getId());
+    /**
+     * Chooses between indented and compact output.
+     *
+     * @param pretty Whether to indent the document
+     */
+    public void setPretty(boolean pretty) {
+        this.pretty = pretty;
+    }
 
-                    jsonObject.add("date", context.serialize(operation.getDate()));
+    @Override
+    public void exportData(OutputStream outputStream) {
+        ExportEvent event = ExportEvent.start(IOFormat.JSON);
+        try {
+            JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(event.count(outputStream), StandardCharsets.UTF_8), BUFFER_SIZE));
+            if (pretty) {
+                writer.setIndent("  ");
+            }
+            writer.setHtmlSafe(true);
+            writer.setSerializeNulls(false);
+            writer.beginObject();
 
-                    jsonObject.addProperty("categoryId", operation.getCategory().getId());
+            writer.name("accounts").beginArray();
+            for (Iterator<BankAccount> it = StorageVisitor.walkBankAccountStorage().iterator(); it.hasNext(); ) {
+                writeAccount(writer, it.next());
+            }
+            writer.endArray();
 
-                    operation.getDescription().ifPresent(desc -> jsonObject.addProperty("description", desc));
+            writer.name("categories").beginArray();
+            for (Iterator<Category> it = StorageVisitor.walkCategoryStorage().iterator(); it.hasNext(); ) {
+                writeCategory(writer, it.next());
+            }
+            writer.endArray();
 
-                    return jsonObject;
+            writer.name("operations").beginArray();
+            StorageVisitor.visitOperationStorage(operation -> {
+                try {
+                    writeOperation(writer, operation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
                 }
-            })
-            .setPrettyPrinting()
-            .create();
+            });
+            writer.endArray();
 
-        try {
-            String result = gson.toJson(data);
-            outputStream.write(result.getBytes());
+            writer.endObject();
+            writer.flush();
         } catch (IOException e) {
             log.error("Ошибка при экспорте данных в JSON: {}", e.getMessage());
+        } catch (UncheckedIOException e) {
+            log.error("Ошибка при экспорте данных в JSON: {}", e.getCause().getMessage());
+        } finally {
+            event.finish();
+        }
+    }
+
+    /**
+     * Writes account.
+     *
+     * @param writer  Writer
+     * @param account Account
+     * @throws IOException If the stream fails
+     */
+    private static void writeAccount(JsonWriter writer, BankAccount account) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(account.getId());
+        writer.name("name").value(account.getName());
+        writer.name("balance").value(account.getBalance());
+        writer.endObject();
+    }
+
+    /**
+     * Writes category.
+     *
+     * @param writer   Writer
+     * @param category Category
+     * @throws IOException If the stream fails
+     */
+    private static void writeCategory(JsonWriter writer, Category category) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(category.getId());
+        writer.name("isPositive").value(category.isPositive());
+        writer.name("name").value(category.getName());
+        writer.endObject();
+    }
+
+    /**
+     * Writes operation, referencing its account and category by id.
+     *
+     * @param writer    Writer
+     * @param operation Operation
+     * @throws IOException If the stream fails
+     */
+    private static void writeOperation(JsonWriter writer, Operation operation) throws IOException {
+        String date = operation.getDate() == null ? null : operation.getDate().format(DATE_FORMATTER);
+        writer.beginObject();
+        writer.name("id").value(operation.getId());
+        writer.name("type").value(operation.isType());
+        writer.name("amount").value(operation.getAmount());
+        writer.name("accountId").value(operation.getAccount().getId());
+        writer.name("date").value(date);
+        writer.name("categoryId").value(operation.getCategory().getId());
+        if (operation.getDescription().isPresent()) {
+            writer.name("description").value(operation.getDescription().get());
         }
+        writer.endObject();
     }
 }
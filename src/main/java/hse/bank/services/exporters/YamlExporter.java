@@ -3,29 +3,60 @@ package hse.bank.services.exporters;
 import hse.bank.domains.BankAccount;
 import hse.bank.domains.Category;
 import hse.bank.domains.Operation;
+import hse.bank.enums.IOFormat;
+import hse.bank.events.ExportEvent;
 import hse.bank.visitor.StorageVisitor;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Iterator;
+import java.util.regex.Pattern;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 /**
  * Class to export data to YAML format.
+ *
+ * <p>Objects are sent as events straight to the SnakeYAML emitter while the storages are walked, instead of being
+ * converted to maps and dumped as one tree. Scalars get the same implicit tags the dumper would give them, so the
+ * output is the same block-style document as before and strings which look like numbers or dates stay quoted.
  */
 @Log4j2
 @Component
 public class YamlExporter implements BaseExporter {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    /**
+     * Size of the character buffer in front of the stream.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Resolver deciding which scalars need a tag or quotes.
+     */
+    private static final Resolver RESOLVER = new Resolver();
+    /**
+     * Line breaks which make the dumper write a string as a literal block.
+     */
+    private static final Pattern MULTILINE = Pattern.compile("\n|\u0085|\u2028|\u2029");
 
     /**
      * Export data to yaml format.
@@ -34,73 +65,169 @@ public class YamlExporter implements BaseExporter {
      */
     @Override
     public void exportData(OutputStream outputStream) {
+        ExportEvent event = ExportEvent.start(IOFormat.YAML);
         try {
-            Map<String, Object> data = new LinkedHashMap<>();
-
-            List<Map<String, Object>> accountsMap = StorageVisitor.walkBankAccountStorage()
-                .map(this::convertBankAccountToMap)
-                .collect(Collectors.toList());
-            data.put("accounts", accountsMap);
-
-            List<Map<String, Object>> categoriesMap = StorageVisitor.walkCategoryStorage()
-                .map(this::convertCategoryToMap)
-                .collect(Collectors.toList());
-            data.put("categories", categoriesMap);
-
-            List<Map<String, Object>> operationsMap = StorageVisitor.walkOperationStorage()
-                .map(this::convertOperationToMap)
-                .collect(Collectors.toList());
-            data.put("operations", operationsMap);
-
             DumperOptions options = new DumperOptions();
             options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
             options.setPrettyFlow(true);
 
-            Yaml yaml = new Yaml(options);
+            OutputStream counted = event.count(outputStream);
+            BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(counted, StandardCharsets.UTF_8), BUFFER_SIZE);
+            Emitter emitter = new Emitter(writer, options);
+            emitter.emit(new StreamStartEvent(null, null));
+            emitter.emit(new DocumentStartEvent(null, null, false, null, null));
+            emitter.emit(new MappingStartEvent(null, null, true, null, null, DumperOptions.FlowStyle.BLOCK));
 
-            try (OutputStreamWriter writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
-                yaml.dump(data, writer);
+            string(emitter, "accounts");
+            startSequence(emitter);
+            for (Iterator<BankAccount> it = StorageVisitor.walkBankAccountStorage().iterator(); it.hasNext(); ) {
+                writeBankAccount(emitter, it.next());
             }
+            emitter.emit(new SequenceEndEvent(null, null));
+
+            string(emitter, "categories");
+            startSequence(emitter);
+            for (Iterator<Category> it = StorageVisitor.walkCategoryStorage().iterator(); it.hasNext(); ) {
+                writeCategory(emitter, it.next());
+            }
+            emitter.emit(new SequenceEndEvent(null, null));
+
+            string(emitter, "operations");
+            startSequence(emitter);
+            StorageVisitor.visitOperationStorage(operation -> {
+                try {
+                    writeOperation(emitter, operation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            emitter.emit(new SequenceEndEvent(null, null));
+
+            emitter.emit(new MappingEndEvent(null, null));
+            emitter.emit(new DocumentEndEvent(null, null, false));
+            emitter.emit(new StreamEndEvent(null, null));
+            writer.flush();
 
         } catch (IOException e) {
             log.error("Ошибка при экспорте данных в YAML: {}", e.getMessage());
+        } catch (UncheckedIOException e) {
+            log.error("Ошибка при экспорте данных в YAML: {}", e.getCause().getMessage());
+        } finally {
+            event.finish();
         }
     }
 
     /**
-     * Converts BankAccount object to map.
+     * Writes BankAccount object.
+     */
+    private static void writeBankAccount(Emitter emitter, BankAccount account) throws IOException {
+        startMapping(emitter);
+        string(emitter, "id");
+        scalar(emitter, Integer.toString(account.getId()), Tag.INT);
+        string(emitter, "name");
+        string(emitter, account.getName());
+        string(emitter, "balance");
+        number(emitter, account.getBalance());
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    /**
+     * Writes Category object.
      */
-    private Map<String, Object> convertBankAccountToMap(BankAccount account) {
-        Map<String, Object> map = new LinkedHashMap<>();
-        map.put("id", account.getId());
-        map.put("name", account.getName());
-        map.put("balance", account.getBalance());
-        return map;
+    private static void writeCategory(Emitter emitter, Category category) throws IOException {
+        startMapping(emitter);
+        string(emitter, "id");
+        scalar(emitter, Integer.toString(category.getId()), Tag.INT);
+        string(emitter, "name");
+        string(emitter, category.getName());
+        string(emitter, "positive");
+        scalar(emitter, Boolean.toString(category.isPositive()), Tag.BOOL);
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    /**
+     * Writes Operation object.
+     */
+    private static void writeOperation(Emitter emitter, Operation operation) throws IOException {
+        startMapping(emitter);
+        string(emitter, "id");
+        scalar(emitter, Integer.toString(operation.getId()), Tag.INT);
+        string(emitter, "type");
+        scalar(emitter, Boolean.toString(operation.isType()), Tag.BOOL);
+        string(emitter, "amount");
+        number(emitter, operation.getAmount());
+        string(emitter, "accountId");
+        scalar(emitter, Integer.toString(operation.getAccount().getId()), Tag.INT);
+        string(emitter, "date");
+        string(emitter, operation.getDate().format(DATE_FORMATTER));
+        string(emitter, "categoryId");
+        scalar(emitter, Integer.toString(operation.getCategory().getId()), Tag.INT);
+        if (operation.getDescription().isPresent()) {
+            string(emitter, "description");
+            string(emitter, operation.getDescription().get());
+        }
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    /**
+     * Starts block mapping.
+     */
+    private static void startMapping(Emitter emitter) throws IOException {
+        emitter.emit(new MappingStartEvent(null, null, true, null, null, DumperOptions.FlowStyle.BLOCK));
+    }
+
+    /**
+     * Starts block sequence.
+     */
+    private static void startSequence(Emitter emitter) throws IOException {
+        emitter.emit(new SequenceStartEvent(null, null, true, null, null, DumperOptions.FlowStyle.BLOCK));
+    }
+
+    /**
+     * Writes string, null as a null scalar and multiline strings as literal blocks like the dumper does.
+     */
+    private static void string(Emitter emitter, String value) throws IOException {
+        if (value == null) {
+            scalar(emitter, "null", Tag.NULL);
+        } else if (MULTILINE.matcher(value).find()) {
+            scalar(emitter, value, Tag.STR, DumperOptions.ScalarStyle.LITERAL);
+        } else {
+            scalar(emitter, value, Tag.STR);
+        }
+    }
+
+    /**
+     * Writes double the way the dumper represents it.
+     */
+    private static void number(Emitter emitter, double value) throws IOException {
+        String text;
+        if (Double.isNaN(value)) {
+            text = ".NaN";
+        } else if (Double.isInfinite(value)) {
+            text = value > 0 ? ".inf" : "-.inf";
+        } else {
+            text = Double.toString(value);
+        }
+        scalar(emitter, text, Tag.FLOAT);
     }
 
     /**
-     * Converts Category object to map.
+     * Writes scalar, the tag is left implicit where the resolver would infer it, like the serializer does.
      */
-    private Map<String, Object> convertCategoryToMap(Category category) {
-        Map<String, Object> map = new LinkedHashMap<>();
-        map.put("id", category.getId());
-        map.put("name", category.getName());
-        map.put("positive", category.isPositive());
-        return map;
+    private static void scalar(Emitter emitter, String value, Tag tag) throws IOException {
+        scalar(emitter, value, tag, DumperOptions.ScalarStyle.PLAIN);
     }
 
     /**
-     * Converts Operation object to map.
+     * Writes scalar in the given style.
      */
-    private Map<String, Object> convertOperationToMap(Operation operation) {
-        Map<String, Object> map = new LinkedHashMap<>();
-        map.put("id", operation.getId());
-        map.put("type", operation.isType());
-        map.put("amount", operation.getAmount());
-        map.put("accountId", operation.getAccount().getId());
-        map.put("date", operation.getDate().format(DATE_FORMATTER));
-        map.put("categoryId", operation.getCategory().getId());
-        operation.getDescription().ifPresent(desc -> map.put("description", desc));
-        return map;
+    private static void scalar(Emitter emitter, String value, Tag tag, DumperOptions.ScalarStyle style)
+        throws IOException {
+        ImplicitTuple implicit = new ImplicitTuple(
+            tag.equals(RESOLVER.resolve(NodeId.scalar, value, true)),
+            tag.equals(RESOLVER.resolve(NodeId.scalar, value, false))
+        );
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
     }
 }
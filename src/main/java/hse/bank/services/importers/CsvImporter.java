@@ -2,31 +2,91 @@ package hse.bank.services.importers;
 
 import hse.bank.domains.BankAccount;
 import hse.bank.domains.Category;
-import hse.bank.domains.Operation;
+import hse.bank.enums.IOFormat;
+import hse.bank.events.ImportEvent;
 import hse.bank.factories.BankAccountFactory;
 import hse.bank.factories.CategoryFactory;
-import hse.bank.factories.OperationFactory;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
-import hse.bank.records.OperationData;
+import hse.bank.stats.IoMetrics;
 import hse.bank.storage.AccountStorage;
 import hse.bank.storage.CategoryStorage;
-import hse.bank.storage.OperationStorage;
-import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
 /**
  * Class for importing data from csv file.
+ *
+ * <p>The file is read through a large direct buffer by {@link CsvScanner}, which decodes numbers, flags and dates
+ * straight from the bytes, so a row of the operations section allocates only its description and the operation.
+ * Quoted fields may contain commas; an unquoted description takes the rest of the line, as older exports did not
+ * quote it.
+ *
+ * <p>A large file is mapped into memory and its operations section is cut into chunks at line boundaries, which are
+ * parsed by several threads. The parsed chunks are added to the storage in file order, so ids and references resolve
+ * the same way as when reading line by line, and parsing the next chunks overlaps with adding the previous ones.
+ * A section with quotes is read line by line, since a quoted line break cannot be told from a line boundary without
+ * reading the section from its start.
  */
+@Log4j2
 @Component
 public class CsvImporter implements BaseImporter {
+    /**
+     * Prefix of a section title line.
+     */
+    private static final String SECTION_MARK = "===";
+    /**
+     * Default size of the part of the operations section parsed by one task.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+    /**
+     * Parsed chunks kept per thread while they wait to be added to the storage.
+     */
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    /**
+     * Number of threads parsing the operations section, one reads the file line by line.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * Size of the part of the operations section parsed by one task, a file shorter than two chunks is read line by
+     * line.
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Sets number of threads parsing the operations section of large files.
+     *
+     * @param threads Number of threads, zero or less for one per processor
+     */
+    public void setThreads(int threads) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets size of the part of the operations section parsed by one task.
+     *
+     * @param chunkSize Size in bytes, zero or less for the default of 4 MiB
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+    }
+
     /**
      * Imports data.
      *
@@ -35,48 +95,71 @@ public class CsvImporter implements BaseImporter {
      */
     @Override
     public void importData(InputStream inputStream) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            String line;
+        ImportEvent event = ImportEvent.start(IOFormat.CSV);
+        long start = System.nanoTime();
+        long rowsBefore = IoMetrics.rows();
+        OperationBatch operations = new OperationBatch();
+        ByteBuffer mapped = threads > 1 ? map(inputStream) : null;
+        if (mapped != null) {
+            event.count(mapped.remaining());
+        }
+        try (ReadableByteChannel channel = Channels.newChannel(event.count(inputStream))) {
+            CsvScanner scanner = mapped == null ? new CsvScanner(channel) : new CsvScanner(mapped);
             String currentSection = null;
-            List<String> headers = null;
+            boolean header = true;
 
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) {
+            while (scanner.nextLine()) {
+                if (scanner.startsWith(SECTION_MARK)) {
+                    currentSection = scanner.restOfLine().replace(SECTION_MARK, "").trim();
+                    header = true;
                     continue;
                 }
 
-                if (line.startsWith("===")) {
-                    currentSection = line.replace("===", "").trim();
-                    headers = null;
+                if (header) {
+                    header = false;
+                    if (mapped != null && "Operations".equals(currentSection)) {
+                        scanner.skipTo(importOperations(mapped, scanner.offset(), operations));
+                    }
                     continue;
                 }
 
-                if (headers == null) {
-                    headers = List.of(line.split(","));
-                    continue;
+                if (currentSection == null) {
+                    throw new IllegalArgumentException("Row outside of a section");
                 }
-
-                String[] values = line.split(",");
                 switch (currentSection) {
-                    case "Accounts" -> importAccount(values);
-                    case "Categories" -> importCategory(values);
-                    case "Operations" -> importOperation(values);
+                    case "Accounts" -> importAccount(scanner);
+                    case "Categories" -> importCategory(scanner);
+                    case "Operations" -> operations.add(readOperation(scanner));
                     default -> throw new IllegalArgumentException("Unknown section: " + currentSection);
                 }
             }
+            operations.finish();
+        } catch (IOException e) {
+            operations.abort();
+            log.error("Ошибка при импорте данных из CSV: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            operations.abort();
+            log.error("Ошибка при импорте данных из CSV: {}", e.getMessage());
+            throw new IOException("Ошибка при импорте данных из CSV", e);
+        } finally {
+            event.finish();
         }
+        long nanos = Math.max(System.nanoTime() - start, 1);
+        long rows = IoMetrics.rows() - rowsBefore;
+        log.info("Импортировано {} объектов из CSV за {} мс ({} объектов/с)",
+            rows, nanos / 1_000_000, rows * 1_000_000_000L / nanos);
     }
 
     /**
      * Import accounts.
      *
-     * @param values Values to import from
+     * @param scanner Scanner positioned at the row
      */
-    private void importAccount(String[] values) {
-        int id = Integer.parseInt(values[0]);
-        String name = values[1];
-        double balance = Double.parseDouble(values[2]);
+    private void importAccount(CsvScanner scanner) {
+        int id = scanner.nextInt();
+        String name = scanner.nextString();
+        double balance = scanner.nextDouble();
 
         BankAccountData accountData = new BankAccountData(name, balance);
         BankAccount account = BankAccountFactory.createAccountWithId(accountData, id);
@@ -86,37 +169,177 @@ public class CsvImporter implements BaseImporter {
     /**
      * Import categories.
      *
-     * @param values Values to import from
+     * @param scanner Scanner positioned at the row
      */
-    private void importCategory(String[] values) {
-        int id = Integer.parseInt(values[0]);
-        boolean type = Boolean.parseBoolean(values[1]);
-        String name = values[2];
-        CategoryData categoryData = new CategoryData(true, name);
+    private void importCategory(CsvScanner scanner) {
+        int id = scanner.nextInt();
+        boolean type = scanner.nextBoolean();
+        String name = scanner.nextString();
+        CategoryData categoryData = new CategoryData(type, name);
         Category category = CategoryFactory.createCategoryWithId(categoryData, id);
         CategoryStorage.addCategory(category);
     }
 
     /**
-     * Import operations.
+     * Reads operation.
+     *
+     * @param scanner Scanner positioned at the row
+     * @return Operation as read from the file
+     */
+    private static OperationBatch.Row readOperation(CsvScanner scanner) {
+        int id = scanner.nextInt();
+        boolean type = scanner.nextBoolean();
+        int accountId = scanner.nextInt();
+        double amount = scanner.nextDouble();
+        LocalDateTime time = scanner.nextDateTime();
+        int categoryId = scanner.nextInt();
+        String desc = scanner.hasValue() ? scanner.restOfLine() : null;
+        return new OperationBatch.Row(id, type, amount, accountId, categoryId, time, desc);
+    }
+
+    /**
+     * Imports operations section in parallel chunks unless it is small or has quotes.
+     *
+     * @param data       Mapped file
+     * @param start      Index of the first row of the section
+     * @param operations Batch the operations are added to
+     * @return Index where the section ends, the start if it is left to be read line by line
+     * @throws IOException If the import is interrupted
+     */
+    private int importOperations(ByteBuffer data, int start, OperationBatch operations) throws IOException {
+        int end = sectionEnd(data, start);
+        if (end < 0 || end - start < 2L * chunkSize) {
+            return start;
+        }
+        int chunks = (end - start) / chunkSize;
+        int[] bounds = new int[chunks + 1];
+        bounds[0] = start;
+        bounds[chunks] = end;
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = Math.max(bounds[i - 1], lineStart(data, start + i * chunkSize, end));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<OperationBatch.Row>>> parsed = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                while (parsed.size() < chunks && parsed.size() < i + threads * CHUNKS_PER_THREAD) {
+                    int next = parsed.size();
+                    ByteBuffer chunk = data.slice(bounds[next], bounds[next + 1] - bounds[next]);
+                    parsed.add(executor.submit(() -> readOperations(chunk)));
+                }
+                parsed.get(i).get().forEach(operations::add);
+                parsed.set(i, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Csv import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return end;
+    }
+
+    /**
+     * Reads all operations of a chunk.
+     *
+     * @param chunk Whole lines of the operations section
+     * @return Operations as read from the file
+     * @throws IOException Never, the chunk is in memory
+     */
+    private static List<OperationBatch.Row> readOperations(ByteBuffer chunk) throws IOException {
+        List<OperationBatch.Row> rows = new ArrayList<>();
+        CsvScanner scanner = new CsvScanner(chunk);
+        while (scanner.nextLine()) {
+            rows.add(readOperation(scanner));
+        }
+        return rows;
+    }
+
+    /**
+     * Maps file the stream reads, if it is large enough to be parsed in parallel.
+     *
+     * @param inputStream Stream to import from
+     * @return Unread bytes of the file, null to read the stream
+     * @throws IOException If the file cannot be mapped
+     */
+    private ByteBuffer map(InputStream inputStream) throws IOException {
+        if (!(inputStream instanceof FileInputStream file)) {
+            return null;
+        }
+        FileChannel channel = file.getChannel();
+        long position = channel.position();
+        long size = channel.size() - position;
+        if (size < 2L * chunkSize || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * Finds end of a section, which is the next line starting with the section mark.
      *
-     * @param values Values to import from
-     */
-    private void importOperation(String[] values) {
-        int id = Integer.parseInt(values[0]);
-        boolean type = Boolean.parseBoolean(values[1]);
-        int accountId = Integer.parseInt(values[2]);
-        BankAccount bankAccount = AccountStorage.getUserById(accountId);
-        double amount = Double.parseDouble(values[3]);
-        LocalDateTime time = LocalDateTime.parse(values[4]);
-        int categoryId = Integer.parseInt(values[5]);
-        Category category = CategoryStorage.getCategoryById(categoryId);
-        Optional<String> desc = Optional.empty();
-        if (values.length > 6) {
-            desc = Optional.of(values[6]);
+     * @param data  Mapped file
+     * @param start Index of the first row of the section
+     * @return Index of the next section line or the end of the file, -1 if the section has a quote before
+     */
+    private static int sectionEnd(ByteBuffer data, int start) {
+        int limit = data.limit();
+        boolean lineStart = true;
+        for (int i = start; i < limit; i++) {
+            byte b = data.get(i);
+            if (b == '"') {
+                return -1;
+            }
+            if (b == '\n') {
+                lineStart = true;
+            } else if (lineStart && b == '=' && isSectionMark(data, i)) {
+                return i;
+            } else if (b > ' ') {
+                lineStart = false;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Checks whether the section mark starts at the index.
+     *
+     * @param data  Mapped file
+     * @param index Index
+     * @return Boolean
+     */
+    private static boolean isSectionMark(ByteBuffer data, int index) {
+        if (data.limit() - index < SECTION_MARK.length()) {
+            return false;
+        }
+        for (int i = 0; i < SECTION_MARK.length(); i++) {
+            if (data.get(index + i) != SECTION_MARK.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds start of the line after the index.
+     *
+     * @param data  Mapped file
+     * @param index Index
+     * @param end   End of the section
+     * @return Index after the next line feed, the end of the section if there is none
+     */
+    private static int lineStart(ByteBuffer data, int index, int end) {
+        for (int i = index; i < end; i++) {
+            if (data.get(i) == '\n') {
+                return i + 1;
+            }
         }
-        OperationData data = new OperationData(type, bankAccount, amount, category, desc);
-        Operation result = OperationFactory.createOperationWithIdAndTime(data, time, id);
-        OperationStorage.addOperation(result);
+        return end;
     }
 }
@@ -0,0 +1,562 @@
+package hse.bank.services.importers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Reader of csv lines decoding fields straight from a direct byte buffer.
+ *
+ * <p>Bytes are read from the channel into a direct buffer which always holds the whole current line, so ints,
+ * doubles, booleans and ISO timestamps are decoded from the bytes without creating strings; only text fields become
+ * strings. A field may be quoted with double quotes, then it may contain commas and line breaks and a quote inside it
+ * is doubled. Lines are trimmed and empty lines are skipped. Values in an unusual form, like numbers with an exponent,
+ * fall back to the parsers of the JDK.
+ */
+final class CsvScanner {
+    /**
+     * Initial size of the buffer, it grows for lines which do not fit.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * Largest mantissa every smaller one of which is exactly representable as a double.
+     */
+    private static final long EXACT_MANTISSA = 1L << 53;
+    /**
+     * Powers of ten which are exactly representable as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+        1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * Source of the bytes.
+     */
+    private final ReadableByteChannel channel;
+    /**
+     * Bytes read and not consumed yet, between 0 and the limit.
+     */
+    private ByteBuffer buffer;
+    /**
+     * Whether the channel is exhausted.
+     */
+    private boolean eof;
+    /**
+     * Index where the line after the current one starts.
+     */
+    private int next;
+    /**
+     * Index of the next field in the current line.
+     */
+    private int pos;
+    /**
+     * Index after the last byte of the current line.
+     */
+    private int lineEnd;
+    /**
+     * Whether the current line has a field at {@link #pos}.
+     */
+    private boolean hasField;
+    /**
+     * Buffer for decoding text fields.
+     */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructor.
+     *
+     * @param channel Source of the bytes
+     */
+    CsvScanner(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+    }
+
+    /**
+     * Constructor for bytes which are all in memory, like a mapped file or a part of it.
+     *
+     * @param data Bytes between the position and the limit of the buffer
+     */
+    CsvScanner(ByteBuffer data) {
+        this.channel = null;
+        this.buffer = data.slice();
+        this.eof = true;
+    }
+
+    /**
+     * Gets index where the line after the current one starts.
+     *
+     * @return Index in the buffer
+     */
+    int offset() {
+        return next;
+    }
+
+    /**
+     * Continues with the line starting at the index, only for bytes which are all in memory.
+     *
+     * @param offset Index in the buffer
+     */
+    void skipTo(int offset) {
+        next = offset;
+        hasField = false;
+    }
+
+    /**
+     * Moves to the next non-empty line.
+     *
+     * @return Whether there is a line
+     * @throws IOException If the channel fails
+     */
+    boolean nextLine() throws IOException {
+        while (true) {
+            int start = next;
+            int end = findLineEnd(start);
+            if (end < 0) {
+                if (!eof) {
+                    refill();
+                    continue;
+                }
+                if (start >= buffer.limit()) {
+                    return false;
+                }
+                end = buffer.limit();
+                next = end;
+            } else {
+                next = end + 1;
+            }
+            while (start < end && isSpace(buffer.get(start))) {
+                start++;
+            }
+            while (end > start && isSpace(buffer.get(end - 1))) {
+                end--;
+            }
+            if (start < end) {
+                pos = start;
+                lineEnd = end;
+                hasField = true;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the current line starts with the ascii prefix.
+     *
+     * @param prefix Prefix
+     * @return Boolean
+     */
+    boolean startsWith(String prefix) {
+        if (lineEnd - pos < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.get(pos + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the current line has another field which is not empty.
+     *
+     * @return Boolean
+     */
+    boolean hasValue() {
+        return hasField && pos < lineEnd && buffer.get(pos) != ',';
+    }
+
+    /**
+     * Reads int field.
+     *
+     * @return Value
+     * @throws NumberFormatException If the field is not an int
+     */
+    int nextInt() {
+        int start = skipSpaces(fieldStart(), lineEnd);
+        if (isQuoted(start)) {
+            return Integer.parseInt(nextString().trim());
+        }
+        int end = fieldEnd(start);
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || i < end && buffer.get(i) == '+') {
+            i++;
+        }
+        long value = 0;
+        int digits = i;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                break;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (i == digits || skipSpaces(i, end) != end || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+            throw new NumberFormatException("For input string: \"" + text(start, end) + "\"");
+        }
+        finishField(end);
+        return (int) value;
+    }
+
+    /**
+     * Reads double field.
+     *
+     * @return Value
+     * @throws NumberFormatException If the field is not a number
+     */
+    double nextDouble() {
+        int start = skipSpaces(fieldStart(), lineEnd);
+        if (isQuoted(start)) {
+            return Double.parseDouble(nextString());
+        }
+        int end = fieldEnd(start);
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative || i < end && buffer.get(i) == '+') {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !fraction) {
+                fraction = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || mantissa >= EXACT_MANTISSA) {
+                break;
+            }
+            mantissa = mantissa * 10 + digit;
+            digits++;
+            if (fraction) {
+                fractionDigits++;
+            }
+        }
+        if (digits == 0 || skipSpaces(i, end) != end || mantissa > EXACT_MANTISSA
+            || fractionDigits >= POWERS_OF_TEN.length) {
+            double value = Double.parseDouble(text(start, end));
+            finishField(end);
+            return value;
+        }
+        finishField(end);
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads boolean field, everything but "true" ignoring case is false like in {@link Boolean#parseBoolean}.
+     *
+     * @return Value
+     */
+    boolean nextBoolean() {
+        int start = skipSpaces(fieldStart(), lineEnd);
+        if (isQuoted(start)) {
+            return Boolean.parseBoolean(nextString().trim());
+        }
+        int end = fieldEnd(start);
+        int last = trimEnd(start, end);
+        boolean value = last - start == 4
+            && (buffer.get(start) | 0x20) == 't'
+            && (buffer.get(start + 1) | 0x20) == 'r'
+            && (buffer.get(start + 2) | 0x20) == 'u'
+            && (buffer.get(start + 3) | 0x20) == 'e';
+        finishField(end);
+        return value;
+    }
+
+    /**
+     * Reads timestamp in the ISO local format, seconds and fractions of a second are optional.
+     *
+     * @return Value
+     * @throws java.time.DateTimeException If the field is not a valid timestamp
+     */
+    LocalDateTime nextDateTime() {
+        int start = skipSpaces(fieldStart(), lineEnd);
+        if (isQuoted(start)) {
+            return LocalDateTime.parse(nextString().trim());
+        }
+        int end = fieldEnd(start);
+        int last = trimEnd(start, end);
+        int length = last - start;
+        boolean simple = length >= 16
+            && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-' && buffer.get(start + 10) == 'T'
+            && buffer.get(start + 13) == ':'
+            && (length == 16 || buffer.get(start + 16) == ':' && length >= 19)
+            && (length <= 19 || buffer.get(start + 19) == '.' && length >= 21 && length <= 29);
+        int year = simple ? digits(start, 4) : -1;
+        int month = simple ? digits(start + 5, 2) : -1;
+        int day = simple ? digits(start + 8, 2) : -1;
+        int hour = simple ? digits(start + 11, 2) : -1;
+        int minute = simple ? digits(start + 14, 2) : -1;
+        int second = length >= 19 ? digits(start + 17, 2) : 0;
+        int nanos = 0;
+        if (length > 20) {
+            nanos = digits(start + 20, length - 20);
+            for (int i = length - 20; i < 9 && nanos >= 0; i++) {
+                nanos *= 10;
+            }
+        }
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0 || nanos < 0) {
+            LocalDateTime value = LocalDateTime.parse(text(start, last));
+            finishField(end);
+            return value;
+        }
+        finishField(end);
+        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    }
+
+    /**
+     * Reads text field, spaces around an unquoted value are kept.
+     *
+     * @return Value, unquoted
+     * @throws IllegalStateException If a quoted field is not closed
+     */
+    String nextString() {
+        int start = fieldStart();
+        int quote = skipSpaces(start, lineEnd);
+        if (!isQuoted(quote)) {
+            int end = fieldEnd(start);
+            String value = text(start, end);
+            finishField(end);
+            return value;
+        }
+        int length = 0;
+        int i = quote + 1;
+        while (true) {
+            if (i >= lineEnd) {
+                throw new IllegalStateException("Unclosed quote in csv field");
+            }
+            byte b = buffer.get(i++);
+            if (b == '"') {
+                if (i < lineEnd && buffer.get(i) == '"') {
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = b;
+        }
+        int end = skipSpaces(i, lineEnd);
+        if (end < lineEnd && buffer.get(end) != ',') {
+            throw new IllegalStateException("Unexpected character after quoted csv field");
+        }
+        finishField(end);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the last text field, which takes the rest of the line unless it is quoted,
+     * so unquoted commas written by older exports stay in the value.
+     *
+     * @return Value
+     */
+    String restOfLine() {
+        int start = fieldStart();
+        if (isQuoted(skipSpaces(start, lineEnd))) {
+            return nextString();
+        }
+        String value = text(start, lineEnd);
+        pos = lineEnd;
+        hasField = false;
+        return value;
+    }
+
+    /**
+     * Gets start of the next field.
+     *
+     * @return Index
+     * @throws IllegalStateException If the line has no more fields
+     */
+    private int fieldStart() {
+        if (!hasField) {
+            throw new IllegalStateException("Not enough fields in csv line");
+        }
+        return pos;
+    }
+
+    /**
+     * Finds end of an unquoted field.
+     *
+     * @param start Start of the field
+     * @return Index of the separator or the end of the line
+     */
+    private int fieldEnd(int start) {
+        int i = start;
+        while (i < lineEnd && buffer.get(i) != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Moves past the field and its separator.
+     *
+     * @param end Index of the separator or the end of the line
+     */
+    private void finishField(int end) {
+        if (end >= lineEnd) {
+            pos = lineEnd;
+            hasField = false;
+        } else {
+            pos = end + 1;
+        }
+    }
+
+    /**
+     * Checks whether the field at the index is quoted.
+     *
+     * @param start Start of the field
+     * @return Boolean
+     */
+    private boolean isQuoted(int start) {
+        return start < lineEnd && buffer.get(start) == '"';
+    }
+
+    /**
+     * Parses fixed number of decimal digits.
+     *
+     * @param start Index of the first digit
+     * @param count Number of digits
+     * @return Value, -1 if a byte is not a digit
+     */
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Skips spaces.
+     *
+     * @param start Index to start from
+     * @param end   Index to stop at
+     * @return Index of the first byte which is not a space
+     */
+    private int skipSpaces(int start, int end) {
+        int i = start;
+        while (i < end && isSpace(buffer.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Drops trailing spaces.
+     *
+     * @param start Start of the range
+     * @param end   End of the range
+     * @return End without trailing spaces
+     */
+    private int trimEnd(int start, int end) {
+        int i = end;
+        while (i > start && isSpace(buffer.get(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Decodes bytes as UTF-8.
+     *
+     * @param start Start of the range
+     * @param end   End of the range
+     * @return Text
+     */
+    private String text(int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the line feed ending the line, ignoring those inside quoted fields.
+     *
+     * @param start Start of the line
+     * @return Index of the line feed, -1 if the buffer ends first
+     */
+    private int findLineEnd(int start) {
+        int limit = buffer.limit();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        for (int i = start; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (quoted) {
+                if (b == '"') {
+                    if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                        i++;
+                    } else if (i + 1 < limit || eof) {
+                        quoted = false;
+                    } else {
+                        return -1;
+                    }
+                }
+            } else if (b == '\n') {
+                return i;
+            } else if (b == ',') {
+                fieldStart = true;
+            } else if (b == '"' && fieldStart) {
+                quoted = true;
+            } else if (!isSpace(b)) {
+                fieldStart = false;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the unread bytes to the start of the buffer and reads more, growing the buffer if it is full.
+     *
+     * @throws IOException If the channel fails
+     */
+    private void refill() throws IOException {
+        buffer.position(next);
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+        }
+        buffer.flip();
+        next = 0;
+    }
+
+    /**
+     * Checks whether the byte is a space or a control character.
+     *
+     * @param b Byte
+     * @return Boolean
+     */
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+}
@@ -1,43 +1,42 @@
 package hse.bank.services.importers;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import hse.bank.domains.BankAccount;
 import hse.bank.domains.Category;
-import hse.bank.domains.Operation;
+import hse.bank.enums.IOFormat;
+import hse.bank.events.ImportEvent;
 import hse.bank.factories.BankAccountFactory;
 import hse.bank.factories.CategoryFactory;
-import hse.bank.factories.OperationFactory;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
-import hse.bank.records.OperationData;
+import hse.bank.stats.IoMetrics;
 import hse.bank.storage.AccountStorage;
 import hse.bank.storage.CategoryStorage;
-import hse.bank.storage.OperationStorage;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
 
 /**
  * Class for importing data from json file.
+ *
+ * <p>The document is read token by token and every object is stored as soon as it is read, so memory does not
+ * depend on the size of the file. Only operations whose account or category is not known yet, because its section
+ * comes later in the file, are kept until the end of the document.
  */
 @Log4j2
 @Component
 public class JsonImporter implements BaseImporter {
+    /**
+     * Formatter of operation dates.
+     */
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     /**
      * Imports data.
@@ -47,132 +46,191 @@ public class JsonImporter implements BaseImporter {
      */
     @Override
     public void importData(InputStream inputStream) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            Gson gson = new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new JsonDeserializer<LocalDateTime>() {
-                    @Override
-                    public LocalDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-                        throws JsonParseException {
-                        return LocalDateTime.parse(json.getAsString(), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                    }
-                })
-                .create();
-
-            JsonObject rootObject = JsonParser.parseReader(reader).getAsJsonObject();
-
-            importAccounts(gson, rootObject);
-
-            importCategories(gson, rootObject);
-
-            importOperations(gson, rootObject);
-
+        ImportEvent event = ImportEvent.start(IOFormat.JSON);
+        long start = System.nanoTime();
+        long rowsBefore = IoMetrics.rows();
+        OperationBatch operations = new OperationBatch();
+        try (JsonReader reader = new JsonReader(
+            new BufferedReader(new InputStreamReader(event.count(inputStream), StandardCharsets.UTF_8)))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "accounts" -> importAccounts(reader);
+                    case "categories" -> importCategories(reader);
+                    case "operations" -> importOperations(reader, operations);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            operations.finish();
         } catch (Exception e) {
+            operations.abort();
             log.error("Ошибка при импорте данных из JSON: {}", e.getMessage());
             throw new IOException("Ошибка при импорте данных из JSON", e);
+        } finally {
+            event.finish();
         }
+        long nanos = Math.max(System.nanoTime() - start, 1);
+        long rows = IoMetrics.rows() - rowsBefore;
+        log.info("Импортировано {} объектов из JSON за {} мс ({} объектов/с)",
+            rows, nanos / 1_000_000, rows * 1_000_000_000L / nanos);
     }
 
     /**
      * Import accounts.
      *
-     * @param gson       Gson object
-     * @param rootObject Root object
+     * @param reader Reader positioned at the accounts array
+     * @throws IOException If the document is malformed
      */
-    private void importAccounts(Gson gson, JsonObject rootObject) {
-        if (!rootObject.has("accounts")) {
+    private void importAccounts(JsonReader reader) throws IOException {
+        if (!beginArray(reader)) {
             return;
         }
+        while (reader.hasNext()) {
+            Integer id = null;
+            String name = null;
+            Double balance = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = reader.nextInt();
+                    case "name" -> name = reader.nextString();
+                    case "balance" -> balance = reader.nextDouble();
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
 
-        JsonArray accountsArray = rootObject.getAsJsonArray("accounts");
-        for (JsonElement element : accountsArray) {
-            JsonObject accountObject = element.getAsJsonObject();
-
-            int id = accountObject.get("id").getAsInt();
-            String name = accountObject.get("name").getAsString();
-            double balance = accountObject.get("balance").getAsDouble();
-
-            BankAccountData accountData = new BankAccountData(name, balance);
-            BankAccount account = BankAccountFactory.createAccountWithId(accountData, id);
+            BankAccountData accountData = new BankAccountData(require(name, "Account", "name"),
+                require(balance, "Account", "balance"));
+            BankAccount account = BankAccountFactory.createAccountWithId(accountData, require(id, "Account", "id"));
             AccountStorage.addUser(account);
         }
+        reader.endArray();
     }
 
     /**
-     * Imports categories.
+     * Imports categories. The sign is read from "positive" as well as from "isPositive" written by the exporter.
      *
-     * @param gson       Gson object
-     * @param rootObject Root object
+     * @param reader Reader positioned at the categories array
+     * @throws IOException If the document is malformed
      */
-    private void importCategories(Gson gson, JsonObject rootObject) {
-        if (!rootObject.has("categories")) {
+    private void importCategories(JsonReader reader) throws IOException {
+        if (!beginArray(reader)) {
             return;
         }
+        while (reader.hasNext()) {
+            Integer id = null;
+            String name = null;
+            Boolean isPositive = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = reader.nextInt();
+                    case "name" -> name = reader.nextString();
+                    case "positive", "isPositive" -> isPositive = reader.nextBoolean();
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
 
-        JsonArray categoriesArray = rootObject.getAsJsonArray("categories");
-        for (JsonElement element : categoriesArray) {
-            JsonObject categoryObject = element.getAsJsonObject();
-
-            int id = categoryObject.get("id").getAsInt();
-            String name = categoryObject.get("name").getAsString();
-            boolean isPositive = categoryObject.get("positive").getAsBoolean();
-
-            CategoryData categoryData = new CategoryData(isPositive, name);
-            Category category = CategoryFactory.createCategoryWithId(categoryData, id);
+            CategoryData categoryData = new CategoryData(require(isPositive, "Category", "positive"),
+                require(name, "Category", "name"));
+            Category category = CategoryFactory.createCategoryWithId(categoryData, require(id, "Category", "id"));
             CategoryStorage.addCategory(category);
         }
+        reader.endArray();
     }
 
     /**
      * Imports operations.
      *
-     * @param gson       Gson object
-     * @param rootObject Root object
+     * @param reader     Reader positioned at the operations array
+     * @param operations Batch the operations are added to
+     * @throws IOException If the document is malformed
      */
-    private void importOperations(Gson gson, JsonObject rootObject) {
-        if (!rootObject.has("operations")) {
+    private void importOperations(JsonReader reader, OperationBatch operations) throws IOException {
+        if (!beginArray(reader)) {
             return;
         }
-
-        JsonArray operationsArray = rootObject.getAsJsonArray("operations");
-        for (JsonElement element : operationsArray) {
-            JsonObject operationObject = element.getAsJsonObject();
-
-            int accountId = operationObject.get("accountId").getAsInt();
-            BankAccount account = AccountStorage.getUserById(accountId);
-            if (account == null) {
-                log.warn("Счет с ID {} не найден при импорте операции", accountId);
-                continue;
+        while (reader.hasNext()) {
+            Integer id = null;
+            Boolean type = null;
+            Double amount = null;
+            Integer accountId = null;
+            Integer categoryId = null;
+            LocalDateTime date = null;
+            String description = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id" -> id = reader.nextInt();
+                    case "type" -> type = reader.nextBoolean();
+                    case "amount" -> amount = reader.nextDouble();
+                    case "accountId" -> accountId = reader.nextInt();
+                    case "categoryId" -> categoryId = reader.nextInt();
+                    case "date" -> {
+                        String text = nextNullableString(reader);
+                        date = text == null ? null : LocalDateTime.parse(text, DATE_FORMATTER);
+                    }
+                    case "description" -> description = nextNullableString(reader);
+                    default -> reader.skipValue();
+                }
             }
+            reader.endObject();
 
-            LocalDateTime date = gson.fromJson(
-                operationObject.get("date"),
-                LocalDateTime.class
-            );
+            operations.add(new OperationBatch.Row(require(id, "Operation", "id"), require(type, "Operation", "type"),
+                require(amount, "Operation", "amount"), require(accountId, "Operation", "accountId"),
+                require(categoryId, "Operation", "categoryId"), date, description));
+        }
+        reader.endArray();
+    }
 
-            int categoryId = operationObject.get("categoryId").getAsInt();
-            Category category = CategoryStorage.getCategoryById(categoryId);
-            if (category == null) {
-                log.warn("Категория с ID {} не найдена при импорте операции", categoryId);
-                continue;
-            }
+    /**
+     * Enters array unless the value is null.
+     *
+     * @param reader Reader positioned at the value
+     * @return Whether an array was entered
+     * @throws IOException If the value is neither an array nor null
+     */
+    private static boolean beginArray(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return false;
+        }
+        reader.beginArray();
+        return true;
+    }
 
-            Optional<String> description = Optional.empty();
-            if (operationObject.has("description") && !operationObject.get("description").isJsonNull()) {
-                description = Optional.of(operationObject.get("description").getAsString());
-            }
-            int id = operationObject.get("id").getAsInt();
-            boolean type = operationObject.get("type").getAsBoolean();
-            double amount = operationObject.get("amount").getAsDouble();
-            OperationData operationData = new OperationData(
-                type,
-                account,
-                amount,
-                category,
-                description
-            );
+    /**
+     * Reads string which may be null.
+     *
+     * @param reader Reader positioned at the value
+     * @return String or null
+     * @throws IOException If the value is neither a string nor null
+     */
+    private static String nextNullableString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
 
-            Operation operation = OperationFactory.createOperationWithId(operationData, id);
-            OperationStorage.addOperation(operation);
+    /**
+     * Checks that a field was present.
+     *
+     * @param value  Value of the field, null if missing
+     * @param object Name of the object
+     * @param field  Name of the field
+     * @param <T>    Type of the value
+     * @return Value
+     * @throws IllegalStateException If the field is missing
+     */
+    private static <T> T require(T value, String object, String field) {
+        if (value == null) {
+            throw new IllegalStateException(object + " without " + field);
         }
+        return value;
     }
 }
@@ -0,0 +1,139 @@
+package hse.bank.services.importers;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.OperationData;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Operations of one streaming import, added to the storage in batches of {@link #SIZE}.
+ *
+ * <p>Importers read operations as rows referencing their account and category by id. A row whose account or
+ * category is not stored yet, because its section comes later in the file, is kept until {@link #finish()}.
+ * If the import fails, {@link #abort()} stores the operations resolved so far, so the storage keeps everything read
+ * before the failure, as it does for accounts and categories.
+ */
+@Log4j2
+final class OperationBatch {
+    /**
+     * Number of operations added to the storage at once.
+     */
+    static final int SIZE = 1024;
+
+    /**
+     * Resolved operations not added to the storage yet.
+     */
+    private final List<Operation> batch = new ArrayList<>(SIZE);
+    /**
+     * Rows whose account or category was not known when they were read.
+     */
+    private final List<Row> pending = new ArrayList<>();
+
+    /**
+     * Adds operation, or keeps it until the end if its account or category is not known yet.
+     *
+     * @param row Operation
+     */
+    void add(Row row) {
+        if (!tryAdd(row)) {
+            pending.add(row);
+        }
+    }
+
+    /**
+     * Adds pending operations once the whole file is read, skipping those which reference missing objects, and
+     * flushes the batch.
+     */
+    void finish() {
+        for (Row row : pending) {
+            if (tryAdd(row)) {
+                continue;
+            }
+            if (AccountStorage.getUserById(row.accountId()) == null) {
+                log.warn("Счет с ID {} не найден при импорте операции", row.accountId());
+            } else {
+                log.warn("Категория с ID {} не найдена при импорте операции", row.categoryId());
+            }
+        }
+        pending.clear();
+        flush();
+    }
+
+    /**
+     * Adds resolved operations after the import failed, without hiding the failure if the storage rejects them.
+     * Pending rows are dropped, since the objects they reference will not be read.
+     */
+    void abort() {
+        if (!pending.isEmpty()) {
+            log.warn("Пропущено {} операций без счета или категории", pending.size());
+            pending.clear();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить {} операций: {}", batch.size(), e.getMessage());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Adds operation if its account and category are known.
+     *
+     * @param row Operation
+     * @return Whether the operation was added
+     */
+    private boolean tryAdd(Row row) {
+        BankAccount account = AccountStorage.getUserById(row.accountId());
+        Category category = CategoryStorage.getCategoryById(row.categoryId());
+        if (account == null || category == null) {
+            return false;
+        }
+        OperationData operationData = new OperationData(
+            row.type(),
+            account,
+            row.amount(),
+            category,
+            Optional.ofNullable(row.description())
+        );
+        LocalDateTime date = row.date() == null ? LocalDateTime.now() : row.date();
+        batch.add(OperationFactory.createOperationWithIdAndTime(operationData, date, row.id()));
+        if (batch.size() == SIZE) {
+            flush();
+        }
+        return true;
+    }
+
+    /**
+     * Adds resolved operations to the storage.
+     */
+    private void flush() {
+        if (!batch.isEmpty()) {
+            OperationStorage.addOperations(List.copyOf(batch));
+            batch.clear();
+        }
+    }
+
+    /**
+     * Operation as read from a file.
+     *
+     * @param id          Id
+     * @param type        Type of operation
+     * @param amount      Amount
+     * @param accountId   Id of the account
+     * @param categoryId  Id of the category
+     * @param date        Date, null to use the current time
+     * @param description Description, null if none
+     */
+    record Row(int id, boolean type, double amount, int accountId, int categoryId, LocalDateTime date,
+               String description) {
+    }
+}
@@ -2,154 +2,290 @@ package hse.bank.services.importers;
 
 import hse.bank.domains.BankAccount;
 import hse.bank.domains.Category;
-import hse.bank.domains.Operation;
+import hse.bank.enums.IOFormat;
+import hse.bank.events.ImportEvent;
 import hse.bank.factories.BankAccountFactory;
 import hse.bank.factories.CategoryFactory;
-import hse.bank.factories.OperationFactory;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
-import hse.bank.records.OperationData;
+import hse.bank.stats.IoMetrics;
 import hse.bank.storage.AccountStorage;
 import hse.bank.storage.CategoryStorage;
-import hse.bank.storage.OperationStorage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Consumer;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Component;
-import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 /**
  * Imports data from yaml file.
+ *
+ * <p>The document is read as a stream of parser events instead of being loaded into maps, and every account,
+ * category and operation is stored as soon as its mapping ends, so memory does not depend on the size of the file.
+ * Scalars of a row are typed the way {@code Yaml.load} types them, so a malformed row is skipped with a warning while
+ * the rest of the file is imported. Operations referencing objects of later sections wait until the end.
  */
 @Log4j2
 @Component
 public class YamlImporter implements BaseImporter {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    /**
+     * Resolver of implicit scalar types.
+     */
+    private static final Resolver RESOLVER = new Resolver();
+    /**
+     * Value of a field which is not a scalar of a known type, fails every cast of the row.
+     */
+    private static final Object INVALID = new Object();
 
     /**
      * Import data.
      */
     @Override
     public void importData(InputStream inputStream) throws IOException {
+        ImportEvent event = ImportEvent.start(IOFormat.YAML);
+        long start = System.nanoTime();
+        long rowsBefore = IoMetrics.rows();
+        OperationBatch operations = new OperationBatch();
         try {
-            // Создаем экземпляр Yaml
-            Yaml yaml = new Yaml();
+            LoaderOptions options = new LoaderOptions();
+            options.setCodePointLimit(Integer.MAX_VALUE);
+            InputStream counted = event.count(inputStream);
+            Parser parser = new ParserImpl(
+                new StreamReader(new InputStreamReader(counted, StandardCharsets.UTF_8)), options);
 
-            Map<String, Object> data = yaml.load(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-            importAccounts(data);
-            importCategories(data);
-            importOperations(data);
+            expect(parser, Event.ID.StreamStart);
+            if (!parser.checkEvent(Event.ID.StreamEnd)) {
+                expect(parser, Event.ID.DocumentStart);
+                expect(parser, Event.ID.MappingStart);
+                while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                    Event key = parser.getEvent();
+                    String section = key instanceof ScalarEvent scalar ? scalar.getValue() : "";
+                    skipRest(parser, key);
+                    switch (section) {
+                        case "accounts" -> importRows(parser, this::importAccount);
+                        case "categories" -> importRows(parser, this::importCategory);
+                        case "operations" -> importRows(parser, row -> importOperation(row, operations));
+                        default -> skip(parser);
+                    }
+                }
+            }
+            operations.finish();
 
         } catch (Exception e) {
+            operations.abort();
             log.error("Ошибка при импорте данных из YAML: {}", e.getMessage());
             throw new IOException("Ошибка при импорте данных из YAML", e);
+        } finally {
+            event.finish();
         }
+        long nanos = Math.max(System.nanoTime() - start, 1);
+        long rows = IoMetrics.rows() - rowsBefore;
+        log.info("Импортировано {} объектов из YAML за {} мс ({} объектов/с)",
+            rows, nanos / 1_000_000, rows * 1_000_000_000L / nanos);
     }
 
     /**
-     * Import accounts.
+     * Import account.
      *
-     * @param data Data for import.
+     * @param accountMap Fields of the account.
      */
-    private void importAccounts(Map<String, Object> data) {
-        if (!data.containsKey("accounts")) {
-            return;
+    private void importAccount(Map<String, Object> accountMap) {
+        try {
+            int id = ((Number) accountMap.get("id")).intValue();
+            String name = (String) accountMap.get("name");
+            double balance = ((Number) accountMap.get("balance")).doubleValue();
+
+            BankAccountData accountData = new BankAccountData(name, balance);
+            BankAccount account = BankAccountFactory.createAccountWithId(accountData, id);
+            AccountStorage.addUser(account);
+        } catch (Exception e) {
+            log.warn("Ошибка при импорте счета: {}", e.getMessage());
         }
+    }
 
-        List<Map<String, Object>> accounts = (List<Map<String, Object>>) data.get("accounts");
-        for (Map<String, Object> accountMap : accounts) {
-            try {
-                int id = ((Number) accountMap.get("id")).intValue();
-                String name = (String) accountMap.get("name");
-                double balance = ((Number) accountMap.get("balance")).doubleValue();
-
-                BankAccountData accountData = new BankAccountData(name, balance);
-                BankAccount account = BankAccountFactory.createAccountWithId(accountData, id);
-                AccountStorage.addUser(account);
-            } catch (Exception e) {
-                log.warn("Ошибка при импорте счета: {}", e.getMessage());
-            }
+    /**
+     * Import category.
+     *
+     * @param categoryMap Fields of the category.
+     */
+    private void importCategory(Map<String, Object> categoryMap) {
+        try {
+            int id = ((Number) categoryMap.get("id")).intValue();
+            String name = (String) categoryMap.get("name");
+            boolean isPositive = (Boolean) categoryMap.get("positive");
+
+            CategoryData categoryData = new CategoryData(isPositive, name);
+            Category category = CategoryFactory.createCategoryWithId(categoryData, id);
+            CategoryStorage.addCategory(category);
+        } catch (Exception e) {
+            log.warn("Ошибка при импорте категории: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Import operation.
+     *
+     * @param operationMap Fields of the operation.
+     * @param operations   Batch the operation is added to.
+     */
+    private void importOperation(Map<String, Object> operationMap, OperationBatch operations) {
+        try {
+            int accountId = ((Number) operationMap.get("accountId")).intValue();
+            String dateStr = (String) operationMap.get("date");
+            LocalDateTime date = LocalDateTime.parse(dateStr, DATE_FORMATTER);
+            int categoryId = ((Number) operationMap.get("categoryId")).intValue();
+            int id = ((Number) operationMap.get("id")).intValue();
+            boolean type = (Boolean) operationMap.get("type");
+            double amount = ((Number) operationMap.get("amount")).doubleValue();
+            String description = (String) operationMap.get("description");
+            operations.add(new OperationBatch.Row(id, type, amount, accountId, categoryId, date, description));
+        } catch (Exception e) {
+            log.warn("Ошибка при импорте операции: {}", e.getMessage());
         }
     }
 
     /**
-     * Import categories.
+     * Reads sequence of mappings, passing each one to the importer as soon as it ends.
+     * A null value is an empty section, an item which is not a mapping is passed as an empty row.
      *
-     * @param data Data for import.
+     * @param parser   Parser positioned at the value of a section
+     * @param importer Importer of one row
+     * @throws IllegalStateException If the section is not a sequence
      */
-    private void importCategories(Map<String, Object> data) {
-        if (!data.containsKey("categories")) {
+    private static void importRows(Parser parser, Consumer<Map<String, Object>> importer) {
+        Event event = parser.getEvent();
+        if (event instanceof ScalarEvent scalar && scalar(scalar) == null) {
             return;
         }
+        if (!event.is(Event.ID.SequenceStart)) {
+            throw new IllegalStateException("Expected a sequence, got " + event);
+        }
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            importer.accept(readRow(parser));
+        }
+        parser.getEvent();
+    }
 
-        List<Map<String, Object>> categories = (List<Map<String, Object>>) data.get("categories");
-        for (Map<String, Object> categoryMap : categories) {
-            try {
-                int id = ((Number) categoryMap.get("id")).intValue();
-                String name = (String) categoryMap.get("name");
-                boolean isPositive = (Boolean) categoryMap.get("positive");
-
-                CategoryData categoryData = new CategoryData(isPositive, name);
-                Category category = CategoryFactory.createCategoryWithId(categoryData, id);
-                CategoryStorage.addCategory(category);
-            } catch (Exception e) {
-                log.warn("Ошибка при импорте категории: {}", e.getMessage());
+    /**
+     * Reads mapping of scalars, nested values are replaced by {@link #INVALID}.
+     *
+     * @param parser Parser positioned at the row
+     * @return Fields of the row, empty if it is not a mapping
+     */
+    private static Map<String, Object> readRow(Parser parser) {
+        Map<String, Object> row = new HashMap<>();
+        Event start = parser.getEvent();
+        if (!start.is(Event.ID.MappingStart)) {
+            skipRest(parser, start);
+            return row;
+        }
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event key = parser.getEvent();
+            Event value = parser.peekEvent();
+            if (key instanceof ScalarEvent keyScalar && value instanceof ScalarEvent valueScalar) {
+                parser.getEvent();
+                row.put(keyScalar.getValue(), scalar(valueScalar));
+                continue;
             }
+            skipRest(parser, key);
+            if (key instanceof ScalarEvent keyScalar) {
+                row.put(keyScalar.getValue(), INVALID);
+            }
+            skip(parser);
         }
+        parser.getEvent();
+        return row;
     }
 
     /**
-     * Import operations.
+     * Converts scalar to the type {@code Yaml.load} would give it.
      *
-     * @param data Data for import.
+     * @param event Scalar
+     * @return Null, Boolean, Long, Double or String, {@link #INVALID} if it is not a valid number or it is a
+     *     timestamp, which {@code Yaml.load} turns into a date no field accepts
      */
-    private void importOperations(Map<String, Object> data) {
-        if (!data.containsKey("operations")) {
-            return;
-        }
-        List<Map<String, Object>> operations = (List<Map<String, Object>>) data.get("operations");
-        for (Map<String, Object> operationMap : operations) {
-            try {
-                int accountId = ((Number) operationMap.get("accountId")).intValue();
-                BankAccount account = AccountStorage.getUserById(accountId);
-                if (account == null) {
-                    log.warn("Счет с ID {} не найден при импорте операции", accountId);
-                    continue;
-                }
-                String dateStr = (String) operationMap.get("date");
-                LocalDateTime date = LocalDateTime.parse(dateStr, DATE_FORMATTER);
-                int categoryId = ((Number) operationMap.get("categoryId")).intValue();
-                Category category = CategoryStorage.getCategoryById(categoryId);
-                if (category == null) {
-                    log.warn("Категория с ID {} не найдена при импорте операции", categoryId);
-                    continue;
-                }
-                int id = ((Number) operationMap.get("id")).intValue();
-                boolean type = (Boolean) operationMap.get("type");
-                double amount = ((Number) operationMap.get("amount")).doubleValue();
-                Optional<String> description = Optional.empty();
-                if (operationMap.containsKey("description") && operationMap.get("description") != null) {
-                    description = Optional.of((String) operationMap.get("description"));
+    private static Object scalar(ScalarEvent event) {
+        String value = event.getValue();
+        Tag tag = event.getTag() == null || "!".equals(event.getTag())
+            ? RESOLVER.resolve(NodeId.scalar, value, event.getImplicit().canOmitTagInPlainScalar())
+            : new Tag(event.getTag());
+        try {
+            if (Tag.NULL.equals(tag)) {
+                return null;
+            } else if (Tag.BOOL.equals(tag)) {
+                String bool = value.toLowerCase(Locale.ROOT);
+                return bool.equals("true") || bool.equals("yes") || bool.equals("on");
+            } else if (Tag.INT.equals(tag)) {
+                return Long.decode(value.replace("_", ""));
+            } else if (Tag.FLOAT.equals(tag)) {
+                String number = value.replace("_", "").toLowerCase(Locale.ROOT);
+                if (number.endsWith(".inf")) {
+                    return number.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
                 }
-                OperationData operationData = new OperationData(
-                    type,
-                    account,
-                    amount,
-                    category,
-                    description
-                );
-
-                Operation operation = OperationFactory.createOperationWithId(operationData, id);
-                OperationStorage.addOperation(operation);
-            } catch (Exception e) {
-                log.warn("Ошибка при импорте операции: {}", e.getMessage());
+                return number.equals(".nan") ? Double.NaN : Double.parseDouble(number);
+            } else if (Tag.TIMESTAMP.equals(tag)) {
+                return INVALID;
+            }
+        } catch (NumberFormatException e) {
+            return INVALID;
+        }
+        return value;
+    }
+
+    /**
+     * Consumes event of the given type.
+     *
+     * @param parser Parser
+     * @param id     Expected type
+     * @throws IllegalStateException If the next event has another type
+     */
+    private static void expect(Parser parser, Event.ID id) {
+        Event event = parser.getEvent();
+        if (!event.is(id)) {
+            throw new IllegalStateException("Expected " + id + ", got " + event);
+        }
+    }
+
+    /**
+     * Skips node.
+     *
+     * @param parser Parser positioned at the node
+     */
+    private static void skip(Parser parser) {
+        skipRest(parser, parser.getEvent());
+    }
+
+    /**
+     * Skips rest of the node whose first event was consumed.
+     *
+     * @param parser Parser
+     * @param first  First event of the node
+     */
+    private static void skipRest(Parser parser, Event first) {
+        int depth = first.is(Event.ID.MappingStart) || first.is(Event.ID.SequenceStart) ? 1 : 0;
+        while (depth > 0) {
+            Event event = parser.getEvent();
+            if (event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart)) {
+                depth++;
+            } else if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+                depth--;
             }
         }
     }
@@ -0,0 +1,33 @@
+package hse.bank.stats;
+
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.enums.IOFormat;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * One executed command captured by the {@link SlowCommandLog}.
+ *
+ * @param finishedAt Time the command finished
+ * @param command    Simple name of the command class, or "batch" for grouped operation creations
+ * @param type       Command type, null if unknown
+ * @param domainType Domain object type, null if unknown
+ * @param id         Id from the misc data
+ * @param filePath   File path from the misc data, empty if none
+ * @param ioFormat   File format from the misc data, null if none
+ * @param nanos      Duration
+ * @param slow       Whether the command exceeded the threshold, otherwise it was sampled
+ */
+public record CommandSample(Instant finishedAt, String command, CmdType type, DomainObjectType domainType, int id,
+                            String filePath, IOFormat ioFormat, long nanos, boolean slow) {
+    /**
+     * Formats sample with the duration in milliseconds.
+     *
+     * @return Text
+     */
+    public String format() {
+        return String.format(Locale.ROOT, "%s %s %s/%s id=%d path='%s' format=%s took %.3fms",
+            finishedAt, command, type, domainType, id, filePath, ioFormat, nanos / 1e6);
+    }
+}
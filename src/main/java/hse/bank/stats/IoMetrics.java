@@ -0,0 +1,131 @@
+package hse.bank.stats;
+
+import hse.bank.enums.IOFormat;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import jakarta.annotation.PostConstruct;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics of imports and exports: totals of bytes, rows and time per direction and format, and throughput of the
+ * latest run. Rows are objects of all storages, so rows of an import running concurrently with other mutations are
+ * approximate.
+ */
+@Component
+public class IoMetrics {
+    /**
+     * Registry.
+     */
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    /**
+     * Meters of imports per format.
+     */
+    private final Map<IOFormat, Meter> imports = new EnumMap<>(IOFormat.class);
+    /**
+     * Meters of exports per format.
+     */
+    private final Map<IOFormat, Meter> exports = new EnumMap<>(IOFormat.class);
+
+    /**
+     * Registers metrics of every format.
+     */
+    @PostConstruct
+    public void register() {
+        for (IOFormat format : IOFormat.values()) {
+            imports.put(format, new Meter("import", format));
+            exports.put(format, new Meter("export", format));
+        }
+    }
+
+    /**
+     * Counts objects in all storages.
+     *
+     * @return Number of rows
+     */
+    public static long rows() {
+        return (long) AccountStorage.size() + CategoryStorage.getCategories().size() + OperationStorage.size();
+    }
+
+    /**
+     * Records finished import.
+     *
+     * @param format Format
+     * @param bytes  Size of the file
+     * @param rows   Imported rows
+     * @param nanos  Duration
+     */
+    public void recordImport(IOFormat format, long bytes, long rows, long nanos) {
+        imports.get(format).record(bytes, rows, nanos);
+    }
+
+    /**
+     * Records finished export.
+     *
+     * @param format Format
+     * @param bytes  Size of the file
+     * @param rows   Exported rows
+     * @param nanos  Duration
+     */
+    public void recordExport(IOFormat format, long bytes, long rows, long nanos) {
+        exports.get(format).record(bytes, rows, nanos);
+    }
+
+    /**
+     * Metrics of one direction and format.
+     */
+    private final class Meter {
+        /**
+         * Bytes in total.
+         */
+        private final LongAdder bytes;
+        /**
+         * Rows in total.
+         */
+        private final LongAdder rows;
+        /**
+         * Nanoseconds in total.
+         */
+        private final LongAdder nanos;
+        /**
+         * Bytes per second of the latest run.
+         */
+        private volatile double lastBytesPerSecond;
+        /**
+         * Rows per second of the latest run.
+         */
+        private volatile double lastRowsPerSecond;
+
+        Meter(String direction, IOFormat format) {
+            String[] labels = {"direction", direction, "format", format.name()};
+            bytes = metricsRegistry.counter("bank_io_bytes_total", "Bytes of imported and exported files", labels);
+            rows = metricsRegistry.counter("bank_io_rows_total", "Imported and exported objects", labels);
+            nanos = metricsRegistry.counter("bank_io_nanoseconds_total", "Time spent on imports and exports", labels);
+            metricsRegistry.gauge("bank_io_last_bytes_per_second", "Bytes per second of the latest run",
+                () -> lastBytesPerSecond, labels);
+            metricsRegistry.gauge("bank_io_last_rows_per_second", "Objects per second of the latest run",
+                () -> lastRowsPerSecond, labels);
+        }
+
+        /**
+         * Records finished run.
+         *
+         * @param runBytes Size of the file
+         * @param runRows  Rows
+         * @param runNanos Duration
+         */
+        void record(long runBytes, long runRows, long runNanos) {
+            bytes.add(runBytes);
+            rows.add(runRows);
+            nanos.add(runNanos);
+            double seconds = Math.max(runNanos, 1) / 1e9;
+            lastBytesPerSecond = runBytes / seconds;
+            lastRowsPerSecond = runRows / seconds;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package hse.bank.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds with fixed memory.
+ *
+ * <p>Buckets are log-linear like in HdrHistogram: values below {@code 2 * SUB_BUCKETS} get a bucket each, every
+ * further power of two is split into {@code SUB_BUCKETS} equal buckets. So the relative error of a reported
+ * percentile stays below 1 / {@code SUB_BUCKETS} for any value up to {@link Long#MAX_VALUE}, and the histogram
+ * never grows however many samples it records.
+ */
+public final class LatencyHistogram {
+    /**
+     * Bits of the sub-bucket index.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    /**
+     * Buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Values below this limit have a bucket each.
+     */
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    /**
+     * Number of buckets covering all non-negative longs.
+     */
+    private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    /**
+     * Counts of buckets.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    /**
+     * Sum of recorded values.
+     */
+    private final LongAdder sum = new LongAdder();
+    /**
+     * Largest recorded value.
+     */
+    private final AtomicLong max = new AtomicLong();
+    /**
+     * Time the histogram was created, start of the throughput window.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Records latency.
+     *
+     * @param nanos Latency in nanoseconds, negative values count as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Takes snapshot of the distribution. Samples recorded concurrently may be partially included.
+     *
+     * @return Snapshot
+     */
+    public LatencySnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        long maxValue = max.get();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return new LatencySnapshot(
+            count,
+            count == 0 ? 0 : (double) sum.sum() / count,
+            percentile(copy, count, 0.5, maxValue),
+            percentile(copy, count, 0.9, maxValue),
+            percentile(copy, count, 0.99, maxValue),
+            percentile(copy, count, 0.999, maxValue),
+            maxValue,
+            seconds > 0 ? count / seconds : 0
+        );
+    }
+
+    /**
+     * Finds value at the percentile, reported as the highest value of its bucket.
+     *
+     * @param counts   Counts of buckets
+     * @param count    Total count
+     * @param quantile Percentile as a fraction
+     * @param maxValue Largest recorded value, upper bound of the result
+     * @return Value
+     */
+    private static long percentile(long[] counts, long count, double quantile, long maxValue) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Gets bucket of the value.
+     *
+     * @param value Non-negative value
+     * @return Bucket index
+     */
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift);
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + top - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets highest value falling into the bucket.
+     *
+     * @param bucket Bucket index
+     * @return Value
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long top = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
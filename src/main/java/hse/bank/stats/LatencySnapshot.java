@@ -0,0 +1,29 @@
+package hse.bank.stats;
+
+import java.util.Locale;
+
+/**
+ * Distribution of latencies at some moment, values in nanoseconds.
+ *
+ * @param count      Number of samples
+ * @param mean       Mean latency
+ * @param p50        Median latency
+ * @param p90        90th percentile
+ * @param p99        99th percentile
+ * @param p999       99.9th percentile
+ * @param max        Largest latency
+ * @param throughput Samples per second since the histogram was created
+ */
+public record LatencySnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max,
+                              double throughput) {
+    /**
+     * Formats snapshot with latencies in microseconds.
+     *
+     * @return Text
+     */
+    public String format() {
+        return String.format(Locale.ROOT,
+            "count=%d, throughput=%.1f/s, mean=%.1fus, p50=%.1fus, p90=%.1fus, p99=%.1fus, p999=%.1fus, max=%.1fus",
+            count, throughput, mean / 1e3, p50 / 1e3, p90 / 1e3, p99 / 1e3, p999 / 1e3, max / 1e3);
+    }
+}
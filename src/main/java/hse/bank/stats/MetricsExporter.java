@@ -0,0 +1,146 @@
+package hse.bank.stats;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes metrics of the registry to a text file rewritten periodically and to an HTTP endpoint on the loopback
+ * interface, both in the Prometheus text format. Each of them is enabled by its property.
+ */
+@Log4j2
+@Component
+public class MetricsExporter {
+    /**
+     * Content type of the Prometheus text format.
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Registry.
+     */
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+    /**
+     * File metrics are written to, empty disables the file.
+     */
+    @Value("${bank.metrics.file:}")
+    private String file;
+    /**
+     * Interval between rewrites of the file.
+     */
+    @Value("${bank.metrics.file-interval-s:15}")
+    private long fileIntervalSeconds;
+    /**
+     * Port of the endpoint, negative disables the endpoint.
+     */
+    @Value("${bank.metrics.port:-1}")
+    private int port;
+    /**
+     * Executor rewriting the file.
+     */
+    private ScheduledExecutorService fileWriter;
+    /**
+     * Server of the endpoint.
+     */
+    private HttpServer server;
+
+    /**
+     * Starts enabled exports.
+     *
+     * @throws IOException If the endpoint cannot be bound
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (file != null && !file.isBlank()) {
+            fileWriter = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("metrics-file").factory()
+            );
+            fileWriter.scheduleWithFixedDelay(this::writeFileQuietly, 0, fileIntervalSeconds, TimeUnit.SECONDS);
+        }
+        if (port >= 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", this::serve);
+            server.start();
+            log.info("Metrics are served at http://localhost:{}/metrics", server.getAddress().getPort());
+        }
+    }
+
+    /**
+     * Stops exports, writing the file one last time.
+     */
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (fileWriter != null) {
+            fileWriter.shutdown();
+            writeFileQuietly();
+        }
+    }
+
+    /**
+     * Writes metrics to the file, replacing it atomically so readers never see a partial file.
+     *
+     * @throws IOException If the file cannot be written
+     */
+    public void writeFile() throws IOException {
+        Path target = Path.of(file).toAbsolutePath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            metricsRegistry.write(writer);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes metrics to the file, logging failures so the schedule keeps running.
+     */
+    private void writeFileQuietly() {
+        try {
+            writeFile();
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Cannot write metrics to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Answers scrape request.
+     *
+     * @param exchange Exchange
+     * @throws IOException If the response cannot be sent
+     */
+    private void serve(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metricsRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package hse.bank.stats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of metrics rendered in the Prometheus text exposition format.
+ *
+ * <p>Components register counters, gauges and latency histograms once and update them without going through the
+ * registry, so recording never touches its maps. Counters are either owned by the registry or read from a source.
+ * Gauges, counter sources and histograms are read only when metrics are scraped. Labels are given as name and value
+ * pairs.
+ */
+@Component
+public class MetricsRegistry {
+    /**
+     * Metric families by name, sorted so the output is stable.
+     */
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Gets counter, registering it on first use.
+     *
+     * @param name   Metric name
+     * @param help   Description
+     * @param labels Label names and values
+     * @return Counter
+     * @throws IllegalStateException If the name is registered with another type
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        Family family = family(name, help, Type.COUNTER);
+        return (LongAdder) family.samples.computeIfAbsent(labels(labels), k -> new LongAdder());
+    }
+
+    /**
+     * Registers counter kept elsewhere, replacing the one with the same labels.
+     *
+     * @param name   Metric name
+     * @param help   Description
+     * @param value  Source of the monotonic value
+     * @param labels Label names and values
+     * @throws IllegalStateException If the name is registered with another type
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, Type.COUNTER).samples.put(labels(labels), value);
+    }
+
+    /**
+     * Registers gauge, replacing the one with the same labels.
+     *
+     * @param name   Metric name
+     * @param help   Description
+     * @param value  Source of the value
+     * @param labels Label names and values
+     * @throws IllegalStateException If the name is registered with another type
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).samples.put(labels(labels), value);
+    }
+
+    /**
+     * Registers latency histogram exported as a summary in seconds, replacing the one with the same labels.
+     *
+     * @param name      Metric name
+     * @param help      Description
+     * @param histogram Histogram
+     * @param labels    Label names and values
+     * @throws IllegalStateException If the name is registered with another type
+     */
+    public void summary(String name, String help, LatencyHistogram histogram, String... labels) {
+        family(name, help, Type.SUMMARY).samples.put(labels(labels), histogram);
+    }
+
+    /**
+     * Renders all metrics.
+     *
+     * @param out Destination
+     * @throws IOException If the destination fails
+     */
+    public void write(Appendable out) throws IOException {
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.text).append('\n');
+            for (Map.Entry<String, Object> sample : family.samples.entrySet()) {
+                String labels = sample.getKey();
+                switch (sample.getValue()) {
+                    case LongAdder counter -> line(out, family.name, labels, counter.sum());
+                    case LongSupplier counter -> line(out, family.name, labels, counter.getAsLong());
+                    case DoubleSupplier gauge -> line(out, family.name, labels, gauge.getAsDouble());
+                    case LatencyHistogram histogram -> writeSummary(out, family.name, labels, histogram);
+                    default -> throw new IllegalStateException("Unknown sample of " + family.name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders all metrics to a string.
+     *
+     * @return Metrics text
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        try {
+            write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets family, registering it on first use.
+     *
+     * @param name Metric name
+     * @param help Description
+     * @param type Type
+     * @return Family
+     */
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, k -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalStateException("Metric " + name + " is already registered as " + family.type.text);
+        }
+        return family;
+    }
+
+    /**
+     * Renders summary lines of a histogram.
+     *
+     * @param out       Destination
+     * @param name      Metric name
+     * @param labels    Rendered labels
+     * @param histogram Histogram
+     * @throws IOException If the destination fails
+     */
+    private static void writeSummary(Appendable out, String name, String labels, LatencyHistogram histogram)
+        throws IOException {
+        LatencySnapshot snapshot = histogram.snapshot();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        line(out, name, prefix + "quantile=\"0.5\"", snapshot.p50() / 1e9);
+        line(out, name, prefix + "quantile=\"0.9\"", snapshot.p90() / 1e9);
+        line(out, name, prefix + "quantile=\"0.99\"", snapshot.p99() / 1e9);
+        line(out, name, prefix + "quantile=\"0.999\"", snapshot.p999() / 1e9);
+        line(out, name + "_sum", labels, snapshot.mean() * snapshot.count() / 1e9);
+        line(out, name + "_count", labels, snapshot.count());
+    }
+
+    /**
+     * Renders one sample line.
+     *
+     * @param out    Destination
+     * @param name   Metric name
+     * @param labels Rendered labels
+     * @param value  Value
+     * @throws IOException If the destination fails
+     */
+    private static void line(Appendable out, String name, String labels, double value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append(Long.toString((long) value));
+        } else {
+            out.append(Double.toString(value));
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Renders label pairs.
+     *
+     * @param labels Label names and values
+     * @return Labels without braces
+     * @throws IllegalArgumentException If a label has no value
+     */
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+        }
+        StringBuilder rendered = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                rendered.append(',');
+            }
+            rendered.append(labels[i]).append("=\"");
+            for (char c : labels[i + 1].toCharArray()) {
+                switch (c) {
+                    case '\\' -> rendered.append("\\\\");
+                    case '"' -> rendered.append("\\\"");
+                    case '\n' -> rendered.append("\\n");
+                    default -> rendered.append(c);
+                }
+            }
+            rendered.append('"');
+        }
+        return rendered.toString();
+    }
+
+    /**
+     * Type of metric family.
+     */
+    private enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        /**
+         * Name in the exposition format.
+         */
+        private final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Metrics sharing a name.
+     */
+    private static final class Family {
+        /**
+         * Name.
+         */
+        private final String name;
+        /**
+         * Description.
+         */
+        private final String help;
+        /**
+         * Type.
+         */
+        private final Type type;
+        /**
+         * Counters, gauges or histograms by rendered labels.
+         */
+        private final Map<String, Object> samples = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
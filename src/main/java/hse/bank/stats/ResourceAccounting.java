@@ -0,0 +1,150 @@
+package hse.bank.stats;
+
+import com.sun.management.ThreadMXBean;
+import hse.bank.enums.CmdType;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes allocated and CPU time spent by commands, aggregated per command type.
+ *
+ * <p>Both are read from the thread MX bean for the thread executing the command, so they cover everything the
+ * command does on that thread and nothing else. Accounting is off by default, because reading the CPU time takes a
+ * system call twice per command. JVMs without the counters and virtual threads, for which they are not available,
+ * are silently skipped.
+ */
+public final class ResourceAccounting {
+    /**
+     * Thread MX bean with allocation counters.
+     */
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Usage per command type, filled once and never changed.
+     */
+    private final Map<CmdType, Usage> usages = new EnumMap<>(CmdType.class);
+    /**
+     * Whether commands are accounted.
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Constructor.
+     */
+    public ResourceAccounting() {
+        for (CmdType type : CmdType.values()) {
+            usages.put(type, new Usage());
+        }
+    }
+
+    /**
+     * Checks whether commands are accounted.
+     *
+     * @return Boolean
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns accounting on or off, it stays off if the JVM has no per-thread counters.
+     *
+     * @param enabled Whether to account commands
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isCurrentThreadCpuTimeSupported()) {
+                return;
+            }
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets bytes allocated by the current thread so far.
+     *
+     * @return Bytes, negative if not available
+     */
+    public static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Gets CPU time of the current thread so far.
+     *
+     * @return Nanoseconds, negative if not available
+     */
+    public static long cpuNanos() {
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Records command which started with the given counters of the current thread.
+     *
+     * @param type            Command type
+     * @param allocatedBefore Allocated bytes when the command started
+     * @param cpuBefore       CPU time when the command started
+     */
+    public void record(CmdType type, long allocatedBefore, long cpuBefore) {
+        long allocatedAfter = allocatedBytes();
+        long cpuAfter = cpuNanos();
+        if (allocatedBefore < 0 || cpuBefore < 0 || allocatedAfter < 0 || cpuAfter < 0) {
+            return;
+        }
+        usages.get(type).add(allocatedAfter - allocatedBefore, cpuAfter - cpuBefore);
+    }
+
+    /**
+     * Gets usage of commands of the type.
+     *
+     * @param type Command type
+     * @return Snapshot
+     */
+    public ResourceSnapshot snapshot(CmdType type) {
+        Usage usage = usages.get(type);
+        return new ResourceSnapshot(usage.count.sum(), usage.allocatedBytes.sum(), usage.maxAllocatedBytes.get(),
+            usage.cpuNanos.sum());
+    }
+
+    /**
+     * Usage of one command type.
+     */
+    private static final class Usage {
+        /**
+         * Number of accounted commands.
+         */
+        private final LongAdder count = new LongAdder();
+        /**
+         * Bytes allocated in total.
+         */
+        private final LongAdder allocatedBytes = new LongAdder();
+        /**
+         * Most bytes allocated by one command.
+         */
+        private final AtomicLong maxAllocatedBytes = new AtomicLong();
+        /**
+         * CPU time in total.
+         */
+        private final LongAdder cpuNanos = new LongAdder();
+
+        /**
+         * Adds command.
+         *
+         * @param allocated Bytes allocated by the command
+         * @param cpu       CPU time of the command
+         */
+        void add(long allocated, long cpu) {
+            count.increment();
+            allocatedBytes.add(allocated);
+            cpuNanos.add(cpu);
+            if (allocated > maxAllocatedBytes.get()) {
+                maxAllocatedBytes.accumulateAndGet(allocated, Math::max);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package hse.bank.stats;
+
+import java.util.Locale;
+
+/**
+ * Resources used by commands of one type.
+ *
+ * @param count             Number of accounted commands
+ * @param allocatedBytes    Bytes allocated in total
+ * @param maxAllocatedBytes Most bytes allocated by one command
+ * @param cpuNanos          CPU time in total
+ */
+public record ResourceSnapshot(long count, long allocatedBytes, long maxAllocatedBytes, long cpuNanos) {
+    /**
+     * Formats snapshot with means per command.
+     *
+     * @return Text
+     */
+    public String format() {
+        double commands = Math.max(count, 1);
+        return String.format(Locale.ROOT, "count=%d, allocated mean=%.0fB, allocated max=%dB, cpu mean=%.1fus",
+            count, allocatedBytes / commands, maxAllocatedBytes, cpuNanos / commands / 1e3);
+    }
+}
@@ -0,0 +1,242 @@
+package hse.bank.stats;
+
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.records.MiscData;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Commands which took longer than a threshold, with a sample of the others as a baseline.
+ *
+ * <p>Slow commands and sampled fast commands are kept in two separate rings of the last {@link #CAPACITY} entries,
+ * so a burst of samples never evicts a slow command. Slow commands are also logged, at most
+ * {@code logsPerSecond} times a second; the number of suppressed lines is reported with the next one. Fast commands
+ * cost one comparison, plus one random number while sampling is on.
+ */
+@Log4j2
+public final class SlowCommandLog {
+    /**
+     * Entries kept per ring.
+     */
+    public static final int CAPACITY = 256;
+
+    /**
+     * Last slow commands.
+     */
+    private final Ring slowCommands = new Ring(CAPACITY);
+    /**
+     * Last sampled fast commands.
+     */
+    private final Ring sampledCommands = new Ring(CAPACITY);
+    /**
+     * Number of slow commands seen.
+     */
+    private final LongAdder slowCount = new LongAdder();
+    /**
+     * Number of fast commands sampled.
+     */
+    private final LongAdder sampledCount = new LongAdder();
+    /**
+     * Slow commands not logged because of the rate limit since the last logged one.
+     */
+    private final LongAdder suppressed = new LongAdder();
+    /**
+     * Second of the current rate limit window.
+     */
+    private final AtomicLong logWindow = new AtomicLong(Long.MIN_VALUE);
+    /**
+     * Lines logged in the current window.
+     */
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+    /**
+     * Duration from which a command is slow, {@link Long#MAX_VALUE} if disabled.
+     */
+    private volatile long thresholdNanos = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Fraction of fast commands sampled.
+     */
+    private volatile double sampleRate = 0.01;
+    /**
+     * Most slow commands logged per second.
+     */
+    private volatile int logsPerSecond = 10;
+
+    /**
+     * Sets duration from which a command is slow.
+     *
+     * @param millis Threshold in milliseconds, negative to disable
+     */
+    public void setThresholdMillis(long millis) {
+        thresholdNanos = millis < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Sets share of fast commands which are sampled.
+     *
+     * @param percent Percentage from 0 to 100
+     * @throws IllegalStateException If the percentage is out of range
+     */
+    public void setSamplePercent(double percent) {
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new IllegalStateException("Sample percentage must be between 0 and 100, got " + percent);
+        }
+        sampleRate = percent / 100;
+    }
+
+    /**
+     * Sets most slow commands logged per second.
+     *
+     * @param limit Lines per second, 0 to only keep them in the ring
+     * @throws IllegalStateException If the limit is negative
+     */
+    public void setLogsPerSecond(int limit) {
+        if (limit < 0) {
+            throw new IllegalStateException("Log rate must not be negative, got " + limit);
+        }
+        logsPerSecond = limit;
+    }
+
+    /**
+     * Records finished command if it was slow or is sampled.
+     *
+     * @param command    Simple name of the command class
+     * @param type       Command type
+     * @param domainType Domain object type
+     * @param miscData   Misc data of the command, may be null
+     * @param nanos      Duration
+     */
+    public void record(String command, CmdType type, DomainObjectType domainType, MiscData miscData, long nanos) {
+        boolean slow = nanos >= thresholdNanos;
+        if (!slow) {
+            double rate = sampleRate;
+            if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) {
+                return;
+            }
+        }
+        CommandSample sample = miscData == null
+            ? new CommandSample(Instant.now(), command, type, domainType, 0, "", null, nanos, slow)
+            : new CommandSample(Instant.now(), command, type, domainType, miscData.id(), miscData.filePath(),
+                miscData.format(), nanos, slow);
+        if (slow) {
+            slowCommands.add(sample);
+            slowCount.increment();
+            logSlow(sample);
+        } else {
+            sampledCommands.add(sample);
+            sampledCount.increment();
+        }
+    }
+
+    /**
+     * Gets last slow commands.
+     *
+     * @return Commands, oldest first
+     */
+    public List<CommandSample> recentSlow() {
+        return slowCommands.recent();
+    }
+
+    /**
+     * Gets last sampled fast commands.
+     *
+     * @return Commands, oldest first
+     */
+    public List<CommandSample> recentSampled() {
+        return sampledCommands.recent();
+    }
+
+    /**
+     * Gets number of slow commands seen, including ones no longer in the ring.
+     *
+     * @return Count
+     */
+    public long slowCount() {
+        return slowCount.sum();
+    }
+
+    /**
+     * Gets number of fast commands sampled, including ones no longer in the ring.
+     *
+     * @return Count
+     */
+    public long sampledCount() {
+        return sampledCount.sum();
+    }
+
+    /**
+     * Logs slow command unless the rate limit of the current second is used up.
+     *
+     * @param sample Slow command
+     */
+    private void logSlow(CommandSample sample) {
+        long second = System.nanoTime() / TimeUnit.SECONDS.toNanos(1);
+        long window = logWindow.get();
+        if (window != second && logWindow.compareAndSet(window, second)) {
+            loggedInWindow.set(0);
+        }
+        if (loggedInWindow.incrementAndGet() > logsPerSecond) {
+            suppressed.increment();
+            return;
+        }
+        long skipped = suppressed.sumThenReset();
+        if (skipped > 0) {
+            log.warn("Slow command: {} ({} more suppressed)", sample.format(), skipped);
+        } else {
+            log.warn("Slow command: {}", sample.format());
+        }
+    }
+
+    /**
+     * Fixed ring of the last added samples, concurrent writers may overwrite each other's slot only after it wrapped.
+     */
+    private static final class Ring {
+        /**
+         * Slots.
+         */
+        private final AtomicReferenceArray<CommandSample> slots;
+        /**
+         * Number of samples added so far, the next one goes to this index modulo the capacity.
+         */
+        private final AtomicLong written = new AtomicLong();
+
+        Ring(int capacity) {
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        /**
+         * Adds sample, overwriting the oldest one when full.
+         *
+         * @param sample Sample
+         */
+        void add(CommandSample sample) {
+            slots.set((int) (written.getAndIncrement() % slots.length()), sample);
+        }
+
+        /**
+         * Copies samples.
+         *
+         * @return Samples ordered by time
+         */
+        List<CommandSample> recent() {
+            List<CommandSample> samples = new ArrayList<>(slots.length());
+            for (int i = 0; i < slots.length(); i++) {
+                CommandSample sample = slots.get(i);
+                if (sample != null) {
+                    samples.add(sample);
+                }
+            }
+            samples.sort(Comparator.comparing(CommandSample::finishedAt));
+            return samples;
+        }
+    }
+}
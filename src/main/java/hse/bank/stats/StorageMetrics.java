@@ -0,0 +1,32 @@
+package hse.bank.stats;
+
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges of storage sizes, storages are static so nothing else owns their metrics.
+ */
+@Component
+public class StorageMetrics {
+    /**
+     * Registry.
+     */
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    /**
+     * Registers gauges.
+     */
+    @PostConstruct
+    public void register() {
+        String help = "Objects kept by storages";
+        metricsRegistry.gauge("bank_storage_objects", help, AccountStorage::size, "storage", "accounts");
+        metricsRegistry.gauge("bank_storage_objects", help, () -> CategoryStorage.getCategories().size(),
+            "storage", "categories");
+        metricsRegistry.gauge("bank_storage_objects", help, OperationStorage::size, "storage", "operations");
+    }
+}
@@ -0,0 +1,82 @@
+package hse.bank.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped locks guarding balances of accounts.
+ *
+ * <p>Every account maps to one of a fixed number of locks, so commands on different accounts mostly proceed in
+ * parallel while commands on the same account are serialized. Commands touching two accounts take both stripes in
+ * ascending order, so they never deadlock with each other.
+ */
+public final class AccountLocks {
+    /**
+     * Number of stripes, must be a power of two.
+     */
+    private static final int STRIPES = 64;
+    /**
+     * Locks.
+     */
+    private static final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private AccountLocks() {
+    }
+
+    /**
+     * Gets lock guarding the account.
+     *
+     * @param accountId Account id
+     * @return Lock
+     */
+    public static ReentrantLock lockFor(int accountId) {
+        return locks[stripe(accountId)];
+    }
+
+    /**
+     * Runs action holding locks of both accounts.
+     *
+     * @param firstAccountId  First account id
+     * @param secondAccountId Second account id
+     * @param action          Action
+     * @param <T>             Type of result
+     * @return Result of the action
+     */
+    public static <T> T withLocks(int firstAccountId, int secondAccountId, Supplier<T> action) {
+        int first = stripe(firstAccountId);
+        int second = stripe(secondAccountId);
+        ReentrantLock outer = locks[Math.min(first, second)];
+        ReentrantLock inner = locks[Math.max(first, second)];
+        outer.lock();
+        try {
+            if (inner == outer) {
+                return action.get();
+            }
+            inner.lock();
+            try {
+                return action.get();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    /**
+     * Gets stripe of the account.
+     *
+     * @param accountId Account id
+     * @return Stripe
+     */
+    static int stripe(int accountId) {
+        int h = accountId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
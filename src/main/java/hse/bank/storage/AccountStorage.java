@@ -2,25 +2,30 @@ package hse.bank.storage;
 
 import hse.bank.domains.BankAccount;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.List;
-import lombok.Getter;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 import org.springframework.stereotype.Component;
 
 /**
  * Account storage class.
+ *
+ * <p>Writers take the write lock and readers share the read lock. Lookups are not read optimistically, as a probe
+ * of the index racing with a resize may see a table which is not filled yet and never find a free slot.
  */
 @RequiredArgsConstructor
 @Component
 public class AccountStorage implements Serializable {
     /**
-     * List of accounts.
+     * Accounts indexed by id, kept in insertion order.
      */
-    @Getter
-    @Setter
-    private static List<BankAccount> accounts = new ArrayList<>();
+    private static final IntHashIndex<BankAccount> accounts = new IntHashIndex<>();
+    /**
+     * Lock guarding the index.
+     */
+    private static final StampedLock lock = new StampedLock();
 
     /**
      * Adds user.
@@ -28,7 +33,12 @@ public class AccountStorage implements Serializable {
      * @param account Bank account to add.
      */
     public static void addUser(BankAccount account) {
-        accounts.add(account);
+        long stamp = lock.writeLock();
+        try {
+            accounts.put(account.getId(), account);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     /**
@@ -38,16 +48,84 @@ public class AccountStorage implements Serializable {
      * @return Returns user.
      */
     public static BankAccount getUserById(int id) {
-        return accounts.stream().filter(account -> account.getId() == id).findFirst().orElse(null);
+        long stamp = lock.readLock();
+        try {
+            return accounts.get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
-     * Delete user by id.
+     * Delete user by id, holding the lock of the account, so operations on it either finish before or fail.
      *
      * @param id Id to delete user.
      */
     public static void deleteUserById(int id) {
-        accounts.removeIf(account -> account.getId() == id);
+        ReentrantLock balanceLock = AccountLocks.lockFor(id);
+        balanceLock.lock();
+        try {
+            long stamp = lock.writeLock();
+            try {
+                accounts.remove(id);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } finally {
+            balanceLock.unlock();
+        }
+    }
+
+    /**
+     * Get all accounts.
+     *
+     * @return Copy of accounts in insertion order.
+     */
+    public static List<BankAccount> getAccounts() {
+        long stamp = lock.readLock();
+        try {
+            return accounts.values();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Replaces all accounts.
+     *
+     * @param newAccounts Accounts to store.
+     */
+    public static void setAccounts(List<BankAccount> newAccounts) {
+        long stamp = lock.writeLock();
+        try {
+            accounts.clear();
+            newAccounts.forEach(account -> accounts.put(account.getId(), account));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Streams accounts in insertion order.
+     *
+     * @return Stream over a copy of accounts.
+     */
+    public static Stream<BankAccount> walk() {
+        return getAccounts().stream();
+    }
+
+    /**
+     * Number of accounts.
+     *
+     * @return Size.
+     */
+    public static int size() {
+        long stamp = lock.readLock();
+        try {
+            return accounts.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
 }
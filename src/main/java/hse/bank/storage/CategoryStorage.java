@@ -2,17 +2,22 @@ package hse.bank.storage;
 
 import hse.bank.domains.Category;
 import lombok.Getter;
-import lombok.Setter;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Category storage class, categories change rarely so reads go over a copy-on-write list without locking.
+ */
 @Component
 public class CategoryStorage {
     @Getter
-    @Setter
-    private static List<Category> categories = new ArrayList<>();
+    private static volatile List<Category> categories = new CopyOnWriteArrayList<>();
+
+    public static void setCategories(List<Category> newCategories) {
+        categories = new CopyOnWriteArrayList<>(newCategories);
+    }
 
     public static void addCategory(Category category) {
         categories.add(category);
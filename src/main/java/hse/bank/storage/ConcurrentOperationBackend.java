@@ -0,0 +1,195 @@
+package hse.bank.storage;
+
+import hse.bank.domains.Operation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Backend keeping operation objects on the heap in concurrent maps, so operations of different accounts are added
+ * and deleted in parallel while queries run.
+ *
+ * <p>Changes of one id are serialized by the map of ids and changes of one account by the map of accounts. Each
+ * index is updated atomically, but not all of them at once: a query running next to a change may see the operation
+ * in one index and not yet in another.
+ */
+public class ConcurrentOperationBackend implements OperationBackend {
+    /**
+     * Source of insertion order.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+    /**
+     * Operations with their insertion order, indexed by id.
+     */
+    private final ConcurrentMap<Integer, Entry> operations = new ConcurrentHashMap<>();
+    /**
+     * Operations in insertion order.
+     */
+    private final NavigableMap<Long, Operation> operationsBySequence = new ConcurrentSkipListMap<>();
+    /**
+     * Operations ordered by date.
+     */
+    private final NavigableMap<TimeKey, Operation> operationsByTime = new ConcurrentSkipListMap<>();
+    /**
+     * Operations of every account ordered by date, indexed by account id.
+     */
+    private final ConcurrentMap<Integer, NavigableMap<TimeKey, Operation>> operationsByAccount =
+        new ConcurrentHashMap<>();
+
+    @Override
+    public void add(Operation op) {
+        operations.compute(op.getId(), (id, previous) -> {
+            long position;
+            if (previous == null) {
+                position = sequence.getAndIncrement();
+            } else {
+                position = previous.sequence();
+                unlink(previous.operation());
+            }
+            operationsBySequence.put(position, op);
+            TimeKey key = TimeKey.of(op);
+            operationsByTime.put(key, op);
+            operationsByAccount.compute(op.getAccount().getId(), (accountId, accountOperations) -> {
+                NavigableMap<TimeKey, Operation> result = accountOperations == null
+                    ? new ConcurrentSkipListMap<>()
+                    : accountOperations;
+                result.put(key, op);
+                return result;
+            });
+            return new Entry(position, op);
+        });
+    }
+
+    @Override
+    public Operation get(int id) {
+        Entry entry = operations.get(id);
+        return entry == null ? null : entry.operation();
+    }
+
+    @Override
+    public void delete(int id) {
+        operations.computeIfPresent(id, (key, entry) -> {
+            operationsBySequence.remove(entry.sequence());
+            unlink(entry.operation());
+            return null;
+        });
+    }
+
+    @Override
+    public List<Operation> byAccount(int accountId) {
+        NavigableMap<TimeKey, Operation> accountOperations = operationsByAccount.get(accountId);
+        return accountOperations == null ? new ArrayList<>() : new ArrayList<>(accountOperations.values());
+    }
+
+    @Override
+    public List<Operation> between(LocalDateTime from, LocalDateTime to) {
+        return range(operationsByTime, from, to);
+    }
+
+    @Override
+    public List<Operation> between(int accountId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<TimeKey, Operation> accountOperations = operationsByAccount.get(accountId);
+        return accountOperations == null ? new ArrayList<>() : range(accountOperations, from, to);
+    }
+
+    @Override
+    public Stream<Operation> stream() {
+        return operationsBySequence.values().stream();
+    }
+
+    @Override
+    public int size() {
+        return operations.size();
+    }
+
+    @Override
+    public int[] ids() {
+        return operationsBySequence.values().stream().mapToInt(Operation::getId).toArray();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        operations.clear();
+        operationsBySequence.clear();
+        operationsByTime.clear();
+        operationsByAccount.clear();
+    }
+
+    /**
+     * Removes operation from the date indexes.
+     *
+     * @param op Operation.
+     */
+    private void unlink(Operation op) {
+        TimeKey key = TimeKey.of(op);
+        operationsByTime.remove(key);
+        operationsByAccount.computeIfPresent(op.getAccount().getId(), (accountId, accountOperations) -> {
+            accountOperations.remove(key);
+            return accountOperations.isEmpty() ? null : accountOperations;
+        });
+    }
+
+    /**
+     * Copies operations of the time range.
+     *
+     * @param index Index ordered by date.
+     * @param from  Start of the range, inclusive.
+     * @param to    End of the range, exclusive.
+     * @return Copy of operations.
+     */
+    private static List<Operation> range(NavigableMap<TimeKey, Operation> index, LocalDateTime from,
+                                         LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(index.subMap(TimeKey.lowest(from), true, TimeKey.lowest(to), false).values());
+    }
+
+    /**
+     * Operation with its position in insertion order.
+     *
+     * @param sequence  Position in insertion order.
+     * @param operation Operation.
+     */
+    private record Entry(long sequence, Operation operation) {
+    }
+
+    /**
+     * Key of the date indexes, operations of the same moment are ordered by id.
+     *
+     * @param date Date of operation.
+     * @param id   Id of operation.
+     */
+    private record TimeKey(LocalDateTime date, int id) implements Comparable<TimeKey> {
+        /**
+         * Key of operation.
+         */
+        static TimeKey of(Operation op) {
+            return new TimeKey(op.getDate(), op.getId());
+        }
+
+        /**
+         * Key preceding every operation of the moment.
+         */
+        static TimeKey lowest(LocalDateTime date) {
+            return new TimeKey(date, Integer.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : Integer.compare(id, other.id);
+        }
+    }
+}
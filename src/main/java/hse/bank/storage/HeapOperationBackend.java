@@ -0,0 +1,160 @@
+package hse.bank.storage;
+
+import hse.bank.domains.Operation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Default backend keeping operation objects on the heap.
+ */
+public class HeapOperationBackend implements OperationBackend {
+    /**
+     * Operations indexed by id, kept in insertion order.
+     */
+    private final IntHashIndex<Operation> operations = new IntHashIndex<>();
+    /**
+     * Operations ordered by date.
+     */
+    private final NavigableMap<TimeKey, Operation> operationsByTime = new TreeMap<>();
+    /**
+     * Operations of every account ordered by date, indexed by account id.
+     */
+    private final IntHashIndex<NavigableMap<TimeKey, Operation>> operationsByAccount = new IntHashIndex<>();
+
+    @Override
+    public void add(Operation op) {
+        Operation previous = operations.get(op.getId());
+        if (previous != null) {
+            unlink(previous);
+        }
+        operations.put(op.getId(), op);
+        TimeKey key = TimeKey.of(op);
+        operationsByTime.put(key, op);
+        int accountId = op.getAccount().getId();
+        NavigableMap<TimeKey, Operation> accountOperations = operationsByAccount.get(accountId);
+        if (accountOperations == null) {
+            accountOperations = new TreeMap<>();
+            operationsByAccount.put(accountId, accountOperations);
+        }
+        accountOperations.put(key, op);
+    }
+
+    @Override
+    public Operation get(int id) {
+        return operations.get(id);
+    }
+
+    @Override
+    public void delete(int id) {
+        Operation removed = operations.remove(id);
+        if (removed != null) {
+            unlink(removed);
+        }
+    }
+
+    @Override
+    public List<Operation> byAccount(int accountId) {
+        NavigableMap<TimeKey, Operation> accountOperations = operationsByAccount.get(accountId);
+        return accountOperations == null ? new ArrayList<>() : new ArrayList<>(accountOperations.values());
+    }
+
+    @Override
+    public List<Operation> between(LocalDateTime from, LocalDateTime to) {
+        return range(operationsByTime, from, to);
+    }
+
+    @Override
+    public List<Operation> between(int accountId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<TimeKey, Operation> accountOperations = operationsByAccount.get(accountId);
+        return accountOperations == null ? new ArrayList<>() : range(accountOperations, from, to);
+    }
+
+    @Override
+    public Stream<Operation> stream() {
+        return operations.stream();
+    }
+
+    @Override
+    public int size() {
+        return operations.size();
+    }
+
+    @Override
+    public int[] ids() {
+        return operations.keys();
+    }
+
+    @Override
+    public void clear() {
+        operations.clear();
+        operationsByTime.clear();
+        operationsByAccount.clear();
+    }
+
+    /**
+     * Removes operation from the secondary indexes.
+     *
+     * @param op Operation.
+     */
+    private void unlink(Operation op) {
+        TimeKey key = TimeKey.of(op);
+        operationsByTime.remove(key);
+        int accountId = op.getAccount().getId();
+        NavigableMap<TimeKey, Operation> accountOperations = operationsByAccount.get(accountId);
+        if (accountOperations == null) {
+            return;
+        }
+        accountOperations.remove(key);
+        if (accountOperations.isEmpty()) {
+            operationsByAccount.remove(accountId);
+        }
+    }
+
+    /**
+     * Copies operations of the time range.
+     *
+     * @param index Index ordered by date.
+     * @param from  Start of the range, inclusive.
+     * @param to    End of the range, exclusive.
+     * @return Copy of operations.
+     */
+    private static List<Operation> range(NavigableMap<TimeKey, Operation> index, LocalDateTime from,
+                                         LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(index.subMap(TimeKey.lowest(from), true, TimeKey.lowest(to), false).values());
+    }
+
+    /**
+     * Key of the time index, operations of the same moment are ordered by id.
+     *
+     * @param date Date of operation.
+     * @param id   Id of operation.
+     */
+    private record TimeKey(LocalDateTime date, int id) implements Comparable<TimeKey> {
+        /**
+         * Key of operation.
+         */
+        static TimeKey of(Operation op) {
+            return new TimeKey(op.getDate(), op.getId());
+        }
+
+        /**
+         * Key preceding every operation of the moment.
+         */
+        static TimeKey lowest(LocalDateTime date) {
+            return new TimeKey(date, Integer.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(TimeKey other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : Integer.compare(id, other.id);
+        }
+    }
+}
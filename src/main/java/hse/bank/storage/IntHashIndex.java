@@ -0,0 +1,269 @@
+package hse.bank.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Insertion-ordered hash index with primitive int keys.
+ *
+ * <p>Keys are kept in an open-addressing table of {@code int}s which points into a dense array of values,
+ * so lookups never box the key and iteration follows insertion order.
+ *
+ * @param <V> Type of value
+ */
+public class IntHashIndex<V> {
+    /**
+     * Marker of a table slot that was never used.
+     */
+    private static final int FREE = -1;
+    /**
+     * Marker of a table slot whose key was removed.
+     */
+    private static final int REMOVED = -2;
+    /**
+     * Initial table capacity, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Keys of the hash table.
+     */
+    private int[] tableKeys;
+    /**
+     * Positions of the values for every table slot, or one of the markers.
+     */
+    private int[] tablePositions;
+    /**
+     * Number of table slots which are not free.
+     */
+    private int usedSlots;
+    /**
+     * Values in insertion order, removed ones are nulled.
+     */
+    private Object[] values;
+    /**
+     * Key of every value.
+     */
+    private int[] valueKeys;
+    /**
+     * Next free position in values.
+     */
+    private int end;
+    /**
+     * Number of stored values.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    public IntHashIndex() {
+        clear();
+    }
+
+    /**
+     * Puts value by key, replacing the previous one.
+     *
+     * @param key   Key
+     * @param value Value, not null
+     */
+    public void put(int key, V value) {
+        Objects.requireNonNull(value);
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[tablePositions[slot]] = value;
+            return;
+        }
+        if (end == values.length) {
+            if (size < end / 2) {
+                compact();
+            } else {
+                values = Arrays.copyOf(values, values.length * 2);
+                valueKeys = Arrays.copyOf(valueKeys, valueKeys.length * 2);
+            }
+        }
+        if ((usedSlots + 1) * 2 > tableKeys.length) {
+            rehash(size + 1 > tableKeys.length / 4 ? tableKeys.length * 2 : tableKeys.length);
+        }
+        values[end] = value;
+        valueKeys[end] = key;
+        insert(key, end);
+        end++;
+        size++;
+    }
+
+    /**
+     * Gets value by key.
+     *
+     * @param key Key
+     * @return Value or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[tablePositions[slot]];
+    }
+
+    /**
+     * Removes value by key.
+     *
+     * @param key Key
+     * @return Removed value or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        int position = tablePositions[slot];
+        V value = (V) values[position];
+        values[position] = null;
+        tablePositions[slot] = REMOVED;
+        size--;
+        return value;
+    }
+
+    /**
+     * Number of stored values.
+     *
+     * @return Size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        tableKeys = new int[INITIAL_CAPACITY];
+        tablePositions = new int[INITIAL_CAPACITY];
+        Arrays.fill(tablePositions, FREE);
+        usedSlots = 0;
+        values = new Object[INITIAL_CAPACITY / 2];
+        valueKeys = new int[INITIAL_CAPACITY / 2];
+        end = 0;
+        size = 0;
+    }
+
+    /**
+     * Streams values in insertion order.
+     *
+     * @return Stream of values
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<V> stream() {
+        return Arrays.stream(values, 0, end).filter(Objects::nonNull).map(value -> (V) value);
+    }
+
+    /**
+     * Copies keys in insertion order.
+     *
+     * @return Array of keys
+     */
+    public int[] keys() {
+        int[] keys = new int[size];
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                keys[count++] = valueKeys[i];
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Copies values in insertion order.
+     *
+     * @return List of values
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        stream().forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Finds table slot holding the key.
+     *
+     * @param key Key
+     * @return Slot or -1 if there is no such key
+     */
+    private int findSlot(int key) {
+        int mask = tableKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (tablePositions[slot] != FREE) {
+            if (tablePositions[slot] >= 0 && tableKeys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts key which is known to be absent.
+     *
+     * @param key      Key
+     * @param position Position of the value
+     */
+    private void insert(int key, int position) {
+        int mask = tableKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (tablePositions[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        tableKeys[slot] = key;
+        tablePositions[slot] = position;
+        usedSlots++;
+    }
+
+    /**
+     * Rebuilds table dropping removed slots.
+     *
+     * @param capacity New table capacity
+     */
+    private void rehash(int capacity) {
+        tableKeys = new int[capacity];
+        tablePositions = new int[capacity];
+        Arrays.fill(tablePositions, FREE);
+        usedSlots = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                insert(valueKeys[i], i);
+            }
+        }
+    }
+
+    /**
+     * Moves values to the beginning of the array dropping removed ones.
+     */
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                values[target] = values[i];
+                valueKeys[target] = valueKeys[i];
+                target++;
+            }
+        }
+        Arrays.fill(values, target, end, null);
+        end = target;
+        rehash(tableKeys.length);
+    }
+
+    /**
+     * Spreads key bits over the table.
+     *
+     * @param key Key
+     * @return Hash
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
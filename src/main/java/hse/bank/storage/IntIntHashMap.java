@@ -0,0 +1,187 @@
+package hse.bank.storage;
+
+/**
+ * Open-addressing hash map from int to int without boxing.
+ */
+public class IntIntHashMap {
+    /**
+     * Value returned for absent keys.
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+    /**
+     * Marker of a slot that was never used.
+     */
+    private static final byte FREE = 0;
+    /**
+     * Marker of a used slot.
+     */
+    private static final byte USED = 1;
+    /**
+     * Marker of a slot whose key was removed.
+     */
+    private static final byte REMOVED = 2;
+    /**
+     * Initial capacity, must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Keys.
+     */
+    private int[] keys;
+    /**
+     * Values.
+     */
+    private int[] values;
+    /**
+     * State of every slot.
+     */
+    private byte[] states;
+    /**
+     * Number of stored keys.
+     */
+    private int size;
+    /**
+     * Number of slots which are not free.
+     */
+    private int usedSlots;
+
+    /**
+     * Constructor.
+     */
+    public IntIntHashMap() {
+        clear();
+    }
+
+    /**
+     * Puts value by key.
+     *
+     * @param key   Key
+     * @param value Value
+     */
+    public void put(int key, int value) {
+        int slot = findSlot(key);
+        if (slot >= 0) {
+            values[slot] = value;
+            return;
+        }
+        if ((usedSlots + 1) * 2 > keys.length) {
+            rehash(size + 1 > keys.length / 4 ? keys.length * 2 : keys.length);
+        }
+        int mask = keys.length - 1;
+        slot = hash(key) & mask;
+        while (states[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        states[slot] = USED;
+        usedSlots++;
+        size++;
+    }
+
+    /**
+     * Gets value by key.
+     *
+     * @param key Key
+     * @return Value or {@link #NO_VALUE}
+     */
+    public int get(int key) {
+        int slot = findSlot(key);
+        return slot < 0 ? NO_VALUE : values[slot];
+    }
+
+    /**
+     * Removes key.
+     *
+     * @param key Key
+     * @return Removed value or {@link #NO_VALUE}
+     */
+    public int remove(int key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return NO_VALUE;
+        }
+        states[slot] = REMOVED;
+        size--;
+        return values[slot];
+    }
+
+    /**
+     * Number of stored keys.
+     *
+     * @return Size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all keys.
+     */
+    public void clear() {
+        keys = new int[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        states = new byte[INITIAL_CAPACITY];
+        size = 0;
+        usedSlots = 0;
+    }
+
+    /**
+     * Finds slot holding the key.
+     *
+     * @param key Key
+     * @return Slot or -1
+     */
+    private int findSlot(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (states[slot] != FREE) {
+            if (states[slot] == USED && keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Rebuilds table dropping removed slots.
+     *
+     * @param capacity New capacity
+     */
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        byte[] oldStates = states;
+        keys = new int[capacity];
+        values = new int[capacity];
+        states = new byte[capacity];
+        usedSlots = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStates[i] != USED) {
+                continue;
+            }
+            int slot = hash(oldKeys[i]) & mask;
+            while (states[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            states[slot] = USED;
+            usedSlots++;
+        }
+    }
+
+    /**
+     * Spreads key bits over the table.
+     *
+     * @param key Key
+     * @return Hash
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,316 @@
+package hse.bank.storage;
+
+import hse.bank.domains.Operation;
+import hse.bank.factories.OperationFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Backend keeping operations as fixed-width records in a memory-mapped file.
+ *
+ * <p>Records live outside the heap and survive restarts: opening an existing file maps it and rebuilds the
+ * in-memory indexes by a single scan. Descriptions are appended to a companion {@code .desc} file and the records
+ * keep their offsets. Records of deleted operations are compacted, their descriptions are not.
+ *
+ * <p>Opening a file moves the operation id counter past the stored ids, so new operations never overwrite them.
+ * Accounts and categories are not kept in the file, they are restored from the journal, which is why the backend
+ * is only installed together with it.
+ */
+public class MappedOperationBackend extends RowOperationBackend implements AutoCloseable {
+    /**
+     * File signature.
+     */
+    private static final int MAGIC = 0x42414E4B;
+    /**
+     * File format version.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size of the file header.
+     */
+    private static final long HEADER_SIZE = 64;
+    /**
+     * Size of one record.
+     */
+    private static final long RECORD_SIZE = 48;
+    /**
+     * Initial number of records the file is mapped for.
+     */
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private static final long MAGIC_OFFSET = 0;
+    private static final long VERSION_OFFSET = 4;
+    private static final long ROWS_OFFSET = 8;
+    private static final long DESCRIPTIONS_END_OFFSET = 16;
+
+    private static final long ID_OFFSET = 0;
+    private static final long ACCOUNT_ID_OFFSET = 4;
+    private static final long CATEGORY_ID_OFFSET = 8;
+    private static final long FLAGS_OFFSET = 12;
+    private static final long EPOCH_SECOND_OFFSET = 16;
+    private static final long NANO_OFFSET = 24;
+    private static final long DESCRIPTION_LENGTH_OFFSET = 28;
+    private static final long AMOUNT_OFFSET = 32;
+    private static final long DESCRIPTION_OFFSET = 40;
+
+    /**
+     * Flag of income operation.
+     */
+    private static final int TYPE_FLAG = 1;
+    /**
+     * Flag of deleted record.
+     */
+    private static final int DELETED_FLAG = 2;
+    /**
+     * Flag of record having description.
+     */
+    private static final int DESCRIPTION_FLAG = 4;
+
+    /**
+     * Channel of records file.
+     */
+    private final FileChannel channel;
+    /**
+     * Channel of descriptions file.
+     */
+    private final FileChannel descriptionChannel;
+    /**
+     * Arena owning the current mapping.
+     */
+    private Arena arena;
+    /**
+     * Mapped records file.
+     */
+    private MemorySegment segment;
+    /**
+     * Number of records the current mapping has room for.
+     */
+    private int capacity;
+
+    /**
+     * Opens or creates operation file.
+     *
+     * @param path Path of records file, descriptions are kept next to it
+     * @throws IOException If file cannot be opened or has wrong format
+     */
+    public MappedOperationBackend(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        descriptionChannel = FileChannel.open(
+            path.resolveSibling(path.getFileName() + ".desc"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        boolean created = channel.size() == 0;
+        long existingRecords = created ? 0 : (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        map((int) Math.max(INITIAL_CAPACITY, existingRecords));
+        if (created) {
+            segment.set(ValueLayout.JAVA_INT, MAGIC_OFFSET, MAGIC);
+            segment.set(ValueLayout.JAVA_INT, VERSION_OFFSET, VERSION);
+            segment.set(ValueLayout.JAVA_LONG, ROWS_OFFSET, 0);
+            segment.set(ValueLayout.JAVA_LONG, DESCRIPTIONS_END_OFFSET, 0);
+        } else if (segment.get(ValueLayout.JAVA_INT, MAGIC_OFFSET) != MAGIC
+            || segment.get(ValueLayout.JAVA_INT, VERSION_OFFSET) != VERSION) {
+            close();
+            throw new IOException("Not an operation file: " + path);
+        }
+        indexExistingRows((int) segment.get(ValueLayout.JAVA_LONG, ROWS_OFFSET));
+        Arrays.stream(ids()).max().ifPresent(OperationFactory::bumpLastId);
+    }
+
+    /**
+     * Flushes mapped records and descriptions to the disk.
+     */
+    public void sync() {
+        segment.force();
+        try {
+            descriptionChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        arena.close();
+        channel.close();
+        descriptionChannel.close();
+    }
+
+    @Override
+    protected void ensureRowCapacity(int required) {
+        if (required > capacity) {
+            map(Math.max(required, capacity * 2));
+        }
+    }
+
+    @Override
+    protected void writeRow(int row, Operation op) {
+        long base = offset(row);
+        int flags = op.isType() ? TYPE_FLAG : 0;
+        long descriptionOffset = 0;
+        int descriptionLength = 0;
+        if (op.getDescription().isPresent()) {
+            byte[] bytes = op.getDescription().get().getBytes(StandardCharsets.UTF_8);
+            descriptionOffset = appendDescription(bytes);
+            descriptionLength = bytes.length;
+            flags |= DESCRIPTION_FLAG;
+        }
+        segment.set(ValueLayout.JAVA_INT, base + ID_OFFSET, op.getId());
+        segment.set(ValueLayout.JAVA_INT, base + ACCOUNT_ID_OFFSET, op.getAccount().getId());
+        segment.set(ValueLayout.JAVA_INT, base + CATEGORY_ID_OFFSET, op.getCategory().getId());
+        segment.set(ValueLayout.JAVA_INT, base + FLAGS_OFFSET, flags);
+        segment.set(ValueLayout.JAVA_LONG, base + EPOCH_SECOND_OFFSET, op.getDate().toEpochSecond(ZoneOffset.UTC));
+        segment.set(ValueLayout.JAVA_INT, base + NANO_OFFSET, op.getDate().getNano());
+        segment.set(ValueLayout.JAVA_INT, base + DESCRIPTION_LENGTH_OFFSET, descriptionLength);
+        segment.set(ValueLayout.JAVA_DOUBLE, base + AMOUNT_OFFSET, op.getAmount());
+        segment.set(ValueLayout.JAVA_LONG, base + DESCRIPTION_OFFSET, descriptionOffset);
+        if (row >= segment.get(ValueLayout.JAVA_LONG, ROWS_OFFSET)) {
+            segment.set(ValueLayout.JAVA_LONG, ROWS_OFFSET, row + 1);
+        }
+    }
+
+    @Override
+    protected void copyRow(int from, int to) {
+        MemorySegment.copy(segment, offset(from), segment, offset(to), RECORD_SIZE);
+    }
+
+    @Override
+    protected void markDeleted(int row) {
+        long flagsOffset = offset(row) + FLAGS_OFFSET;
+        segment.set(ValueLayout.JAVA_INT, flagsOffset, segment.get(ValueLayout.JAVA_INT, flagsOffset) | DELETED_FLAG);
+    }
+
+    @Override
+    protected void truncateRows(int newRows) {
+        segment.set(ValueLayout.JAVA_LONG, ROWS_OFFSET, newRows);
+        if (newRows == 0) {
+            segment.set(ValueLayout.JAVA_LONG, DESCRIPTIONS_END_OFFSET, 0);
+            try {
+                descriptionChannel.truncate(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    protected boolean isDeleted(int row) {
+        return (segment.get(ValueLayout.JAVA_INT, offset(row) + FLAGS_OFFSET) & DELETED_FLAG) != 0;
+    }
+
+    @Override
+    protected int idAt(int row) {
+        return segment.get(ValueLayout.JAVA_INT, offset(row) + ID_OFFSET);
+    }
+
+    @Override
+    protected int accountIdAt(int row) {
+        return segment.get(ValueLayout.JAVA_INT, offset(row) + ACCOUNT_ID_OFFSET);
+    }
+
+    @Override
+    protected int categoryIdAt(int row) {
+        return segment.get(ValueLayout.JAVA_INT, offset(row) + CATEGORY_ID_OFFSET);
+    }
+
+    @Override
+    protected long epochSecondAt(int row) {
+        return segment.get(ValueLayout.JAVA_LONG, offset(row) + EPOCH_SECOND_OFFSET);
+    }
+
+    @Override
+    protected int nanoAt(int row) {
+        return segment.get(ValueLayout.JAVA_INT, offset(row) + NANO_OFFSET);
+    }
+
+    @Override
+    protected double amountAt(int row) {
+        return segment.get(ValueLayout.JAVA_DOUBLE, offset(row) + AMOUNT_OFFSET);
+    }
+
+    @Override
+    protected boolean typeAt(int row) {
+        return (segment.get(ValueLayout.JAVA_INT, offset(row) + FLAGS_OFFSET) & TYPE_FLAG) != 0;
+    }
+
+    @Override
+    protected Optional<String> descriptionAt(int row) {
+        long base = offset(row);
+        if ((segment.get(ValueLayout.JAVA_INT, base + FLAGS_OFFSET) & DESCRIPTION_FLAG) == 0) {
+            return Optional.empty();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(segment.get(ValueLayout.JAVA_INT, base + DESCRIPTION_LENGTH_OFFSET));
+        long position = segment.get(ValueLayout.JAVA_LONG, base + DESCRIPTION_OFFSET);
+        try {
+            while (buffer.hasRemaining()) {
+                if (descriptionChannel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Description file is truncated");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Optional.of(new String(buffer.array(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Appends description to the descriptions file.
+     *
+     * @param bytes Encoded description
+     * @return Offset of the description
+     */
+    private long appendDescription(byte[] bytes) {
+        long position = segment.get(ValueLayout.JAVA_LONG, DESCRIPTIONS_END_OFFSET);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                descriptionChannel.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segment.set(ValueLayout.JAVA_LONG, DESCRIPTIONS_END_OFFSET, position + bytes.length);
+        return position;
+    }
+
+    /**
+     * Maps the records file with room for the given number of records.
+     *
+     * @param records Number of records
+     */
+    private void map(int records) {
+        Arena newArena = Arena.ofShared();
+        try {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + records * RECORD_SIZE, newArena);
+        } catch (IOException e) {
+            newArena.close();
+            throw new UncheckedIOException(e);
+        }
+        if (arena != null) {
+            arena.close();
+        }
+        arena = newArena;
+        capacity = records;
+    }
+
+    /**
+     * Offset of the record.
+     *
+     * @param row Row
+     * @return Offset in the file
+     */
+    private static long offset(int row) {
+        return HEADER_SIZE + row * RECORD_SIZE;
+    }
+}
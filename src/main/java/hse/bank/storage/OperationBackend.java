@@ -0,0 +1,95 @@
+package hse.bank.storage;
+
+import hse.bank.domains.Operation;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Backend which physically keeps operations for {@link OperationStorage}.
+ */
+public interface OperationBackend {
+    /**
+     * Adds operation, replacing the one with the same id.
+     *
+     * @param op Operation
+     */
+    void add(Operation op);
+
+    /**
+     * Gets operation.
+     *
+     * @param id Id of operation
+     * @return Operation or null
+     */
+    Operation get(int id);
+
+    /**
+     * Deletes operation.
+     *
+     * @param id Id of operation
+     */
+    void delete(int id);
+
+    /**
+     * Gets operations of account ordered by date.
+     *
+     * @param accountId Account id
+     * @return Operations
+     */
+    List<Operation> byAccount(int accountId);
+
+    /**
+     * Gets operations of the time range ordered by date.
+     *
+     * @param from Start of the range, inclusive
+     * @param to   End of the range, exclusive
+     * @return Operations
+     */
+    List<Operation> between(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Gets operations of account in the time range ordered by date.
+     *
+     * @param accountId Account id
+     * @param from      Start of the range, inclusive
+     * @param to        End of the range, exclusive
+     * @return Operations
+     */
+    List<Operation> between(int accountId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Streams operations in insertion order.
+     *
+     * @return Stream of operations
+     */
+    Stream<Operation> stream();
+
+    /**
+     * Number of operations.
+     *
+     * @return Size
+     */
+    int size();
+
+    /**
+     * Ids of all operations in the order of {@link #stream()}.
+     *
+     * @return Copy of ids
+     */
+    int[] ids();
+
+    /**
+     * Whether single adds and deletes may run concurrently with each other and with queries.
+     *
+     * @return Boolean
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Removes all operations.
+     */
+    void clear();
+}
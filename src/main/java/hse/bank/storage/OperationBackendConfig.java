@@ -0,0 +1,68 @@
+package hse.bank.storage;
+
+import hse.bank.enums.OperationBackendType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs operation backend chosen by {@code bank.operations.backend} property.
+ */
+@Log4j2
+@Component
+public class OperationBackendConfig {
+    /**
+     * Backend type.
+     */
+    @Value("${bank.operations.backend:CONCURRENT}")
+    private OperationBackendType backendType;
+    /**
+     * File of mapped backend.
+     */
+    @Value("${bank.operations.file:operations.bin}")
+    private String file;
+    /**
+     * Path of the journal, empty when it is disabled.
+     */
+    @Value("${bank.journal.path:}")
+    private String journalPath;
+
+    /**
+     * Installs backend.
+     *
+     * <p>Mapped backend keeps only operations, so it needs the journal to restore accounts and categories they refer
+     * to. Without it reloaded operations would be attached to whatever new account gets the same id.
+     *
+     * @throws IOException If mapped file cannot be opened
+     */
+    @PostConstruct
+    public void install() throws IOException {
+        if (backendType == OperationBackendType.MAPPED && journalPath.isBlank()) {
+            throw new IllegalStateException("Mapped operation backend requires bank.journal.path to be set");
+        }
+        OperationStorage.setBackend(switch (backendType) {
+            case CONCURRENT -> new ConcurrentOperationBackend();
+            case HEAP -> new HeapOperationBackend();
+            case COLUMNAR -> new ColumnarOperationBackend();
+            case MAPPED -> new MappedOperationBackend(Path.of(file));
+        });
+        log.info("Operations are kept by {} backend", backendType);
+    }
+
+    /**
+     * Detaches mapped backend and closes it, the operations stay in the file for the next start.
+     *
+     * @throws IOException If file cannot be synced
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (OperationStorage.getBackend() instanceof MappedOperationBackend mapped) {
+            OperationStorage.detachBackend();
+            mapped.close();
+        }
+    }
+}
@@ -2,31 +2,271 @@ package hse.bank.storage;
 
 
 import hse.bank.domains.Operation;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
-import org.springframework.stereotype.Component;
-
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
 
-@Getter
+/**
+ * Operation storage class.
+ *
+ * <p>Readers share the read lock. Single adds and deletes share it too when the backend is thread-safe, so
+ * operations of different accounts are stored in parallel, otherwise they take the write lock like bulk changes do.
+ * Queries return copies which stay valid after the lock is released.
+ */
 @Component
 @RequiredArgsConstructor
 public class OperationStorage {
-    @Getter
-    @Setter
-    private static List<Operation> operations = new ArrayList<>();
+    /**
+     * Number of operations read under one lock by {@link #forEachOf(int[], Consumer)}.
+     */
+    private static final int CHUNK_SIZE = 4096;
+    /**
+     * Backend holding operations.
+     */
+    private static OperationBackend backend = new ConcurrentOperationBackend();
+    /**
+     * Lock guarding the backend.
+     */
+    private static final StampedLock lock = new StampedLock();
 
+    /**
+     * Adds operation.
+     *
+     * @param op Operation to add.
+     */
     public static void addOperation(Operation op) {
-        operations.add(op);
+        update(() -> backend.add(op));
     }
 
+    /**
+     * Adds operations at once, readers see either all or none of them.
+     *
+     * @param ops Operations to add.
+     */
+    public static void addOperations(List<Operation> ops) {
+        write(() -> ops.forEach(backend::add));
+    }
+
+    /**
+     * Get operation.
+     *
+     * @param id Id of operation.
+     * @return Operation or null.
+     */
     public static Operation getOperationById(int id) {
-        return operations.stream().filter(op -> op.getId() == id).findFirst().orElse(null);
+        return read(() -> backend.get(id));
     }
 
+    /**
+     * Delete operation by id.
+     *
+     * @param id Id of operation.
+     */
     public static void deleteOperationById(int id) {
-        operations.removeIf(op -> op.getId() == id);
+        update(() -> backend.delete(id));
+    }
+
+    /**
+     * Get operations of account.
+     *
+     * @param accountId Account id.
+     * @return Copy of account operations ordered by date.
+     */
+    public static List<Operation> getOperationsByAccountId(int accountId) {
+        return read(() -> backend.byAccount(accountId));
+    }
+
+    /**
+     * Get operations made in the time range.
+     *
+     * @param from Start of the range, inclusive.
+     * @param to   End of the range, exclusive.
+     * @return Copy of operations ordered by date.
+     */
+    public static List<Operation> getOperationsBetween(LocalDateTime from, LocalDateTime to) {
+        return read(() -> backend.between(from, to));
+    }
+
+    /**
+     * Get operations of account made in the time range.
+     *
+     * @param accountId Account id.
+     * @param from      Start of the range, inclusive.
+     * @param to        End of the range, exclusive.
+     * @return Copy of account operations ordered by date.
+     */
+    public static List<Operation> getOperationsBetween(int accountId, LocalDateTime from, LocalDateTime to) {
+        return read(() -> backend.between(accountId, from, to));
+    }
+
+    /**
+     * Get all operations.
+     *
+     * @return Copy of operations in insertion order.
+     */
+    public static List<Operation> getOperations() {
+        return read(() -> backend.stream().toList());
+    }
+
+    /**
+     * Replaces all operations.
+     *
+     * @param newOperations Operations to store.
+     */
+    public static void setOperations(List<Operation> newOperations) {
+        write(() -> {
+            backend.clear();
+            newOperations.forEach(backend::add);
+        });
+    }
+
+    /**
+     * Streams operations in insertion order.
+     *
+     * @return Stream over a copy of operations.
+     */
+    public static Stream<Operation> walk() {
+        return getOperations().stream();
+    }
+
+    /**
+     * Get ids of all operations.
+     *
+     * @return Ids in insertion order.
+     */
+    public static int[] getIds() {
+        return read(() -> backend.ids());
+    }
+
+    /**
+     * Visits operations with the given ids, taking the read lock for one chunk of them at a time, so writers never
+     * wait for more than a chunk. Operations deleted meanwhile are skipped, changed ones are visited as they are
+     * when their chunk is read.
+     *
+     * @param ids    Ids of operations.
+     * @param action Action called for every operation outside the lock.
+     */
+    public static void forEachOf(int[] ids, Consumer<Operation> action) {
+        List<Operation> chunk = new ArrayList<>(Math.min(ids.length, CHUNK_SIZE));
+        for (int from = 0; from < ids.length; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(from + CHUNK_SIZE, ids.length);
+            chunk.clear();
+            read(() -> {
+                for (int i = start; i < end; i++) {
+                    Operation operation = backend.get(ids[i]);
+                    if (operation != null) {
+                        chunk.add(operation);
+                    }
+                }
+                return null;
+            });
+            chunk.forEach(action);
+        }
+    }
+
+    /**
+     * Number of operations.
+     *
+     * @return Size.
+     */
+    public static int size() {
+        return read(() -> backend.size());
+    }
+
+    /**
+     * Get current backend.
+     *
+     * @return Backend.
+     */
+    public static OperationBackend getBackend() {
+        return read(() -> backend);
+    }
+
+    /**
+     * Switches backend, moving stored operations into the new one.
+     *
+     * @param newBackend Backend to use.
+     */
+    public static void setBackend(OperationBackend newBackend) {
+        write(() -> {
+            if (newBackend == backend) {
+                return;
+            }
+            backend.stream().forEach(newBackend::add);
+            backend.clear();
+            backend = newBackend;
+        });
+    }
+
+    /**
+     * Switches to an empty default backend and returns the current one as it is, so that a backend keeping operations
+     * in a file can be closed without dropping them.
+     *
+     * @return Detached backend.
+     */
+    public static OperationBackend detachBackend() {
+        long stamp = lock.writeLock();
+        try {
+            OperationBackend detached = backend;
+            backend = new ConcurrentOperationBackend();
+            return detached;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Runs query under the read lock.
+     *
+     * @param query Query
+     * @param <T>   Type of result
+     * @return Result
+     */
+    private static <T> T read(Supplier<T> query) {
+        long stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs single add or delete under the read lock if the backend is thread-safe, under the write lock otherwise.
+     *
+     * @param update Update
+     */
+    private static void update(Runnable update) {
+        long stamp = lock.readLock();
+        try {
+            if (backend.isThreadSafe()) {
+                update.run();
+                return;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        write(update);
+    }
+
+    /**
+     * Runs update under the write lock.
+     *
+     * @param update Update
+     */
+    private static void write(Runnable update) {
+        long stamp = lock.writeLock();
+        try {
+            update.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 }
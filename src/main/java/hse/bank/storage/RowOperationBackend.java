@@ -0,0 +1,470 @@
+package hse.bank.storage;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Base of backends which keep operations as fixed-width rows of primitives.
+ *
+ * <p>Subclasses decide where the row fields physically live, this class keeps the in-memory indexes over the rows
+ * and materializes operation objects on demand. Accounts and categories are resolved by id at that moment, so a
+ * row whose account or category has been deleted is materialized with a placeholder carrying just the id.
+ */
+abstract class RowOperationBackend implements OperationBackend {
+    /**
+     * Order in which operations of the same moment are returned.
+     */
+    private static final Comparator<Operation> BY_DATE =
+        Comparator.comparing(Operation::getDate).thenComparingInt(Operation::getId);
+    /**
+     * Minimal number of rows before deleted ones are compacted.
+     */
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    /**
+     * Number of used rows including deleted ones.
+     */
+    protected int rows;
+    /**
+     * Number of live rows.
+     */
+    private int live;
+    /**
+     * Row of every operation id.
+     */
+    private final IntIntHashMap rowsById = new IntIntHashMap();
+    /**
+     * Rows of every account.
+     */
+    private final IntHashIndex<RowList> rowsByAccount = new IntHashIndex<>();
+    /**
+     * Rows ordered by date, valid only when {@link #timeOrderValid} is set.
+     */
+    private int[] timeOrder = new int[COMPACTION_THRESHOLD];
+    /**
+     * Whether {@link #timeOrder} reflects all rows.
+     */
+    private boolean timeOrderValid = true;
+
+    /**
+     * Makes room for rows.
+     *
+     * @param capacity Required number of rows
+     */
+    protected abstract void ensureRowCapacity(int capacity);
+
+    /**
+     * Writes operation into the row.
+     *
+     * @param row Row
+     * @param op  Operation
+     */
+    protected abstract void writeRow(int row, Operation op);
+
+    /**
+     * Copies row fields to another row.
+     *
+     * @param from Source row
+     * @param to   Target row
+     */
+    protected abstract void copyRow(int from, int to);
+
+    /**
+     * Marks row as deleted.
+     *
+     * @param row Row
+     */
+    protected abstract void markDeleted(int row);
+
+    /**
+     * Drops all rows starting from the given one.
+     *
+     * @param newRows New number of rows
+     */
+    protected abstract void truncateRows(int newRows);
+
+    protected abstract boolean isDeleted(int row);
+
+    protected abstract int idAt(int row);
+
+    protected abstract int accountIdAt(int row);
+
+    protected abstract int categoryIdAt(int row);
+
+    protected abstract long epochSecondAt(int row);
+
+    protected abstract int nanoAt(int row);
+
+    protected abstract double amountAt(int row);
+
+    protected abstract boolean typeAt(int row);
+
+    protected abstract Optional<String> descriptionAt(int row);
+
+    @Override
+    public void add(Operation op) {
+        int existing = rowsById.get(op.getId());
+        if (existing != IntIntHashMap.NO_VALUE) {
+            unlinkFromAccount(existing);
+            writeRow(existing, op);
+            rowsOf(accountIdAt(existing)).add(existing);
+            timeOrderValid = false;
+            return;
+        }
+        ensureCapacity(rows + 1);
+        int row = rows++;
+        writeRow(row, op);
+        live++;
+        rowsById.put(op.getId(), row);
+        rowsOf(accountIdAt(row)).add(row);
+        if (timeOrderValid) {
+            if (row > 0 && compareRows(timeOrder[row - 1], row) > 0) {
+                timeOrderValid = false;
+            } else {
+                timeOrder[row] = row;
+            }
+        }
+    }
+
+    @Override
+    public Operation get(int id) {
+        int row = rowsById.get(id);
+        return row == IntIntHashMap.NO_VALUE ? null : materialize(row);
+    }
+
+    @Override
+    public void delete(int id) {
+        int row = rowsById.remove(id);
+        if (row == IntIntHashMap.NO_VALUE) {
+            return;
+        }
+        markDeleted(row);
+        live--;
+        unlinkFromAccount(row);
+        if (rows > COMPACTION_THRESHOLD && live < rows / 2) {
+            compact();
+        }
+    }
+
+    @Override
+    public List<Operation> byAccount(int accountId) {
+        RowList accountRows = rowsByAccount.get(accountId);
+        if (accountRows == null) {
+            return new ArrayList<>();
+        }
+        List<Operation> result = new ArrayList<>(accountRows.size);
+        for (int i = 0; i < accountRows.size; i++) {
+            result.add(materialize(accountRows.rows[i]));
+        }
+        result.sort(BY_DATE);
+        return result;
+    }
+
+    @Override
+    public List<Operation> between(LocalDateTime from, LocalDateTime to) {
+        List<Operation> result = new ArrayList<>();
+        if (!from.isBefore(to)) {
+            return result;
+        }
+        ensureTimeOrder();
+        int end = lowerBound(to);
+        for (int i = lowerBound(from); i < end; i++) {
+            int row = timeOrder[i];
+            if (!isDeleted(row)) {
+                result.add(materialize(row));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Operation> between(int accountId, LocalDateTime from, LocalDateTime to) {
+        List<Operation> result = new ArrayList<>();
+        RowList accountRows = rowsByAccount.get(accountId);
+        if (accountRows == null || !from.isBefore(to)) {
+            return result;
+        }
+        long fromSecond = from.toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to.toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < accountRows.size; i++) {
+            int row = accountRows.rows[i];
+            if (compareTime(row, fromSecond, from.getNano()) >= 0 && compareTime(row, toSecond, to.getNano()) < 0) {
+                result.add(materialize(row));
+            }
+        }
+        result.sort(BY_DATE);
+        return result;
+    }
+
+    @Override
+    public Stream<Operation> stream() {
+        return IntStream.range(0, rows)
+            .filter(row -> !isDeleted(row))
+            .mapToObj(this::materialize);
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public int[] ids() {
+        int[] ids = new int[live];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!isDeleted(row)) {
+                ids[count++] = idAt(row);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void clear() {
+        truncateRows(0);
+        rows = 0;
+        live = 0;
+        rowsById.clear();
+        rowsByAccount.clear();
+        timeOrder = new int[COMPACTION_THRESHOLD];
+        timeOrderValid = true;
+    }
+
+    /**
+     * Rebuilds indexes from the first rows, used when rows already exist in the underlying store.
+     *
+     * @param existingRows Number of existing rows
+     */
+    protected void indexExistingRows(int existingRows) {
+        rows = existingRows;
+        live = 0;
+        rowsById.clear();
+        rowsByAccount.clear();
+        if (timeOrder.length < rows) {
+            timeOrder = new int[rows];
+        }
+        for (int row = 0; row < rows; row++) {
+            if (isDeleted(row)) {
+                continue;
+            }
+            rowsById.put(idAt(row), row);
+            rowsOf(accountIdAt(row)).add(row);
+            live++;
+        }
+        timeOrderValid = false;
+    }
+
+    /**
+     * Builds operation object from the row.
+     *
+     * @param row Row
+     * @return Operation
+     */
+    protected Operation materialize(int row) {
+        int accountId = accountIdAt(row);
+        BankAccount account = AccountStorage.getUserById(accountId);
+        if (account == null) {
+            account = new BankAccount(accountId, "", 0);
+        }
+        boolean type = typeAt(row);
+        int categoryId = categoryIdAt(row);
+        Category category = CategoryStorage.getCategoryById(categoryId);
+        if (category == null) {
+            category = new Category(categoryId, type, "");
+        }
+        return new Operation(
+            idAt(row),
+            type,
+            account,
+            amountAt(row),
+            LocalDateTime.ofEpochSecond(epochSecondAt(row), nanoAt(row), ZoneOffset.UTC),
+            category,
+            descriptionAt(row)
+        );
+    }
+
+    /**
+     * Gets rows of account, creating the list when needed.
+     *
+     * @param accountId Account id
+     * @return Rows
+     */
+    private RowList rowsOf(int accountId) {
+        RowList accountRows = rowsByAccount.get(accountId);
+        if (accountRows == null) {
+            accountRows = new RowList();
+            rowsByAccount.put(accountId, accountRows);
+        }
+        return accountRows;
+    }
+
+    /**
+     * Removes row from the rows of its account.
+     *
+     * @param row Row
+     */
+    private void unlinkFromAccount(int row) {
+        int accountId = accountIdAt(row);
+        RowList accountRows = rowsByAccount.get(accountId);
+        accountRows.remove(row);
+        if (accountRows.size == 0) {
+            rowsByAccount.remove(accountId);
+        }
+    }
+
+    /**
+     * Grows storage and time order.
+     *
+     * @param capacity Required number of rows
+     */
+    private void ensureCapacity(int capacity) {
+        ensureRowCapacity(capacity);
+        if (capacity > timeOrder.length) {
+            timeOrder = Arrays.copyOf(timeOrder, Math.max(capacity, timeOrder.length * 2));
+        }
+    }
+
+    /**
+     * Drops deleted rows and rebuilds indexes.
+     */
+    private void compact() {
+        int target = 0;
+        for (int row = 0; row < rows; row++) {
+            if (isDeleted(row)) {
+                continue;
+            }
+            if (row != target) {
+                copyRow(row, target);
+            }
+            target++;
+        }
+        truncateRows(target);
+        indexExistingRows(target);
+    }
+
+    /**
+     * Sorts rows by date if some row was added out of order, synchronized as concurrent readers may get here.
+     */
+    private synchronized void ensureTimeOrder() {
+        if (timeOrderValid) {
+            return;
+        }
+        for (int row = 0; row < rows; row++) {
+            timeOrder[row] = row;
+        }
+        int[] buffer = new int[rows];
+        for (int width = 1; width < rows; width *= 2) {
+            for (int left = 0; left < rows - width; left += width * 2) {
+                merge(left, left + width, Math.min(left + width * 2, rows), buffer);
+            }
+        }
+        timeOrderValid = true;
+    }
+
+    /**
+     * Merges two sorted runs of {@link #timeOrder}.
+     *
+     * @param left   Start of the first run
+     * @param middle Start of the second run
+     * @param right  End of the second run
+     * @param buffer Scratch buffer
+     */
+    private void merge(int left, int middle, int right, int[] buffer) {
+        System.arraycopy(timeOrder, left, buffer, left, right - left);
+        int i = left;
+        int j = middle;
+        for (int k = left; k < right; k++) {
+            if (j >= right || (i < middle && compareRows(buffer[i], buffer[j]) <= 0)) {
+                timeOrder[k] = buffer[i++];
+            } else {
+                timeOrder[k] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * Finds first position of {@link #timeOrder} not earlier than the date.
+     *
+     * @param date Date
+     * @return Position
+     */
+    private int lowerBound(LocalDateTime date) {
+        long second = date.toEpochSecond(ZoneOffset.UTC);
+        int nano = date.getNano();
+        int low = 0;
+        int high = rows;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareTime(timeOrder[middle], second, nano) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares rows by date and id.
+     */
+    private int compareRows(int first, int second) {
+        int byTime = compareTime(first, epochSecondAt(second), nanoAt(second));
+        return byTime != 0 ? byTime : Integer.compare(idAt(first), idAt(second));
+    }
+
+    /**
+     * Compares date of the row with the given one.
+     */
+    private int compareTime(int row, long second, int nano) {
+        int bySecond = Long.compare(epochSecondAt(row), second);
+        return bySecond != 0 ? bySecond : Integer.compare(nanoAt(row), nano);
+    }
+
+    /**
+     * Growable list of rows.
+     */
+    private static final class RowList {
+        /**
+         * Rows.
+         */
+        private int[] rows = new int[4];
+        /**
+         * Number of rows.
+         */
+        private int size;
+
+        /**
+         * Adds row.
+         */
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        /**
+         * Removes row.
+         */
+        void remove(int row) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (rows[i] == row) {
+                    System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import hse.bank.storage.OperationStorage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @RequiredArgsConstructor
@@ -16,14 +17,25 @@ import java.util.stream.Stream;
 public class StorageVisitor {
 
     public static Stream<BankAccount> walkBankAccountStorage() {
-        return AccountStorage.getAccounts().stream();
+        return AccountStorage.walk();
     }
 
     public static Stream<Operation> walkOperationStorage() {
-        return OperationStorage.getOperations().stream();
+        return OperationStorage.walk();
 
     }
 
+    /**
+     * Visits operations in insertion order without copying the storage. Only their ids are copied under the lock,
+     * the operations are read in chunks and the action runs outside the lock, so writers do not wait for it.
+     * Operations deleted during the visit are skipped.
+     *
+     * @param action Action called for every operation
+     */
+    public static void visitOperationStorage(Consumer<Operation> action) {
+        OperationStorage.forEachOf(OperationStorage.getIds(), action);
+    }
+
     public static Stream<Category> walkCategoryStorage() {
         return CategoryStorage.getCategories().stream();
     }
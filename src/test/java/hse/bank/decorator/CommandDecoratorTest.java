@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -17,11 +18,13 @@ import hse.bank.domains.Category;
 import hse.bank.domains.Operation;
 import hse.bank.enums.CmdType;
 import hse.bank.enums.DomainObjectType;
+import hse.bank.enums.IOFormat;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
 import hse.bank.records.CommandData;
 import hse.bank.records.MiscData;
 import hse.bank.records.OperationData;
+import hse.bank.stats.CommandSample;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -112,6 +115,66 @@ class CommandDecoratorTest {
         verify(command).execute(commandData);
     }
 
+    @Test
+    void execute_ShouldRecordLatencyPerType() {
+        CommandData commandData = new CommandData(
+            CmdType.GET,
+            DomainObjectType.ACCOUNT,
+            CommandData.OBJECT_DATA,
+            new MiscData(1)
+        );
+        when(command.execute(any())).thenReturn(accountResult);
+
+        commandDecorator.execute(command, commandData);
+        commandDecorator.execute(command, commandData);
+
+        assertEquals(2, commandDecorator.getTotalLatency().snapshot().count());
+        assertEquals(2, commandDecorator.getCmdTypeLatencies().get(CmdType.GET).snapshot().count());
+        assertEquals(0, commandDecorator.getCmdTypeLatencies().get(CmdType.CREATE).snapshot().count());
+        assertEquals(2, commandDecorator.getDomainTypeLatencies().get(DomainObjectType.ACCOUNT).snapshot().count());
+        assertTrue(commandDecorator.getStats().isSuccess());
+    }
+
+    @Test
+    void execute_ShouldAccountResourcesWhenEnabled() {
+        CommandData commandData = new CommandData(
+            CmdType.GET,
+            DomainObjectType.ACCOUNT,
+            CommandData.OBJECT_DATA,
+            new MiscData(1)
+        );
+        when(command.execute(any())).thenReturn(accountResult);
+
+        commandDecorator.execute(command, commandData);
+        commandDecorator.setResourceAccounting(true);
+        commandDecorator.execute(command, commandData);
+
+        assertEquals(1, commandDecorator.getResourceAccounting().snapshot(CmdType.GET).count());
+        assertEquals(0, commandDecorator.getResourceAccounting().snapshot(CmdType.CREATE).count());
+    }
+
+    @Test
+    void execute_ShouldCaptureSlowCommands() {
+        CommandData commandData = new CommandData(
+            CmdType.EXPORT,
+            DomainObjectType.ACCOUNT,
+            new MiscData("accounts.csv", IOFormat.CSV)
+        );
+        when(command.execute(any())).thenReturn(accountResult);
+        commandDecorator.setSamplePercent(0);
+
+        commandDecorator.execute(command, commandData);
+        commandDecorator.setSlowCommandThreshold(0);
+        commandDecorator.execute(command, commandData);
+
+        assertEquals(1, commandDecorator.getSlowCommands().slowCount());
+        CommandSample sample = commandDecorator.getSlowCommands().recentSlow().get(0);
+        assertEquals(CmdType.EXPORT, sample.type());
+        assertEquals("accounts.csv", sample.filePath());
+        assertEquals(IOFormat.CSV, sample.ioFormat());
+        assertTrue(commandDecorator.getSlowCommands().recentSampled().isEmpty());
+    }
+
     @Test
     void execute_ShouldHandleDifferentDomainTypes() {
         CommandData accountData = new CommandData(
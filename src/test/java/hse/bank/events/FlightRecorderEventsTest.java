@@ -0,0 +1,164 @@
+package hse.bank.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.enums.IOFormat;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.BankAccountData;
+import hse.bank.records.CommandData;
+import hse.bank.services.exporters.CsvExporter;
+import hse.bank.services.importers.CsvImporter;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the CommandEvent, ImportEvent and ExportEvent classes.
+ */
+class FlightRecorderEventsTest {
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        clearStorages();
+        BankAccount account = new BankAccount(0, "Main", 100.0);
+        Category category = new Category(0, true, "Salary");
+        AccountStorage.addUser(account);
+        CategoryStorage.addCategory(category);
+        OperationStorage.addOperation(new Operation(0, true, account, 20.0,
+            LocalDateTime.of(2024, 5, 1, 8, 0), category, Optional.of("Bonus")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearStorages();
+    }
+
+    @Test
+    void commandEvent_ShouldRecordTypesAndOutcome() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            CommandData data = new CommandData(CmdType.CREATE, DomainObjectType.ACCOUNT,
+                new BankAccountData("Savings", 10.0));
+            CommandEvent.start().finish(data, CmdResult.success());
+            CommandEvent.start().finish(data, CmdResult.failure("Rejected"));
+            CommandEvent.start().finish(null, null);
+        }, "hse.bank.Command");
+
+        assertEquals(3, events.size());
+        assertEquals("CREATE", events.get(0).getString("cmdType"));
+        assertEquals("ACCOUNT", events.get(0).getString("domainType"));
+        assertTrue(events.get(0).getBoolean("success"));
+        assertFalse(events.get(1).getBoolean("success"));
+        assertNull(events.get(2).getString("cmdType"));
+        assertFalse(events.get(2).getBoolean("success"));
+    }
+
+    @Test
+    void exportAndImportEvents_ShouldRecordRowsAndBytes() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<RecordedEvent> exports = record(() -> new CsvExporter().exportData(out), "hse.bank.Export");
+        byte[] exported = out.toByteArray();
+        clearStorages();
+        CsvImporter importer = new CsvImporter();
+        importer.setThreads(1);
+
+        List<RecordedEvent> imports = record(() -> importer.importData(new ByteArrayInputStream(exported)),
+            "hse.bank.Import");
+
+        assertEquals(1, exports.size());
+        assertEquals("CSV", exports.get(0).getString("format"));
+        assertEquals(3, exports.get(0).getLong("rows"));
+        assertEquals(exported.length, exports.get(0).getLong("bytes"));
+        assertEquals(1, imports.size());
+        assertEquals("CSV", imports.get(0).getString("format"));
+        assertEquals(3, imports.get(0).getLong("rows"));
+        assertEquals(exported.length, imports.get(0).getLong("bytes"));
+    }
+
+    @Test
+    void count_ShouldKeepStreamWhenNotRecorded() {
+        OutputStream out = new ByteArrayOutputStream();
+        ExportEvent event = ExportEvent.start(IOFormat.CSV);
+
+        assertSame(out, event.count(out));
+        event.finish();
+    }
+
+    /**
+     * Runs action while a recording of the event is on.
+     *
+     * @param action Action
+     * @param name   Name of the event
+     * @return Recorded events of the name in the order they were committed
+     * @throws IOException If the recording cannot be read
+     */
+    private List<RecordedEvent> record(Action action, String name) throws IOException {
+        Path file = directory.resolve(name + ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(name).withThreshold(Duration.ZERO);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals(name)) {
+                events.add(event);
+            }
+        }
+        events.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        return events;
+    }
+
+    private static void clearStorages() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+
+    /**
+     * Recorded action.
+     */
+    private interface Action {
+        /**
+         * Runs action.
+         *
+         * @throws IOException If the action fails
+         */
+        void run() throws IOException;
+    }
+}
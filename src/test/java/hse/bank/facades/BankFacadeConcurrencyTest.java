@@ -0,0 +1,91 @@
+package hse.bank.facades;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.domains.Operation;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Stress tests of BankFacade driven from many threads.
+ */
+@SpringBootTest
+class BankFacadeConcurrencyTest {
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2000;
+    private static final double INITIAL_BALANCE = 1000.0;
+
+    @Autowired
+    private BankFacade bankFacade;
+
+    @BeforeEach
+    void setUp() {
+        bankFacade.flush();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            bankFacade.createAccount("Account " + i, INITIAL_BALANCE);
+        }
+        bankFacade.createCategory("Test Category", true);
+    }
+
+    @Test
+    void concurrentOperations_ShouldKeepBalancesConsistent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int accountId = random.nextInt(ACCOUNTS);
+                    double amount = 1 + random.nextInt(50);
+                    if (random.nextBoolean()) {
+                        bankFacade.depositMoney(accountId, 0, amount);
+                    } else {
+                        try {
+                            bankFacade.withdrawMoney(accountId, 0, amount);
+                        } catch (IllegalArgumentException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    if (i % 100 == 0) {
+                        bankFacade.getAccountOperations(random.nextInt(ACCOUNTS));
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Set<Integer> operationIds = new HashSet<>();
+        for (int accountId = 0; accountId < ACCOUNTS; accountId++) {
+            List<Operation> operations = bankFacade.getAccountOperations(accountId);
+            double applied = operations.stream().mapToDouble(Operation::getAmount).sum();
+            double balance = bankFacade.getAccount(accountId).getBalance();
+            assertEquals(INITIAL_BALANCE + applied, balance);
+            assertTrue(balance >= 0);
+            operations.forEach(operation -> operationIds.add(operation.getId()));
+        }
+        assertEquals(THREADS * OPERATIONS_PER_THREAD - rejected.get(), operationIds.size());
+    }
+}
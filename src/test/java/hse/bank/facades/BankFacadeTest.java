@@ -2,9 +2,12 @@ package hse.bank.facades;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import hse.bank.cmd.CmdResult;
 import hse.bank.domains.BankAccount;
 import hse.bank.domains.Category;
 import hse.bank.domains.Operation;
@@ -13,8 +16,14 @@ import hse.bank.enums.DomainObjectType;
 import hse.bank.records.BankAccountData;
 import hse.bank.records.CategoryData;
 import hse.bank.records.CommandData;
+import hse.bank.records.MiscData;
 import hse.bank.records.OperationData;
+import hse.bank.records.OperationQueryData;
+import hse.bank.stats.MetricsRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +40,9 @@ class BankFacadeTest {
 
     @Autowired
     private BankFacade bankFacade;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
     private int accountId;
     private int categoryId;
     private int operationId;
@@ -62,6 +74,75 @@ class BankFacadeTest {
         assertEquals(result.getId(), retrievedAccount.getId());
     }
 
+    @Test
+    void executeAsync_ShouldCompleteWithCommandResult() throws Exception {
+        CmdResult result = commandFacade.executeAsync(new CommandData(
+            CmdType.CREATE, DomainObjectType.ACCOUNT, new BankAccountData("Async Account", 300.0)
+        )).get(10, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        assertEquals("Async Account", bankFacade.getAccount(result.getBankAccount().getId()).getName());
+    }
+
+    @Test
+    void executeBatch_ShouldReturnResultPerCommand() {
+        BankAccount account = bankFacade.getAccount(accountId);
+        Category category = bankFacade.getCategory(categoryId);
+        List<CmdResult> results = commandFacade.executeBatch(List.of(
+            new CommandData(CmdType.CREATE, DomainObjectType.OPERATION,
+                new OperationData(true, account, 50.0, category, Optional.empty())),
+            new CommandData(CmdType.CREATE, DomainObjectType.OPERATION,
+                new OperationData(false, account, -500.0, category, Optional.empty())),
+            new CommandData(CmdType.CREATE, DomainObjectType.ACCOUNT, new BankAccountData("Batch Account", 10.0)),
+            new CommandData(CmdType.CREATE, DomainObjectType.OPERATION,
+                new OperationData(false, account, -120.0, category, Optional.empty()))
+        ));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Insufficient funds", results.get(1).getError());
+        assertEquals("Batch Account", results.get(2).getBankAccount().getName());
+        assertTrue(results.get(3).isSuccess());
+        assertEquals(30.0, bankFacade.getAccount(accountId).getBalance());
+    }
+
+    @Test
+    void executeBatch_ShouldKeepOrderOfMixedCommandsAndRejectOperationOnDeletedAccount() {
+        BankAccount account = bankFacade.getAccount(accountId);
+        Category category = bankFacade.getCategory(categoryId);
+        List<CmdResult> results = commandFacade.executeBatch(List.of(
+            new CommandData(CmdType.CREATE, DomainObjectType.OPERATION,
+                new OperationData(true, account, 50.0, category, Optional.empty())),
+            new CommandData(CmdType.GET, DomainObjectType.OPERATION, new OperationQueryData(accountId),
+                CommandData.MISC_DATA),
+            new CommandData(CmdType.DELETE, DomainObjectType.ACCOUNT, CommandData.OBJECT_DATA,
+                new MiscData(accountId)),
+            new CommandData(CmdType.CREATE, DomainObjectType.OPERATION,
+                new OperationData(true, account, 20.0, category, Optional.empty())),
+            new CommandData(CmdType.GET, DomainObjectType.ACCOUNT, CommandData.OBJECT_DATA, new MiscData(accountId))
+        ));
+
+        assertEquals(5, results.size());
+        Operation created = results.get(0).getOperation();
+        assertTrue(results.get(1).getOperationsList().stream().anyMatch(op -> op.getId() == created.getId()));
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("Account " + accountId + " not found", results.get(3).getError());
+        assertNull(results.get(4).getBankAccount());
+        assertEquals(150.0, account.getBalance());
+    }
+
+    @Test
+    void metricsRegistry_ShouldExposeCommandMetrics() {
+        long errors = metricsRegistry.counter("bank_command_errors_total", "", "type", "CREATE").sum();
+        commandFacade.execute(new CommandData(CmdType.CREATE, DomainObjectType.ACCOUNT, null, null));
+
+        String metrics = metricsRegistry.scrape();
+
+        assertEquals(errors + 1, metricsRegistry.counter("bank_command_errors_total", "", "type", "CREATE").sum());
+        assertTrue(metrics.contains("# TYPE bank_command_latency_seconds summary"));
+        assertTrue(metrics.contains("bank_storage_objects{storage=\"accounts\"} 1"));
+    }
+
     @Test
     void getAccount_ShouldReturnAccount() {
         BankAccount result = bankFacade.getAccount(accountId);
@@ -89,6 +170,40 @@ class BankFacadeTest {
         assertEquals(operationId, result.getId());
     }
 
+    @Test
+    void getAccountOperations_ShouldReturnOnlyOperationsOfAccount() {
+        BankAccount secondAccount = bankFacade.createAccount("Second Account", 500.0);
+        Operation first = bankFacade.createOperation(10.0, accountId, true, categoryId);
+        bankFacade.createOperation(20.0, secondAccount.getId(), true, categoryId);
+
+        List<Operation> result = bankFacade.getAccountOperations(accountId);
+
+        assertEquals(2, result.size());
+        assertTrue(result.stream().allMatch(op -> op.getAccount().getId() == accountId));
+        assertEquals(first.getId(), result.get(1).getId());
+
+        bankFacade.deleteOperation(first.getId());
+        assertEquals(1, bankFacade.getAccountOperations(accountId).size());
+    }
+
+    @Test
+    void getOperationsBetween_ShouldReturnOperationsOfRange() {
+        LocalDateTime setupTime = bankFacade.getOperation(operationId).getDate();
+        while (!LocalDateTime.now().isAfter(setupTime)) {
+            Thread.onSpinWait();
+        }
+        LocalDateTime from = setupTime.plusNanos(1);
+        Operation inside = bankFacade.createOperation(10.0, accountId, true, categoryId);
+        LocalDateTime to = inside.getDate().plusNanos(1);
+
+        List<Operation> result = bankFacade.getOperationsBetween(from, to);
+
+        assertTrue(result.stream().anyMatch(op -> op.getId() == inside.getId()));
+        assertTrue(result.stream().noneMatch(op -> op.getId() == operationId));
+        assertEquals(1, bankFacade.getOperationsBetween(accountId, from, to).size());
+        assertTrue(bankFacade.getOperationsBetween(accountId, to, to.plusDays(1)).isEmpty());
+    }
+
     @Test
     void deleteOperation_ShouldDeleteOperation() {
         Operation operation = bankFacade.getOperation(operationId);
@@ -157,6 +272,20 @@ class BankFacadeTest {
         }
     }
 
+    @Test
+    void transferMoney_ShouldChangeNothingWhenFundsAreInsufficient() {
+        BankAccount secondAccount = bankFacade.createAccount("Second Account", 500.0);
+        int operationsBefore = bankFacade.getAccountOperations(accountId).size();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> bankFacade.transferMoney(accountId, secondAccount.getId(), categoryId, 1000.0));
+
+        assertEquals(100.0, bankFacade.getAccount(accountId).getBalance());
+        assertEquals(500.0, bankFacade.getAccount(secondAccount.getId()).getBalance());
+        assertEquals(operationsBefore, bankFacade.getAccountOperations(accountId).size());
+        assertTrue(bankFacade.getAccountOperations(secondAccount.getId()).isEmpty());
+    }
+
     @Test
     void depositAndWithdrawMoney_ShouldCreateOperations() {
         bankFacade.depositMoney(accountId, categoryId, 100.0);
@@ -0,0 +1,125 @@
+package hse.bank.facades;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.cmd.CreateCmd;
+import hse.bank.decorator.CommandDecorator;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.journal.CommandJournal;
+import hse.bank.records.BankAccountData;
+import hse.bank.records.CommandData;
+import hse.bank.records.OperationData;
+import hse.bank.stats.MetricsRegistry;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests for the CommandFacade class.
+ */
+class CommandFacadeTest {
+
+    @Test
+    void initAsyncLimits_ShouldAcceptPositiveLimits() {
+        withLimits("EXPORT=2, import=1").initAsyncLimits();
+        withLimits("").initAsyncLimits();
+    }
+
+    @Test
+    void initAsyncLimits_ShouldRejectLimitsBelowOne() {
+        assertThrows(IllegalStateException.class, () -> withLimits("EXPORT=0").initAsyncLimits());
+        assertThrows(IllegalStateException.class, () -> withLimits("EXPORT=2,IMPORT=-1").initAsyncLimits());
+    }
+
+    @Test
+    void initAsyncLimits_ShouldRejectMalformedLimits() {
+        assertThrows(IllegalStateException.class, () -> withLimits("EXPORT").initAsyncLimits());
+        assertThrows(IllegalStateException.class, () -> withLimits("EXPORT=many").initAsyncLimits());
+        assertThrows(IllegalStateException.class, () -> withLimits("UPLOAD=1").initAsyncLimits());
+    }
+
+    @Test
+    void executeBatch_ShouldFailOnlyOperationsWhoseJournalWriteThrows() {
+        BankAccount account = new BankAccount(0, "Main", 100.0);
+        Category category = new Category(0, true, "Salary");
+        AccountStorage.addUser(account);
+        CategoryStorage.addCategory(category);
+        AtomicInteger batches = new AtomicInteger();
+        CommandJournal journal = new CommandJournal() {
+            @Override
+            public List<CmdResult<?>> recordBatch(List<CommandData> data, Supplier<List<CmdResult<?>>> commands) {
+                if (batches.getAndIncrement() == 0) {
+                    throw new UncheckedIOException(new IOException("Disk full"));
+                }
+                return commands.get();
+            }
+        };
+
+        List<CmdResult> results = withJournal(journal).executeBatch(List.of(
+            operation(account, category, 10.0),
+            operation(account, category, 20.0),
+            new CommandData(CmdType.CREATE, DomainObjectType.ACCOUNT, new BankAccountData("Second", 5.0)),
+            operation(account, category, 30.0)
+        ));
+
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(0).getError().contains("Disk full"));
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Second", results.get(2).getBankAccount().getName());
+        assertTrue(results.get(3).isSuccess());
+        assertEquals(130.0, account.getBalance());
+        assertEquals(1, OperationStorage.size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+
+    private static CommandFacade withJournal(CommandJournal journal) {
+        CommandFacade facade = new CommandFacade();
+        ReflectionTestUtils.setField(facade, "commandDecorator", new CommandDecorator());
+        ReflectionTestUtils.setField(facade, "createDomain", new CreateCmd());
+        ReflectionTestUtils.setField(facade, "commandJournal", journal);
+        ReflectionTestUtils.setField(facade, "metricsRegistry", new MetricsRegistry());
+        facade.registerMetrics();
+        return facade;
+    }
+
+    private static CommandData operation(BankAccount account, Category category, double amount) {
+        return new CommandData(CmdType.CREATE, DomainObjectType.OPERATION,
+            new OperationData(true, account, amount, category, Optional.empty()));
+    }
+
+    private static CommandFacade withLimits(String limits) {
+        CommandFacade facade = new CommandFacade();
+        ReflectionTestUtils.setField(facade, "asyncLimits", limits);
+        return facade;
+    }
+}
@@ -0,0 +1,133 @@
+package hse.bank.factories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the IdAllocator class.
+ */
+class IdAllocatorTest {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 10_000;
+
+    @Test
+    void next_ShouldHandOutUniqueIdsAcrossPlatformThreads() throws Exception {
+        IdAllocator allocator = new IdAllocator(32);
+
+        Set<Integer> ids = allocateConcurrently(allocator, Executors.newFixedThreadPool(THREADS));
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id >= 0 && id <= allocator.last()));
+    }
+
+    @Test
+    void next_ShouldHandOutUniqueIdsAcrossVirtualThreads() throws Exception {
+        IdAllocator allocator = new IdAllocator(32);
+
+        Set<Integer> ids = allocateConcurrently(allocator, Executors.newVirtualThreadPerTaskExecutor());
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        assertEquals(THREADS * IDS_PER_THREAD - 1, allocator.last());
+    }
+
+    @Test
+    void next_ShouldNotCollideWithReservedAndExplicitIds() throws Exception {
+        IdAllocator allocator = new IdAllocator(32);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    if (thread == 0 && i % 100 == 0) {
+                        int first = allocator.reserve(10);
+                        for (int id = first; id < first + 10; id++) {
+                            assertTrue(ids.add(id), "reserved id " + id + " was taken");
+                        }
+                    } else {
+                        int id = allocator.next();
+                        assertTrue(ids.add(id), "id " + id + " was taken");
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int explicit = allocator.last() + 5;
+        allocator.bump(explicit);
+        assertTrue(allocator.next() > explicit);
+    }
+
+    @Test
+    void bump_ShouldDropBlocksHoldingTheId() {
+        IdAllocator allocator = new IdAllocator(32);
+        int first = allocator.next();
+
+        allocator.bump(first + 1);
+
+        int next = allocator.next();
+        assertTrue(next > first + 1, "id " + next + " is inside the dropped block");
+        assertTrue(next > allocator.last() - 32);
+    }
+
+    @Test
+    void reset_ShouldRestartAfterRestoredId() {
+        IdAllocator allocator = new IdAllocator(32);
+        allocator.next();
+
+        allocator.reset(99);
+
+        assertEquals(100, allocator.next());
+        allocator.reset(-1);
+        assertEquals(0, allocator.next());
+    }
+
+    @Test
+    void constructor_ShouldRejectEmptyBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> new IdAllocator(0));
+    }
+
+    private static Set<Integer> allocateConcurrently(IdAllocator allocator, ExecutorService executor)
+        throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<Integer> ids = new ArrayList<>(IDS_PER_THREAD);
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    ids.add(allocator.next());
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        Set<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> future : futures) {
+            ids.addAll(future.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+        return ids;
+    }
+}
@@ -0,0 +1,393 @@
+package hse.bank.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.cmd.CreateCmd;
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.enums.IOFormat;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.BankAccountData;
+import hse.bank.records.CategoryData;
+import hse.bank.records.CommandData;
+import hse.bank.records.MiscData;
+import hse.bank.records.OperationData;
+import hse.bank.records.TransferData;
+import hse.bank.stats.MetricsRegistry;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests for the CommandJournal class, a restart is simulated by emptying the storages and opening a new journal.
+ */
+class CommandJournalTest {
+
+    @TempDir
+    private Path directory;
+    private Path path;
+    private CommandJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("bank.journal");
+        clearStorages();
+        journal = openJournal();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+        clearStorages();
+    }
+
+    @Test
+    void open_ShouldReplayJournaledCommands() throws IOException {
+        BankAccount account = createAccount("Main", 100.0);
+        Category category = createCategory("Salary");
+        Operation kept = createOperation(account, category, 50.0, "Bonus");
+        Operation deleted = createOperation(account, category, 20.0, null);
+        journal.record(deleteCommand(DomainObjectType.OPERATION, deleted.getId()), () -> {
+            OperationStorage.deleteOperationById(deleted.getId());
+            return CmdResult.success();
+        });
+
+        restart();
+
+        BankAccount restored = AccountStorage.getUserById(account.getId());
+        assertNotNull(restored);
+        assertEquals("Main", restored.getName());
+        assertEquals(170.0, restored.getBalance());
+        assertEquals("Salary", CategoryStorage.getCategoryById(category.getId()).getName());
+        assertEquals(1, OperationStorage.size());
+        Operation operation = OperationStorage.getOperationById(kept.getId());
+        assertEquals(kept.getDate(), operation.getDate());
+        assertEquals(Optional.of("Bonus"), operation.getDescription());
+        assertNull(OperationStorage.getOperationById(deleted.getId()));
+        assertTrue(OperationFactory.getLastId() >= deleted.getId());
+    }
+
+    @Test
+    void open_ShouldCutRecordWithWrongChecksum() throws IOException {
+        createAccount("First", 1.0);
+        journal.sync();
+        Path segment = directory.resolve("bank.journal.0");
+        long validSize = Files.size(segment);
+        createAccount("Second", 2.0);
+        journal.close();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer lastPayloadByte = ByteBuffer.allocate(1);
+            channel.read(lastPayloadByte, channel.size() - Integer.BYTES - 1);
+            lastPayloadByte.put(0, (byte) (lastPayloadByte.get(0) ^ 1)).rewind();
+            channel.write(lastPayloadByte, channel.size() - Integer.BYTES - 1);
+        }
+
+        restart();
+
+        assertEquals(1, AccountStorage.size());
+        assertEquals("First", AccountStorage.getUserById(0).getName());
+        assertEquals(validSize, Files.size(segment));
+    }
+
+    @Test
+    void open_ShouldCutTornRecord() throws IOException {
+        createAccount("First", 1.0);
+        journal.sync();
+        Path segment = directory.resolve("bank.journal.0");
+        long validSize = Files.size(segment);
+        createAccount("Second", 2.0);
+        journal.close();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        restart();
+
+        assertEquals(1, AccountStorage.size());
+        assertEquals(validSize, Files.size(segment));
+        createAccount("Third", 3.0);
+        restart();
+        assertEquals("Third", AccountStorage.getUserById(1).getName());
+    }
+
+    @Test
+    void record_ShouldSnapshotImportBeforeReturning() throws IOException {
+        CommandData importCommand = new CommandData(
+            CmdType.IMPORT, DomainObjectType.ACCOUNT, CommandData.OBJECT_DATA, new MiscData("bank.csv", IOFormat.CSV)
+        );
+        CmdResult<?> result = journal.record(importCommand, () -> {
+            AccountStorage.addUser(BankAccountFactory.createAccountWithId(new BankAccountData("Imported", 10.0), 7));
+            CategoryStorage.addCategory(CategoryFactory.createCategoryWithId(new CategoryData(false, "Food"), 3));
+            return CmdResult.success();
+        });
+
+        assertTrue(result.isSuccess());
+        assertTrue(Files.exists(directory.resolve("bank.journal.snapshot")));
+        createOperation(AccountStorage.getUserById(7), CategoryStorage.getCategoryById(3), -4.0, null);
+
+        restart();
+
+        assertEquals(6.0, AccountStorage.getUserById(7).getBalance());
+        assertEquals("Food", CategoryStorage.getCategoryById(3).getName());
+        assertEquals(1, OperationStorage.size());
+    }
+
+    @Test
+    void snapshot_ShouldRestoreStateChangedWhileWritten() throws Exception {
+        BankAccount account = createAccount("Main", 1_000_000.0);
+        Category category = createCategory("Food");
+        for (int i = 0; i < 3000; i++) {
+            createOperation(account, category, -1.0, i % 2 == 0 ? "Note " + i : null);
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < 1000; i++) {
+                Operation operation = createOperation(account, category, -2.0, null);
+                int deletedId = operation.getId() - 2000;
+                journal.record(deleteCommand(DomainObjectType.OPERATION, deletedId), () -> {
+                    OperationStorage.deleteOperationById(deletedId);
+                    return CmdResult.success();
+                });
+                started.countDown();
+            }
+        });
+
+        started.await();
+        journal.snapshot().join();
+        writer.join();
+        List<String> operations = describe(OperationStorage.getOperations());
+        double balance = account.getBalance();
+
+        restart();
+
+        assertTrue(Files.exists(directory.resolve("bank.journal.snapshot")));
+        assertTrue(Files.notExists(directory.resolve("bank.journal.0")));
+        assertEquals(operations, describe(OperationStorage.getOperations()));
+        assertEquals(balance, AccountStorage.getUserById(account.getId()).getBalance());
+    }
+
+    @Test
+    void open_ShouldNotReuseIdsAfterReplay() throws Exception {
+        BankAccount account = createAccount("Main", 1000.0);
+        Category category = createCategory("Food");
+        int lastId = createOperationsConcurrently(account, category);
+        journal.record(deleteCommand(DomainObjectType.OPERATION, lastId), () -> {
+            OperationStorage.deleteOperationById(lastId);
+            return CmdResult.success();
+        });
+
+        restart();
+
+        assertTrue(createOperation(account(account), category(category), -1.0, null).getId() > lastId);
+        assertTrue(createAccount("Second", 0.0).getId() > account.getId());
+        assertTrue(createCategory("Rent").getId() > category.getId());
+    }
+
+    @Test
+    void open_ShouldNotReuseIdsAfterSnapshot() throws Exception {
+        BankAccount account = createAccount("Main", 1000.0);
+        Category category = createCategory("Food");
+        int lastId = createOperationsConcurrently(account, category);
+        journal.record(deleteCommand(DomainObjectType.OPERATION, lastId), () -> {
+            OperationStorage.deleteOperationById(lastId);
+            return CmdResult.success();
+        });
+        journal.snapshot().join();
+
+        restart();
+
+        assertTrue(Files.notExists(directory.resolve("bank.journal.0")));
+        assertTrue(createOperation(account(account), category(category), -1.0, null).getId() > lastId);
+        assertTrue(createAccount("Second", 0.0).getId() > account.getId());
+        assertTrue(createCategory("Rent").getId() > category.getId());
+    }
+
+    @Test
+    void createOperation_ShouldRejectAccountDeletedAfterValidation() throws IOException {
+        BankAccount account = createAccount("Main", 100.0);
+        BankAccount other = createAccount("Other", 100.0);
+        Category category = createCategory("Food");
+        deleteAccount(account);
+        OperationData data = new OperationData(false, account, -1.0, category, Optional.empty());
+        CommandData command = new CommandData(CmdType.CREATE, DomainObjectType.OPERATION, data);
+
+        assertThrows(IllegalArgumentException.class, () -> createOperation(account, category, -1.0, null));
+        assertThrows(IllegalArgumentException.class, () -> OperationFactory.createTransfer(
+            new TransferData(other, account, 1.0, category, Optional.empty())));
+        List<CmdResult<?>> results = journal.recordBatch(List.of(command),
+            () -> new CreateCmd().executeOperations(List.of(command)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(0, OperationStorage.size());
+        restart();
+        assertNull(AccountStorage.getUserById(account.getId()));
+        assertEquals(0, OperationStorage.size());
+    }
+
+    @Test
+    void open_ShouldReplayOperationJournaledAfterItsAccountWasDeleted() throws IOException {
+        BankAccount account = createAccount("Main", 100.0);
+        BankAccount kept = createAccount("Kept", 100.0);
+        Category category = createCategory("Food");
+        OperationData data = new OperationData(false, account, -30.0, category, Optional.of("Late"));
+        Operation late = OperationFactory.createOperation(data);
+        OperationStorage.addOperation(late);
+        deleteAccount(account);
+        journal.record(new CommandData(CmdType.CREATE, DomainObjectType.OPERATION, data),
+            () -> new CmdResult<>(late, null));
+        createOperation(kept, category, -10.0, null);
+
+        restart();
+
+        assertNull(AccountStorage.getUserById(account.getId()));
+        assertEquals(90.0, AccountStorage.getUserById(kept.getId()).getBalance());
+        assertEquals(2, OperationStorage.size());
+        Operation replayed = OperationStorage.getOperationById(late.getId());
+        assertEquals(account.getId(), replayed.getAccount().getId());
+        assertEquals(Optional.of("Late"), replayed.getDescription());
+    }
+
+    @Test
+    void open_ShouldRejectSyncSettingsWhichAreNotPositive() {
+        assertThrows(IllegalStateException.class, () -> openJournal(64, 0L));
+        assertThrows(IllegalStateException.class, () -> openJournal(0, 10L));
+    }
+
+    private CommandJournal openJournal() throws IOException {
+        return openJournal(64, 10L);
+    }
+
+    private CommandJournal openJournal(int syncBatch, long syncIntervalMillis) throws IOException {
+        CommandJournal newJournal = new CommandJournal();
+        ReflectionTestUtils.setField(newJournal, "path", path.toString());
+        ReflectionTestUtils.setField(newJournal, "syncBatch", syncBatch);
+        ReflectionTestUtils.setField(newJournal, "syncIntervalMillis", syncIntervalMillis);
+        ReflectionTestUtils.setField(newJournal, "awaitSync", false);
+        ReflectionTestUtils.setField(newJournal, "snapshotIntervalSeconds", 0L);
+        ReflectionTestUtils.setField(newJournal, "metricsRegistry", new MetricsRegistry());
+        newJournal.open();
+        return newJournal;
+    }
+
+    private void restart() throws IOException {
+        journal.close();
+        clearStorages();
+        journal = openJournal();
+    }
+
+    private BankAccount createAccount(String name, double balance) {
+        BankAccountData data = new BankAccountData(name, balance);
+        CmdResult<?> result = journal.record(new CommandData(CmdType.CREATE, DomainObjectType.ACCOUNT, data), () -> {
+            BankAccount account = BankAccountFactory.createAccount(data);
+            AccountStorage.addUser(account);
+            return new CmdResult<>(account, null);
+        });
+        return result.getBankAccount();
+    }
+
+    private Category createCategory(String name) {
+        CategoryData data = new CategoryData(true, name);
+        CmdResult<?> result = journal.record(new CommandData(CmdType.CREATE, DomainObjectType.CATEGORY, data), () -> {
+            Category category = CategoryFactory.createCategory(data);
+            CategoryStorage.addCategory(category);
+            return new CmdResult<>(category, null);
+        });
+        return result.getCategory();
+    }
+
+    private void deleteAccount(BankAccount account) {
+        journal.record(deleteCommand(DomainObjectType.ACCOUNT, account.getId()), () -> {
+            AccountStorage.deleteUserById(account.getId());
+            return CmdResult.success();
+        });
+    }
+
+    private Operation createOperation(BankAccount account, Category category, double amount, String description) {
+        OperationData data = new OperationData(true, account, amount, category, Optional.ofNullable(description));
+        CommandData command = new CommandData(CmdType.CREATE, DomainObjectType.OPERATION, data);
+        CmdResult<?> result = journal.record(command, () -> {
+            Operation operation = OperationFactory.createOperation(data);
+            OperationStorage.addOperation(operation);
+            return new CmdResult<>(operation, null);
+        });
+        return result.getOperation();
+    }
+
+    private int createOperationsConcurrently(BankAccount account, Category category) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                int lastId = -1;
+                for (int i = 0; i < 50; i++) {
+                    lastId = Math.max(lastId, createOperation(account, category, -1.0, null).getId());
+                }
+                return lastId;
+            }));
+        }
+        int lastId = -1;
+        for (Future<Integer> future : futures) {
+            lastId = Math.max(lastId, future.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+        return lastId;
+    }
+
+    private static BankAccount account(BankAccount account) {
+        return AccountStorage.getUserById(account.getId());
+    }
+
+    private static Category category(Category category) {
+        return CategoryStorage.getCategoryById(category.getId());
+    }
+
+    private static List<String> describe(List<Operation> operations) {
+        return operations.stream()
+            .map(op -> op.getId() + "," + op.getAmount() + "," + op.getDate() + "," + op.getDescription())
+            .sorted()
+            .toList();
+    }
+
+    private static CommandData deleteCommand(DomainObjectType type, int id) {
+        return new CommandData(CmdType.DELETE, type, new MiscData(id));
+    }
+
+    private static void clearStorages() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
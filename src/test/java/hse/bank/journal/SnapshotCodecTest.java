@@ -0,0 +1,126 @@
+package hse.bank.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the Snapshot and SnapshotCodec classes.
+ */
+class SnapshotCodecTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 5, 1, 8, 0, 0, 123_456_789);
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        clearStorages();
+        BankAccount main = new BankAccount(0, "Main", 150.5);
+        BankAccount closed = new BankAccount(1, "Closed", 0.0);
+        Category salary = new Category(0, true, "Salary");
+        Category food = new Category(1, false, "Еда, \"кафе\"");
+        AccountStorage.addUser(main);
+        AccountStorage.addUser(closed);
+        CategoryStorage.addCategory(salary);
+        CategoryStorage.addCategory(food);
+        for (int id = 0; id < 10_000; id++) {
+            Category category = id % 2 == 0 ? salary : food;
+            OperationStorage.addOperation(new Operation(id, category.isPositive(), id % 3 == 0 ? closed : main,
+                id % 2 == 0 ? id : -id, START.plusSeconds(id), category,
+                id % 5 == 0 ? Optional.of("Note " + id) : Optional.empty()));
+        }
+        AccountStorage.deleteUserById(1);
+        BankAccountFactory.restoreLastId(1);
+        CategoryFactory.restoreLastId(1);
+        OperationFactory.restoreLastId(9999);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearStorages();
+    }
+
+    @Test
+    void load_ShouldRestoreWrittenState() throws IOException {
+        Path file = directory.resolve("bank.snapshot");
+        List<String> operations = describe(OperationStorage.getOperations());
+
+        assertEquals(10_000, SnapshotCodec.write(Snapshot.capture(5), file));
+        clearStorages();
+
+        assertEquals(5, SnapshotCodec.load(file));
+        assertEquals(1, AccountStorage.size());
+        assertEquals(150.5, AccountStorage.getUserById(0).getBalance());
+        assertEquals("Еда, \"кафе\"", CategoryStorage.getCategoryById(1).getName());
+        assertEquals(operations, describe(OperationStorage.getOperations()));
+        assertEquals(AccountStorage.getUserById(0), OperationStorage.getOperationById(1).getAccount());
+        assertEquals("", OperationStorage.getOperationById(3).getAccount().getName());
+        assertEquals(1, BankAccountFactory.getLastId());
+        assertEquals(1, CategoryFactory.getLastId());
+        assertEquals(9999, OperationFactory.getLastId());
+    }
+
+    @Test
+    void write_ShouldReadOperationsChangedAfterCapture() throws IOException {
+        Path file = directory.resolve("bank.snapshot");
+        Snapshot snapshot = Snapshot.capture(2);
+        OperationStorage.deleteOperationById(4);
+        AccountStorage.getUserById(0).setBalance(0.0);
+
+        assertEquals(9999, SnapshotCodec.write(snapshot, file));
+        SnapshotCodec.load(file);
+
+        assertEquals(null, OperationStorage.getOperationById(4));
+        assertEquals(150.5, AccountStorage.getUserById(0).getBalance());
+    }
+
+    @Test
+    void load_ShouldRejectDamagedFile() throws IOException {
+        Path file = directory.resolve("bank.snapshot");
+        SnapshotCodec.write(Snapshot.capture(1), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        List<String> operations = describe(OperationStorage.getOperations());
+
+        assertThrows(IOException.class, () -> SnapshotCodec.load(file));
+        assertEquals(operations, describe(OperationStorage.getOperations()));
+    }
+
+    private static List<String> describe(List<Operation> operations) {
+        return operations.stream()
+            .map(op -> op.getId() + "," + op.isType() + "," + op.getAccount().getId() + "," + op.getAmount() + ","
+                + op.getDate() + "," + op.getCategory().getId() + "," + op.getDescription())
+            .toList();
+    }
+
+    private static void clearStorages() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
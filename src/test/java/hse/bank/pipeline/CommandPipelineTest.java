@@ -0,0 +1,257 @@
+package hse.bank.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.cmd.CmdResult;
+import hse.bank.enums.CmdType;
+import hse.bank.enums.DomainObjectType;
+import hse.bank.records.CommandData;
+import hse.bank.records.MiscData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress tests of CommandPipeline driven from many threads.
+ */
+class CommandPipelineTest {
+    private static final int THREADS = 8;
+    private static final int COMMANDS_PER_THREAD = 5000;
+
+    /**
+     * Ids of the applied commands in the order the handler saw them.
+     */
+    private final List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+    private CommandPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void publish_ShouldApplyCommandsOfEveryProducerInOrderAcrossWraparound() throws Exception {
+        pipeline = new CommandPipeline(4, this::record);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            producers.add(executor.submit(() -> {
+                start.await();
+                List<CompletableFuture<CmdResult>> futures = new ArrayList<>(COMMANDS_PER_THREAD);
+                for (int i = 0; i < COMMANDS_PER_THREAD; i++) {
+                    futures.add(pipeline.publish(command(thread * COMMANDS_PER_THREAD + i)));
+                }
+                for (CompletableFuture<CmdResult> future : futures) {
+                    assertTrue(future.get(1, TimeUnit.MINUTES).isSuccess());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> producer : producers) {
+            producer.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int total = THREADS * COMMANDS_PER_THREAD;
+        assertEquals(total, applied.size());
+        assertEquals(total, new HashSet<>(applied).size());
+        int[] last = new int[THREADS];
+        Arrays.fill(last, -1);
+        for (int id : applied) {
+            int thread = id / COMMANDS_PER_THREAD;
+            assertTrue(id > last[thread], "command " + id + " applied after " + last[thread]);
+            last[thread] = id;
+        }
+        PipelineMetrics metrics = pipeline.metrics();
+        assertEquals(4, metrics.capacity());
+        assertEquals(total, metrics.published());
+        assertEquals(total, metrics.applied());
+        assertEquals(0, metrics.depth());
+    }
+
+    @Test
+    void publish_ShouldWaitWhileBufferIsFull() throws Exception {
+        CountDownLatch handlerEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline = new CommandPipeline(2, (commands, futures) -> {
+            handlerEntered.countDown();
+            await(release);
+            record(commands, futures);
+        });
+        CompletableFuture<CmdResult> first = pipeline.publish(command(0));
+        assertTrue(handlerEntered.await(1, TimeUnit.MINUTES));
+        CompletableFuture<CmdResult> second = pipeline.publish(command(1));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<CompletableFuture<CmdResult>> blocked = executor.submit(() -> pipeline.publish(command(2)));
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+        assertFalse(first.isDone());
+        assertEquals(2, pipeline.metrics().depth());
+
+        release.countDown();
+        assertTrue(blocked.get(1, TimeUnit.MINUTES).get(1, TimeUnit.MINUTES).isSuccess());
+        executor.shutdown();
+
+        assertTrue(first.get(1, TimeUnit.MINUTES).isSuccess());
+        assertTrue(second.get(1, TimeUnit.MINUTES).isSuccess());
+        assertEquals(List.of(0, 1, 2), applied);
+        assertEquals(1, pipeline.metrics().backpressureWaits());
+    }
+
+    @Test
+    void close_ShouldApplyPublishedCommandsAndRejectNewOnes() throws Exception {
+        pipeline = new CommandPipeline(64, (commands, futures) -> {
+            sleep(5);
+            record(commands, futures);
+        });
+        List<CompletableFuture<CmdResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(pipeline.publish(command(i)));
+        }
+
+        pipeline.close();
+
+        for (CompletableFuture<CmdResult> future : futures) {
+            assertTrue(future.isDone());
+            assertTrue(future.get().isSuccess());
+        }
+        assertEquals(100, applied.size());
+        CompletableFuture<CmdResult> rejected = pipeline.publish(command(100));
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(100, applied.size());
+        pipeline.close();
+    }
+
+    @Test
+    void close_ShouldReleaseProducersWaitingForFullBuffer() throws Exception {
+        CountDownLatch handlerEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline = new CommandPipeline(1, (commands, futures) -> {
+            handlerEntered.countDown();
+            await(release);
+            record(commands, futures);
+        });
+        CompletableFuture<CmdResult> first = pipeline.publish(command(0));
+        assertTrue(handlerEntered.await(1, TimeUnit.MINUTES));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<CompletableFuture<CmdResult>> blocked = executor.submit(() -> pipeline.publish(command(1)));
+        assertThrows(TimeoutException.class, () -> blocked.get(100, TimeUnit.MILLISECONDS));
+
+        Future<?> closing = executor.submit(() -> pipeline.close());
+        CompletableFuture<CmdResult> second = blocked.get(1, TimeUnit.MINUTES);
+        release.countDown();
+        closing.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        assertTrue(first.get().isSuccess());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(List.of(0), applied);
+    }
+
+    @Test
+    void publish_ShouldFailRunWhoseHandlerThrowsAndKeepApplyingLaterOnes() throws Exception {
+        RuntimeException failure = new IllegalArgumentException("handler failed");
+        pipeline = new CommandPipeline(16, (commands, futures) -> {
+            if (commands.stream().anyMatch(data -> data.miscData().id() < 0)) {
+                throw failure;
+            }
+            record(commands, futures);
+        });
+
+        CompletableFuture<CmdResult> failed = pipeline.publish(command(-1));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.MINUTES));
+        assertSame(failure, e.getCause());
+
+        CompletableFuture<CmdResult> later = pipeline.publish(command(1));
+        assertTrue(later.get(1, TimeUnit.MINUTES).isSuccess());
+        assertEquals(List.of(1), applied);
+    }
+
+    @Test
+    void publish_ShouldCompleteFuturesTheHandlerCompletedBeforeThrowing() throws Exception {
+        CountDownLatch handlerEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline = new CommandPipeline(16, (commands, futures) -> {
+            if (commands.get(0).miscData().id() == 0) {
+                handlerEntered.countDown();
+                await(release);
+                record(commands, futures);
+                return;
+            }
+            futures.get(0).complete(CmdResult.success());
+            throw new IllegalStateException("handler failed");
+        });
+        pipeline.publish(command(0));
+        assertTrue(handlerEntered.await(1, TimeUnit.MINUTES));
+        CompletableFuture<CmdResult> completed = pipeline.publish(command(1));
+        CompletableFuture<CmdResult> failed = pipeline.publish(command(2));
+
+        release.countDown();
+
+        assertTrue(completed.get(1, TimeUnit.MINUTES).isSuccess());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.MINUTES));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void constructor_ShouldRoundCapacityUpToPowerOfTwo() {
+        pipeline = new CommandPipeline(5, this::record);
+
+        assertEquals(8, pipeline.metrics().capacity());
+        assertThrows(IllegalArgumentException.class, () -> new CommandPipeline(0, this::record));
+    }
+
+    /**
+     * Handler recording ids of the commands and completing them successfully.
+     */
+    private void record(List<CommandData> commands, List<CompletableFuture<CmdResult>> futures) {
+        for (int i = 0; i < commands.size(); i++) {
+            applied.add(commands.get(i).miscData().id());
+            futures.get(i).complete(CmdResult.success());
+        }
+    }
+
+    private static CommandData command(int id) {
+        return new CommandData(CmdType.GET, DomainObjectType.ACCOUNT, new MiscData(id));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
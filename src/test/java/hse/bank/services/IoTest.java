@@ -64,6 +64,20 @@ class IoTest {
         assertEquals(120.0, facade.getAccount(0).getBalance());
     }
 
+    /**
+     * Tests that names with commas and quotes survive a CSV round trip.
+     */
+    @Test
+    void importQuotedCsvFields() {
+        facade.flush();
+        facade.createAccount("Main, \"savings\"", 100.0);
+        facade.exportData("./test.csv", IoFormat.CSV);
+
+        facade.flush();
+        facade.importData("./test.csv", IoFormat.CSV);
+        assertEquals("Main, \"savings\"", facade.getAccount(0).getName());
+    }
+
     /**
      * Helper method to export data to JSON format.
      */
@@ -0,0 +1,78 @@
+package hse.bank.services.exporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hse.bank.services.importers.CsvImporter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the CsvExporter class.
+ */
+class CsvExporterTest {
+    /**
+     * Table the exporter wrote with a print writer and {@link String#format}.
+     */
+    private static final String LEGACY_OUTPUT = """
+        === Accounts ===
+        ID,Name,Balance
+        0,"Main <savings> & 'cash' = ""all\""",150.50
+        2,"Кошелёк, запас",-3.25
+
+        === Categories ===
+        ID,Name
+        0,true,Salary
+        1,false,"Food & drinks
+        weekly"
+
+        === Operations ===
+        ID,Amount,Type,CategoryID
+        0,true,0,100.00,2024-05-01T08:00,0,Bonus <b>
+        1,false,2,-0.01,2024-05-01T08:00:30,1,
+        5,false,0,-12.35,2024-05-02T23:59:59.120,1,"a=b, 'c'"
+        3,true,2,1000000000.00,2024-12-31T00:00:00.000000001,0,""
+        """;
+
+    @BeforeEach
+    void setUp() {
+        ExportTestData.clear();
+        ExportTestData.fill();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ExportTestData.clear();
+    }
+
+    @Test
+    void exportData_ShouldWriteLegacyTable() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new CsvExporter().exportData(out);
+
+        assertEquals(LEGACY_OUTPUT.replace("\n", System.lineSeparator()), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportData_ShouldBeImportedBackToCents() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvExporter().exportData(out);
+        ExportTestData.clear();
+
+        new CsvImporter().importData(new ByteArrayInputStream(out.toByteArray()));
+
+        List<String> imported = ExportTestData.describe();
+        assertEquals(2 + 2 + 4, imported.size());
+        assertEquals("0|Main <savings> & 'cash' = \"all\"|150.5", imported.get(0));
+        assertEquals("1|false|Food & drinks\nweekly", imported.get(3));
+        assertEquals("1|false|2|-0.01|2024-05-01T08:00:30|1|null", imported.get(5));
+        assertEquals("5|false|0|-12.35|2024-05-02T23:59:59.120|1|a=b, 'c'", imported.get(6));
+        assertEquals("3|true|2|1.0E9|2024-12-31T00:00:00.000000001|0|", imported.get(7));
+    }
+}
@@ -0,0 +1,136 @@
+package hse.bank.services.exporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the CsvWriter class.
+ */
+class CsvWriterTest {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final CsvWriter writer = new CsvWriter(out);
+
+    @Test
+    void cents_ShouldWriteLikeFormatter() throws IOException {
+        List<Double> values = new ArrayList<>(List.of(0.0, -0.0, 0.001, -0.001, 0.004, -0.004, 0.005, -0.005,
+            0.015, -0.015, 0.125, -0.125, 1.005, -1.005, 2.675, -2.675, 10.995, -10.995, 150.5, -3.25, 12.345,
+            -12.345, 0.1 + 0.2, 99.999, -99.999, 999_999_999.995, -999_999_999.995, 1e9, -1e9, 1e9 + 0.005,
+            1e15, 1e300, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY));
+        for (int thousandths = -20_000; thousandths <= 20_000; thousandths++) {
+            values.add(thousandths / 1000.0);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            values.add((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12)));
+        }
+
+        for (double value : values) {
+            assertEquals(String.format(Locale.ROOT, "%.2f", value), write(() -> writer.cents(value)),
+                "cents of " + value);
+        }
+    }
+
+    @Test
+    void dateTime_ShouldWriteLikeToString() throws IOException {
+        List<LocalDateTime> values = List.of(
+            LocalDateTime.of(2024, 5, 1, 8, 0),
+            LocalDateTime.of(2024, 5, 1, 0, 0, 0, 0),
+            LocalDateTime.of(2024, 5, 1, 8, 0, 30),
+            LocalDateTime.of(2024, 5, 1, 8, 0, 0, 500_000_000),
+            LocalDateTime.of(2024, 5, 1, 8, 0, 0, 1),
+            LocalDateTime.of(2024, 5, 2, 23, 59, 59, 120_000_000),
+            LocalDateTime.of(2024, 5, 2, 23, 59, 59, 123_400_000),
+            LocalDateTime.of(2024, 5, 2, 23, 59, 59, 123_456_000),
+            LocalDateTime.of(2024, 5, 2, 23, 59, 59, 123_456_789),
+            LocalDateTime.of(2024, 12, 31, 0, 0, 0, 999_999_999),
+            LocalDateTime.of(1000, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            LocalDateTime.of(999, 1, 1, 0, 0),
+            LocalDateTime.of(10_000, 1, 1, 0, 0, 1),
+            LocalDateTime.of(-1, 1, 1, 0, 0),
+            LocalDateTime.MIN,
+            LocalDateTime.MAX);
+
+        for (LocalDateTime value : values) {
+            assertEquals(value.toString(), write(() -> writer.dateTime(value)));
+        }
+    }
+
+    @Test
+    void integer_ShouldWriteLikeFormatter() throws IOException {
+        for (int value : new int[] {0, 7, -7, 10, -10, 123_456, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            assertEquals(String.format(Locale.ROOT, "%d", value), write(() -> writer.integer(value)));
+        }
+    }
+
+    @Test
+    void field_ShouldQuoteOnlyValuesNotReadBackAsIs() throws IOException {
+        assertEquals("Salary", write(() -> writer.field("Salary")));
+        assertEquals("Кошелёк", write(() -> writer.field("Кошелёк")));
+        assertEquals("null", write(() -> writer.field(null)));
+        assertEquals("\"\"", write(() -> writer.field("")));
+        assertEquals("\" padded \"", write(() -> writer.field(" padded ")));
+        assertEquals("\"a, b\"", write(() -> writer.field("a, b")));
+        assertEquals("\"say \"\"hi\"\"\"", write(() -> writer.field("say \"hi\"")));
+        assertEquals("\"two\nlines\"", write(() -> writer.field("two\nlines")));
+        assertEquals("\"carriage\rreturn\"", write(() -> writer.field("carriage\rreturn")));
+    }
+
+    @Test
+    void text_ShouldEncodeLikeStringBytes() throws IOException {
+        String value = "aéЖ€😀z";
+
+        assertEquals(value, write(() -> writer.text(value)));
+        assertEquals("broken?pair?", write(() -> writer.text("broken\uD83Dpair\uDE00")));
+    }
+
+    @Test
+    void flush_ShouldWriteRowsLongerThanBuffer() throws IOException {
+        String value = "Кошелёк, ".repeat(20_000);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            writer.integer(i).comma().field(value).newLine();
+            expected.append(i).append(",\"").append(value).append('"').append(System.lineSeparator());
+        }
+
+        writer.flush();
+
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs write of one value.
+     *
+     * @param action Write
+     * @return Text the write appended
+     * @throws IOException If the stream fails
+     */
+    private String write(Action action) throws IOException {
+        out.reset();
+        action.run();
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write of one value.
+     */
+    private interface Action {
+        /**
+         * Writes value.
+         *
+         * @throws IOException If the stream fails
+         */
+        void run() throws IOException;
+    }
+}
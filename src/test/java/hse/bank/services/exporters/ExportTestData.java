@@ -0,0 +1,77 @@
+package hse.bank.services.exporters;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storages filled for the exporter tests.
+ */
+final class ExportTestData {
+    private ExportTestData() {
+    }
+
+    /**
+     * Fills storages with values the legacy exporters escaped, quoted or formatted in special ways.
+     */
+    static void fill() {
+        BankAccount main = new BankAccount(0, "Main <savings> & 'cash' = \"all\"", 150.5);
+        BankAccount wallet = new BankAccount(2, "Кошелёк, запас", -3.25);
+        Category salary = new Category(0, true, "Salary");
+        Category food = new Category(1, false, "Food & drinks\nweekly");
+        AccountStorage.addUser(main);
+        AccountStorage.addUser(wallet);
+        CategoryStorage.addCategory(salary);
+        CategoryStorage.addCategory(food);
+        OperationStorage.addOperation(new Operation(0, true, main, 100.0, LocalDateTime.of(2024, 5, 1, 8, 0),
+            salary, Optional.of("Bonus <b>")));
+        OperationStorage.addOperation(new Operation(1, false, wallet, -0.005, LocalDateTime.of(2024, 5, 1, 8, 0, 30),
+            food, Optional.empty()));
+        OperationStorage.addOperation(new Operation(5, false, main, -12.345,
+            LocalDateTime.of(2024, 5, 2, 23, 59, 59, 120_000_000), food, Optional.of("a=b, 'c'")));
+        OperationStorage.addOperation(new Operation(3, true, wallet, 1e9, LocalDateTime.of(2024, 12, 31, 0, 0, 0, 1),
+            salary, Optional.of("")));
+    }
+
+    /**
+     * Describes stored objects, so storages can be compared after a round trip.
+     *
+     * @return One line per object
+     */
+    static List<String> describe() {
+        List<String> result = new ArrayList<>();
+        for (BankAccount account : AccountStorage.getAccounts()) {
+            result.add(account.getId() + "|" + account.getName() + "|" + account.getBalance());
+        }
+        for (Category category : CategoryStorage.getCategories()) {
+            result.add(category.getId() + "|" + category.isPositive() + "|" + category.getName());
+        }
+        for (Operation op : OperationStorage.getOperations()) {
+            result.add(op.getId() + "|" + op.isType() + "|" + op.getAccount().getId() + "|" + op.getAmount() + "|"
+                + op.getDate() + "|" + op.getCategory().getId() + "|" + op.getDescription().orElse(null));
+        }
+        return result;
+    }
+
+    /**
+     * Empties the storages and resets the ids.
+     */
+    static void clear() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
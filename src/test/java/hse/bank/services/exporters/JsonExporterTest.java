@@ -0,0 +1,190 @@
+package hse.bank.services.exporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the JsonExporter class.
+ */
+class JsonExporterTest {
+    /**
+     * Document the exporter wrote when it serialized the storages with Gson.
+     */
+    private static final String LEGACY_OUTPUT = """
+        {
+          "accounts": [
+            {
+              "id": 0,
+              "name": "Main \\u003csavings\\u003e \\u0026 \\u0027cash\\u0027 \\u003d \\"all\\"",
+              "balance": 150.5
+            },
+            {
+              "id": 2,
+              "name": "Кошелёк, запас",
+              "balance": -3.25
+            }
+          ],
+          "categories": [
+            {
+              "id": 0,
+              "isPositive": true,
+              "name": "Salary"
+            },
+            {
+              "id": 1,
+              "isPositive": false,
+              "name": "Food \\u0026 drinks\\nweekly"
+            }
+          ],
+          "operations": [
+            {
+              "id": 0,
+              "type": true,
+              "amount": 100.0,
+              "accountId": 0,
+              "date": "2024-05-01T08:00:00",
+              "categoryId": 0,
+              "description": "Bonus \\u003cb\\u003e"
+            },
+            {
+              "id": 1,
+              "type": false,
+              "amount": -0.005,
+              "accountId": 2,
+              "date": "2024-05-01T08:00:30",
+              "categoryId": 1
+            },
+            {
+              "id": 5,
+              "type": false,
+              "amount": -12.345,
+              "accountId": 0,
+              "date": "2024-05-02T23:59:59.12",
+              "categoryId": 1,
+              "description": "a\\u003db, \\u0027c\\u0027"
+            },
+            {
+              "id": 3,
+              "type": true,
+              "amount": 1.0E9,
+              "accountId": 2,
+              "date": "2024-12-31T00:00:00.000000001",
+              "categoryId": 0,
+              "description": ""
+            }
+          ]
+        }""";
+
+    @BeforeEach
+    void setUp() {
+        ExportTestData.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ExportTestData.clear();
+    }
+
+    @Test
+    void exportData_ShouldWriteLegacyDocument() {
+        ExportTestData.fill();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new JsonExporter().exportData(out);
+
+        assertEquals(LEGACY_OUTPUT, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportData_ShouldWriteCompactDocument() {
+        ExportTestData.fill();
+        JsonExporter exporter = new JsonExporter();
+        exporter.setPretty(false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.exportData(out);
+
+        assertEquals(LEGACY_OUTPUT.replaceAll("\\n *", "").replace("\": ", "\":"),
+            out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportData_ShouldNotBlockWritersWhileWriting() throws Exception {
+        BankAccount account = new BankAccount(0, "Main", 0.0);
+        Category category = new Category(0, true, "Salary");
+        AccountStorage.addUser(account);
+        CategoryStorage.addCategory(category);
+        List<Operation> operations = new ArrayList<>();
+        for (int id = 0; id < 20_000; id++) {
+            operations.add(operation(id, account, category));
+        }
+        OperationStorage.setOperations(operations);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writing.countDown();
+                try {
+                    written.await(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new IOException(e));
+                }
+                bytes.write(b, off, len);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<?> export = executor.submit(() -> new JsonExporter().exportData(out));
+        assertTrue(writing.await(1, TimeUnit.MINUTES));
+        executor.submit(() -> {
+            OperationStorage.addOperations(List.of(operation(20_000, account, category)));
+            OperationStorage.setOperations(operations.subList(0, 10_000));
+        }).get(10, TimeUnit.SECONDS);
+        written.countDown();
+        export.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        String document = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(document.endsWith("]\n}"));
+        assertTrue(document.contains("\"id\": 9999,"));
+        assertFalse(document.contains("\"id\": 20000,"));
+    }
+
+    private static Operation operation(int id, BankAccount account, Category category) {
+        return new Operation(id, true, account, id, LocalDateTime.of(2024, 5, 1, 8, 0).plusSeconds(id), category,
+            Optional.of("Operation " + id));
+    }
+}
@@ -0,0 +1,117 @@
+package hse.bank.services.exporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hse.bank.services.importers.YamlImporter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Tests for the YamlExporter class.
+ */
+class YamlExporterTest {
+    /**
+     * Document the exporter wrote when it dumped the storages as maps.
+     */
+    private static final String LEGACY_OUTPUT = """
+        accounts:
+        - id: 0
+          name: Main <savings> & 'cash' = "all"
+          balance: 150.5
+        - id: 2
+          name: Кошелёк, запас
+          balance: -3.25
+        categories:
+        - id: 0
+          name: Salary
+          positive: true
+        - id: 1
+          name: |-
+            Food & drinks
+            weekly
+          positive: false
+        operations:
+        - id: 0
+          type: true
+          amount: 100.0
+          accountId: 0
+          date: '2024-05-01T08:00:00'
+          categoryId: 0
+          description: Bonus <b>
+        - id: 1
+          type: false
+          amount: -0.005
+          accountId: 2
+          date: '2024-05-01T08:00:30'
+          categoryId: 1
+        - id: 5
+          type: false
+          amount: -12.345
+          accountId: 0
+          date: '2024-05-02T23:59:59.12'
+          categoryId: 1
+          description: a=b, 'c'
+        - id: 3
+          type: true
+          amount: 1.0E9
+          accountId: 2
+          date: '2024-12-31T00:00:00.000000001'
+          categoryId: 0
+          description: ''
+        """;
+
+    @BeforeEach
+    void setUp() {
+        ExportTestData.clear();
+        ExportTestData.fill();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ExportTestData.clear();
+    }
+
+    @Test
+    void exportData_ShouldWriteLegacyDocument() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new YamlExporter().exportData(out);
+
+        assertEquals(LEGACY_OUTPUT, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportData_ShouldWriteSameDocumentAsDumper() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new YamlExporter().exportData(out);
+        String document = out.toString(StandardCharsets.UTF_8);
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setPrettyFlow(true);
+
+        Map<String, Object> tree = new Yaml().load(document);
+
+        assertEquals(new Yaml(options).dump(tree), document);
+    }
+
+    @Test
+    void exportData_ShouldBeImportedBack() throws IOException {
+        List<String> exported = ExportTestData.describe();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new YamlExporter().exportData(out);
+        ExportTestData.clear();
+
+        new YamlImporter().importData(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(exported, ExportTestData.describe());
+    }
+}
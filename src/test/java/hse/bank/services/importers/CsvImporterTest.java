@@ -0,0 +1,171 @@
+package hse.bank.services.importers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for the CsvImporter class.
+ */
+class CsvImporterTest {
+    /**
+     * Chunk size small enough to cut the operations section in the middle of most rows.
+     */
+    private static final int CHUNK_SIZE = 61;
+    private static final int OPERATIONS = 500;
+    private static final String HEAD = """
+        === Accounts ===
+        ID,Name,Balance
+        0,"Main, ""savings""
+        and cash",150.50
+        1,Wallet,-3.25
+        2," Spaced ",0.00
+
+        === Categories ===
+        ID,Name
+        0,true,Salary
+        1,false,"Food,
+        drinks"
+
+        === Operations ===
+        ID,Amount,Type,CategoryID
+        """;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        clearStorages();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearStorages();
+    }
+
+    @Test
+    void importData_ShouldParseChunksLikeSingleThread() throws IOException {
+        Path file = write(HEAD + operations(false));
+        List<String> sequential = importWith(file, 1);
+
+        List<String> parallel = importWith(file, 4);
+
+        assertEquals(3 + 2 + OPERATIONS, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void importData_ShouldReadOperationsWithQuotedLineBreaksLikeSingleThread() throws IOException {
+        Path file = write(HEAD + operations(true));
+        List<String> sequential = importWith(file, 1);
+
+        List<String> parallel = importWith(file, 4);
+
+        assertEquals(3 + 2 + OPERATIONS, sequential.size());
+        assertEquals("Line\nbreak 7", OperationStorage.getOperationById(7).getDescription().orElseThrow());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void importData_ShouldReadSmallFileLikeSingleThread() throws IOException {
+        Path file = write(HEAD + "0,true,1,10.00,2024-05-01T08:00,0,Note\n");
+        List<String> sequential = importWith(file, 1);
+
+        List<String> parallel = importWith(file, 4);
+
+        assertEquals(sequential, parallel);
+    }
+
+    /**
+     * Imports file into empty storages.
+     *
+     * @param file    Csv file
+     * @param threads Number of threads parsing the operations section
+     * @return Descriptions of the imported objects
+     * @throws IOException If the import fails
+     */
+    private static List<String> importWith(Path file, int threads) throws IOException {
+        clearStorages();
+        CsvImporter importer = new CsvImporter();
+        importer.setThreads(threads);
+        importer.setChunkSize(CHUNK_SIZE);
+        try (InputStream in = new FileInputStream(file.toFile())) {
+            importer.importData(in);
+        }
+        return describeStorages();
+    }
+
+    /**
+     * Builds operation rows of different lengths, so chunk bounds fall at different places of a row.
+     *
+     * @param quoted Whether every seventh description is quoted and holds a line break
+     * @return Rows of the operations section
+     */
+    private static String operations(boolean quoted) {
+        StringBuilder csv = new StringBuilder();
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 8, 0);
+        for (int id = 0; id < OPERATIONS; id++) {
+            csv.append(id).append(',').append(id % 2 == 0).append(',').append(id % 3).append(',')
+                .append(id % 5 == 0 ? "-" : "").append(id).append('.').append(id % 100).append(',')
+                .append(date.plusSeconds(id * 61L).plusNanos(id % 4 * 250_000_000L)).append(',')
+                .append(id % 2).append(',');
+            if (quoted && id % 7 == 0) {
+                csv.append("\"Line\nbreak ").append(id).append('"');
+            } else if (id % 3 != 0) {
+                csv.append("Note, ").append("x".repeat(id % 17));
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private Path write(String csv) throws IOException {
+        return Files.writeString(directory.resolve("data.csv"), csv, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> describeStorages() {
+        List<String> result = new ArrayList<>();
+        for (BankAccount account : AccountStorage.getAccounts()) {
+            result.add(account.getId() + "|" + account.getName() + "|" + account.getBalance());
+        }
+        for (Category category : CategoryStorage.getCategories()) {
+            result.add(category.getId() + "|" + category.isPositive() + "|" + category.getName());
+        }
+        for (Operation op : OperationStorage.getOperations()) {
+            result.add(op.getId() + "|" + op.isType() + "|" + op.getAccount().getId() + "|" + op.getAmount() + "|"
+                + op.getDate() + "|" + op.getCategory().getId() + "|" + op.getDescription().orElse(null));
+        }
+        return result;
+    }
+
+    private static void clearStorages() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
@@ -0,0 +1,125 @@
+package hse.bank.services.importers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the JsonImporter class.
+ */
+class JsonImporterTest {
+    private static final String ACCOUNTS = """
+        "accounts": [{"id": 3, "name": "Main", "balance": 150.5}]""";
+    private static final String CATEGORIES = """
+        "categories": [{"id": 1, "name": "Salary", "isPositive": true}]""";
+
+    private final JsonImporter importer = new JsonImporter();
+
+    @BeforeEach
+    void setUp() {
+        clearStorages();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearStorages();
+    }
+
+    @Test
+    void importData_ShouldResolveOperationsListedBeforeAccountsAndCategories() throws IOException {
+        String json = "{" + operations(OperationBatch.SIZE + 10) + ", " + ACCOUNTS + ", " + CATEGORIES + "}";
+
+        importer.importData(stream(json));
+
+        assertEquals(OperationBatch.SIZE + 10, OperationStorage.size());
+        Operation operation = OperationStorage.getOperationById(OperationBatch.SIZE + 9);
+        assertSame(AccountStorage.getUserById(3), operation.getAccount());
+        assertSame(CategoryStorage.getCategoryById(1), operation.getCategory());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 0).plusSeconds(OperationBatch.SIZE + 9), operation.getDate());
+        assertEquals("Note", operation.getDescription().orElseThrow());
+        assertEquals(150.5, AccountStorage.getUserById(3).getBalance());
+    }
+
+    @Test
+    void importData_ShouldSkipOperationsOfMissingAccounts() throws IOException {
+        String json = "{" + ACCOUNTS + ", " + CATEGORIES + ", \"operations\": ["
+            + operation(0, 3) + ", " + operation(1, 4) + ", " + operation(2, 3) + "]}";
+
+        importer.importData(stream(json));
+
+        assertEquals(2, OperationStorage.size());
+        assertNull(OperationStorage.getOperationById(1));
+    }
+
+    @Test
+    void importData_ShouldStoreOperationsReadBeforeFailure() {
+        int valid = OperationBatch.SIZE + OperationBatch.SIZE / 2;
+        String operations = operations(valid);
+        String json = "{" + ACCOUNTS + ", " + CATEGORIES + ", "
+            + operations.substring(0, operations.length() - 1)
+            + ", {\"id\": " + valid + ", \"type\": true, \"accountId\": 3, \"categoryId\": 1}]}";
+
+        IOException e = assertThrows(IOException.class, () -> importer.importData(stream(json)));
+
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(valid, OperationStorage.size());
+        assertEquals(valid - 1, OperationStorage.getOperationById(valid - 1).getId());
+        assertNull(OperationStorage.getOperationById(valid));
+    }
+
+    @Test
+    void importData_ShouldStoreResolvedOperationsOfMalformedDocument() {
+        String operations = operations(OperationBatch.SIZE + 1);
+        String json = "{" + ACCOUNTS + ", " + CATEGORIES + ", "
+            + operations.substring(0, operations.length() - 1) + ", {\"id\": ";
+
+        assertThrows(IOException.class, () -> importer.importData(stream(json)));
+
+        assertEquals(OperationBatch.SIZE + 1, OperationStorage.size());
+    }
+
+    private static String operations(int count) {
+        StringBuilder json = new StringBuilder("\"operations\": [");
+        for (int id = 0; id < count; id++) {
+            json.append(id == 0 ? "" : ", ").append(operation(id, 3));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String operation(int id, int accountId) {
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 8, 0).plusSeconds(id);
+        return "{\"id\": " + id + ", \"type\": true, \"amount\": " + id + ".5, \"accountId\": " + accountId
+            + ", \"categoryId\": 1, \"date\": \"" + date + "\", \"description\": \"Note\"}";
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void clearStorages() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
@@ -0,0 +1,209 @@
+package hse.bank.services.importers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.factories.BankAccountFactory;
+import hse.bank.factories.CategoryFactory;
+import hse.bank.factories.OperationFactory;
+import hse.bank.storage.AccountStorage;
+import hse.bank.storage.CategoryStorage;
+import hse.bank.storage.OperationStorage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Tests for the YamlImporter class.
+ */
+class YamlImporterTest {
+    /**
+     * Document with rows the importer has to take or skip the way the importer loading the whole tree did.
+     */
+    private static final String DOCUMENT = """
+        operations:
+        - id: 10
+          type: true
+          amount: 5
+          accountId: 1
+          date: '2024-05-01T08:00:00'
+          categoryId: 2
+          description: Listed before its account
+        - {id: 0x0B, type: yes, amount: 1_000.25, accountId: 2, date: '2024-05-01T08:00:00.5', categoryId: 2}
+        - {id: 12, type: false, amount: -3, accountId: 99, date: '2024-05-01T08:00:00', categoryId: 2}
+        - {id: 13, type: false, amount: ten, accountId: 1, date: '2024-05-01T08:00:00', categoryId: 2}
+        - {id: 14, type: false, amount: [1, 2], accountId: 1, date: '2024-05-01T08:00:00', categoryId: 2}
+        - {id: 15, type: false, amount: 1.5, accountId: 1, date: 2024-05-01T08:00:00, categoryId: 2}
+        - {id: 16, type: false, amount: 1.5, accountId: 1, date: '2024-05-01T08:00:00', categoryId: 2,
+           description: 123}
+        - {id: 17, type: false, amount: 2.5, accountId: 1, date: '2024-05-01T08:00:00', categoryId: 2,
+           description: ~}
+        - {id: 18, type: 'true', amount: 2.5, accountId: 1, date: '2024-05-01T08:00:00', categoryId: 2}
+        - just text
+        accounts:
+        - id: 1
+          name: Main
+          balance: 1_000.5
+        - {id: 2, name: '007', balance: 10}
+        - {id: 3, name: 42, balance: 10}
+        - {id: 4, name: Infinite, balance: .inf}
+        - id: 5
+          name: |-
+            Two
+            lines
+          balance: 0
+        categories:
+        - {id: 2, name: Salary, positive: true}
+        - {id: 3, name: Food, positive: 'false'}
+        - {id: 4, name: Rent, positive: Off}
+        unknown: {nested: [1, 2]}
+        """;
+
+    private final YamlImporter importer = new YamlImporter();
+
+    @BeforeEach
+    void setUp() {
+        clearStorages();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearStorages();
+    }
+
+    @Test
+    void importData_ShouldImportWhatLoadedTreeWouldImport() throws IOException {
+        List<String> expected = legacyImport(DOCUMENT);
+
+        importer.importData(stream(DOCUMENT));
+
+        assertEquals(expected, describeStorages());
+        assertEquals(List.of(10, 11, 17), OperationStorage.getOperations().stream().map(Operation::getId).toList());
+    }
+
+    @Test
+    void importData_ShouldKeepOperationDatesOfTheFile() throws IOException {
+        importer.importData(stream(DOCUMENT));
+
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 0, 0, 500_000_000),
+            OperationStorage.getOperationById(11).getDate());
+    }
+
+    @Test
+    void importData_ShouldAcceptEmptySections() throws IOException {
+        importer.importData(stream("accounts:\ncategories: []\noperations: ~\n"));
+        importer.importData(stream(""));
+
+        assertEquals(0, AccountStorage.size());
+        assertEquals(0, OperationStorage.size());
+    }
+
+    @Test
+    void importData_ShouldFailOnSectionWhichIsNotSequence() {
+        assertThrows(IOException.class, () -> importer.importData(stream("accounts: {id: 1}\n")));
+        assertThrows(IOException.class, () -> importer.importData(stream("accounts: [{id: 1\n")));
+    }
+
+    /**
+     * Imports document the way the importer loading the whole tree did, keeping operation dates of the file.
+     *
+     * @param document Yaml document
+     * @return Descriptions of the imported objects
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> legacyImport(String document) {
+        Map<String, Object> data = new Yaml().load(document);
+        List<String> accounts = new ArrayList<>();
+        Set<Integer> accountIds = new HashSet<>();
+        for (Object item : (List<Object>) data.get("accounts")) {
+            try {
+                Map<String, Object> map = (Map<String, Object>) item;
+                int id = ((Number) map.get("id")).intValue();
+                String name = (String) map.get("name");
+                double balance = ((Number) map.get("balance")).doubleValue();
+                accounts.add(id + "|" + name + "|" + balance);
+                accountIds.add(id);
+            } catch (RuntimeException e) {
+                // skipped like by the old importer
+            }
+        }
+        List<String> categories = new ArrayList<>();
+        Set<Integer> categoryIds = new HashSet<>();
+        for (Object item : (List<Object>) data.get("categories")) {
+            try {
+                Map<String, Object> map = (Map<String, Object>) item;
+                int id = ((Number) map.get("id")).intValue();
+                String name = (String) map.get("name");
+                boolean positive = (Boolean) map.get("positive");
+                categories.add(id + "|" + positive + "|" + name);
+                categoryIds.add(id);
+            } catch (RuntimeException e) {
+                // skipped like by the old importer
+            }
+        }
+        List<String> operations = new ArrayList<>();
+        for (Object item : (List<Object>) data.get("operations")) {
+            try {
+                Map<String, Object> map = (Map<String, Object>) item;
+                int accountId = ((Number) map.get("accountId")).intValue();
+                LocalDateTime date = LocalDateTime.parse((String) map.get("date"));
+                int categoryId = ((Number) map.get("categoryId")).intValue();
+                int id = ((Number) map.get("id")).intValue();
+                boolean type = (Boolean) map.get("type");
+                double amount = ((Number) map.get("amount")).doubleValue();
+                String description = (String) map.get("description");
+                if (accountIds.contains(accountId) && categoryIds.contains(categoryId)) {
+                    operations.add(id + "|" + type + "|" + accountId + "|" + amount + "|" + date + "|" + categoryId
+                        + "|" + description);
+                }
+            } catch (RuntimeException e) {
+                // skipped like by the old importer
+            }
+        }
+        List<String> result = new ArrayList<>(accounts);
+        result.addAll(categories);
+        result.addAll(operations);
+        return result;
+    }
+
+    private static List<String> describeStorages() {
+        List<String> result = new ArrayList<>();
+        for (BankAccount account : AccountStorage.getAccounts()) {
+            result.add(account.getId() + "|" + account.getName() + "|" + account.getBalance());
+        }
+        for (Category category : CategoryStorage.getCategories()) {
+            result.add(category.getId() + "|" + category.isPositive() + "|" + category.getName());
+        }
+        for (Operation op : OperationStorage.getOperations()) {
+            result.add(op.getId() + "|" + op.isType() + "|" + op.getAccount().getId() + "|" + op.getAmount() + "|"
+                + op.getDate() + "|" + op.getCategory().getId() + "|" + op.getDescription().orElse(null));
+        }
+        return result;
+    }
+
+    private static ByteArrayInputStream stream(String yaml) {
+        return new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void clearStorages() {
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        OperationStorage.setOperations(new ArrayList<>());
+        BankAccountFactory.flush();
+        CategoryFactory.flush();
+        OperationFactory.flush();
+    }
+}
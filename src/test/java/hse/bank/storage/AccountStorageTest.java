@@ -0,0 +1,62 @@
+package hse.bank.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import hse.bank.domains.BankAccount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the AccountStorage class.
+ */
+class AccountStorageTest {
+    private static final int READERS = 4;
+
+    @AfterEach
+    void tearDown() {
+        AccountStorage.setAccounts(new ArrayList<>());
+    }
+
+    @Test
+    void getUserById_ShouldFindAccountWhileIndexIsResized() throws Exception {
+        BankAccount stable = new BankAccount(-1, "Stable", 10.0);
+        AccountStorage.setAccounts(new ArrayList<>(List.of(stable)));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(executor.submit(() -> {
+                int lookups = 0;
+                while (writing.get()) {
+                    assertEquals(stable, AccountStorage.getUserById(-1));
+                    lookups++;
+                }
+                return lookups;
+            }));
+        }
+
+        for (int round = 0; round < 20; round++) {
+            for (int id = 0; id < 5000; id++) {
+                AccountStorage.addUser(new BankAccount(id, "Account " + id, id));
+            }
+            for (int id = 0; id < 5000; id++) {
+                AccountStorage.deleteUserById(id);
+            }
+        }
+        writing.set(false);
+
+        for (Future<Integer> reader : readers) {
+            assertNotNull(reader.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+        assertEquals(1, AccountStorage.size());
+    }
+}
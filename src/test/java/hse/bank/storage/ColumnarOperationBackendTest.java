@@ -0,0 +1,188 @@
+package hse.bank.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the ColumnarOperationBackend class, checked against the HeapOperationBackend class.
+ */
+class ColumnarOperationBackendTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final List<BankAccount> accounts = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private HeapOperationBackend heap;
+    private ColumnarOperationBackend columnar;
+
+    @BeforeEach
+    void setUp() {
+        heap = new HeapOperationBackend();
+        columnar = new ColumnarOperationBackend();
+        AccountStorage.setAccounts(new ArrayList<>());
+        CategoryStorage.setCategories(new ArrayList<>());
+        accounts.clear();
+        categories.clear();
+        for (int i = 0; i < 5; i++) {
+            BankAccount account = new BankAccount(i, "Account " + i, 100.0 * i);
+            AccountStorage.addUser(account);
+            accounts.add(account);
+        }
+        for (int i = 0; i < 3; i++) {
+            Category category = new Category(i, i % 2 == 0, "Category " + i);
+            CategoryStorage.addCategory(category);
+            categories.add(category);
+        }
+    }
+
+    @Test
+    void add_ShouldReturnSameOperationsAsHeapBackend() {
+        for (int id = 0; id < 100; id++) {
+            add(operation(id, id % 5, START.plusMinutes(100 - id), id % 3 == 0 ? null : "Note " + id));
+        }
+
+        assertSameContent();
+        assertEquals(100, columnar.size());
+        Operation operation = columnar.get(42);
+        assertEquals(describe(heap.get(42)), describe(operation));
+        assertEquals(accounts.get(2), operation.getAccount());
+        assertNull(columnar.get(100));
+    }
+
+    @Test
+    void delete_ShouldRemoveOperationFromAllQueries() {
+        for (int id = 0; id < 20; id++) {
+            add(operation(id, id % 2, START.plusSeconds(id), "Note"));
+        }
+
+        heap.delete(7);
+        columnar.delete(7);
+        heap.delete(7);
+        columnar.delete(7);
+
+        assertNull(columnar.get(7));
+        assertEquals(19, columnar.size());
+        assertTrue(columnar.byAccount(1).stream().noneMatch(op -> op.getId() == 7));
+        assertSameContent();
+    }
+
+    @Test
+    void add_ShouldReplaceOperationWithSameId() {
+        add(operation(1, 0, START, "Old"));
+        add(operation(2, 0, START.plusHours(1), null));
+
+        add(operation(1, 3, START.plusHours(2), "New"));
+
+        assertEquals(2, columnar.size());
+        assertTrue(columnar.byAccount(0).stream().noneMatch(op -> op.getId() == 1));
+        assertEquals(Optional.of("New"), columnar.get(1).getDescription());
+        assertEquals(3, columnar.get(1).getAccount().getId());
+        assertSameContent();
+    }
+
+    @Test
+    void between_ShouldMatchHeapBackendForRanges() {
+        Random random = new Random(4);
+        for (int id = 0; id < 500; id++) {
+            LocalDateTime date = START.plusSeconds(random.nextInt(1000)).plusNanos(random.nextInt(3) * 500_000_000L);
+            add(operation(id, random.nextInt(5), date, null));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = START.plusSeconds(random.nextInt(1100) - 50);
+            LocalDateTime to = from.plusSeconds(random.nextInt(300)).plusNanos(random.nextInt(2) * 500_000_000L);
+            int accountId = random.nextInt(6);
+            assertEquals(describe(heap.between(from, to)), describe(columnar.between(from, to)));
+            assertEquals(describe(heap.between(accountId, from, to)), describe(columnar.between(accountId, from, to)));
+        }
+        assertTrue(columnar.between(START.plusSeconds(10), START.plusSeconds(10)).isEmpty());
+    }
+
+    @Test
+    void delete_ShouldKeepQueriesCorrectAfterCompaction() {
+        Random random = new Random(7);
+        for (int id = 0; id < 5000; id++) {
+            add(operation(id, random.nextInt(5), START.plusSeconds(random.nextInt(10_000)), "Note " + id));
+        }
+
+        for (int id = 0; id < 5000; id++) {
+            if (id % 4 != 0) {
+                heap.delete(id);
+                columnar.delete(id);
+            }
+        }
+        add(operation(5000, 1, START, "After compaction"));
+
+        assertEquals(1251, columnar.size());
+        assertTrue(columnar.descriptionCount() <= 2 * columnar.size());
+        assertSameContent();
+    }
+
+    @Test
+    void add_ShouldDropDescriptionsNoLongerUsed() {
+        for (int version = 0; version < 10_000; version++) {
+            add(operation(version % 10, version % 5, START.plusSeconds(version), "Version " + version));
+        }
+
+        assertEquals(10, columnar.size());
+        assertTrue(columnar.descriptionCount() <= 2048, "pool keeps " + columnar.descriptionCount());
+        assertSameContent();
+    }
+
+    @Test
+    void clear_ShouldRemoveAllOperations() {
+        add(operation(1, 1, START, "Note"));
+
+        columnar.clear();
+
+        assertEquals(0, columnar.size());
+        assertEquals(0, columnar.descriptionCount());
+        assertTrue(columnar.byAccount(1).isEmpty());
+        assertTrue(columnar.between(START.minusDays(1), START.plusDays(1)).isEmpty());
+    }
+
+    private void add(Operation operation) {
+        heap.add(operation);
+        columnar.add(operation);
+    }
+
+    private Operation operation(int id, int accountId, LocalDateTime date, String description) {
+        Category category = categories.get(id % categories.size());
+        return new Operation(id, category.isPositive(), accounts.get(accountId), id * 1.25, date, category,
+            Optional.ofNullable(description));
+    }
+
+    private void assertSameContent() {
+        Comparator<Operation> byId = Comparator.comparingInt(Operation::getId);
+        assertEquals(heap.size(), columnar.size());
+        assertEquals(describe(heap.stream().sorted(byId).toList()), describe(columnar.stream().sorted(byId).toList()));
+        for (BankAccount account : accounts) {
+            assertEquals(describe(heap.byAccount(account.getId())), describe(columnar.byAccount(account.getId())));
+        }
+        LocalDateTime from = START.minusYears(1);
+        LocalDateTime to = START.plusYears(1);
+        assertEquals(describe(heap.between(from, to)), describe(columnar.between(from, to)));
+    }
+
+    private static List<String> describe(List<Operation> operations) {
+        return operations.stream().map(ColumnarOperationBackendTest::describe).toList();
+    }
+
+    private static String describe(Operation operation) {
+        return operation.getId() + "," + operation.isType() + "," + operation.getAccount().getId() + ","
+            + operation.getAmount() + "," + operation.getDate() + "," + operation.getCategory().getId() + ","
+            + operation.getDescription().orElse("-");
+    }
+}
@@ -0,0 +1,130 @@
+package hse.bank.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the ConcurrentOperationBackend class.
+ */
+class ConcurrentOperationBackendTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5000;
+
+    private final Category category = new Category(0, true, "Category");
+    private final HeapOperationBackend heap = new HeapOperationBackend();
+    private final ConcurrentOperationBackend concurrent = new ConcurrentOperationBackend();
+
+    @Test
+    void operations_ShouldMatchHeapBackend() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            int id = random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                heap.delete(id);
+                concurrent.delete(id);
+            } else {
+                Operation operation = operation(id, random.nextInt(10), START.plusSeconds(random.nextInt(500)));
+                heap.add(operation);
+                concurrent.add(operation);
+            }
+        }
+
+        assertEquals(heap.size(), concurrent.size());
+        assertEquals(heap.stream().toList(), concurrent.stream().toList());
+        assertTrue(Arrays.equals(heap.ids(), concurrent.ids()));
+        for (int accountId = 0; accountId < 11; accountId++) {
+            assertEquals(heap.byAccount(accountId), concurrent.byAccount(accountId));
+            LocalDateTime from = START.plusSeconds(accountId * 40);
+            LocalDateTime to = from.plusSeconds(100);
+            assertEquals(heap.between(accountId, from, to), concurrent.between(accountId, from, to));
+            assertEquals(heap.between(from, to), concurrent.between(from, to));
+        }
+        for (int id = 0; id < 2000; id++) {
+            assertEquals(heap.get(id), concurrent.get(id));
+        }
+    }
+
+    @Test
+    void add_ShouldKeepIndexesConsistentWhenCalledFromManyThreads() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int id = thread * OPERATIONS_PER_THREAD + i;
+                    concurrent.add(operation(id, thread, START.plusSeconds(i)));
+                    if (i > 0 && i % 3 == 0) {
+                        concurrent.delete(id - 1);
+                    }
+                }
+                return null;
+            }));
+        }
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 200; i++) {
+                List<Operation> range = concurrent.between(START, START.plusSeconds(OPERATIONS_PER_THREAD));
+                for (int j = 1; j < range.size(); j++) {
+                    assertTrue(!range.get(j).getDate().isBefore(range.get(j - 1).getDate()));
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        reader.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        int expectedPerThread = OPERATIONS_PER_THREAD - (OPERATIONS_PER_THREAD - 1) / 3;
+        assertEquals(THREADS * expectedPerThread, concurrent.size());
+        assertEquals(concurrent.size(), concurrent.ids().length);
+        assertEquals(concurrent.size(), concurrent.between(START.minusDays(1), START.plusDays(1)).size());
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<Operation> accountOperations = concurrent.byAccount(thread);
+            assertEquals(expectedPerThread, accountOperations.size());
+            int account = thread;
+            assertTrue(accountOperations.stream().allMatch(op -> op.getAccount().getId() == account));
+        }
+        assertNull(concurrent.get(2));
+    }
+
+    @Test
+    void add_ShouldMoveReplacedOperationToNewAccount() {
+        concurrent.add(operation(1, 0, START));
+
+        concurrent.add(operation(1, 5, START.plusHours(1)));
+
+        assertTrue(concurrent.byAccount(0).isEmpty());
+        assertEquals(1, concurrent.byAccount(5).size());
+        assertEquals(1, concurrent.between(START, START.plusDays(1)).size());
+        assertEquals(1, concurrent.size());
+    }
+
+    private Operation operation(int id, int accountId, LocalDateTime date) {
+        return new Operation(id, true, new BankAccount(accountId, "Account", 0), id, date, category,
+            Optional.empty());
+    }
+}
@@ -0,0 +1,68 @@
+package hse.bank.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the IntIntHashMap class.
+ */
+class IntIntHashMapTest {
+
+    @Test
+    void put_ShouldReplaceValueOfExistingKey() {
+        IntIntHashMap map = new IntIntHashMap();
+
+        map.put(5, 1);
+        map.put(5, 2);
+
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(5));
+        assertEquals(IntIntHashMap.NO_VALUE, map.get(6));
+    }
+
+    @Test
+    void remove_ShouldReturnRemovedValue() {
+        IntIntHashMap map = new IntIntHashMap();
+        map.put(-3, 7);
+
+        assertEquals(7, map.remove(-3));
+        assertEquals(IntIntHashMap.NO_VALUE, map.remove(-3));
+        assertEquals(IntIntHashMap.NO_VALUE, map.get(-3));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void operations_ShouldMatchHashMap() {
+        IntIntHashMap map = new IntIntHashMap();
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5000) - 2500;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                case 1 -> {
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed == null ? IntIntHashMap.NO_VALUE : removed, map.remove(key));
+                }
+                default -> assertEquals((int) expected.getOrDefault(key, IntIntHashMap.NO_VALUE), map.get(key));
+            }
+            if (random.nextInt(50_000) == 0) {
+                map.clear();
+                expected.clear();
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = -2500; key < 2500; key++) {
+            assertEquals((int) expected.getOrDefault(key, IntIntHashMap.NO_VALUE), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package hse.bank.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hse.bank.domains.BankAccount;
+import hse.bank.domains.Category;
+import hse.bank.domains.Operation;
+import hse.bank.enums.OperationBackendType;
+import hse.bank.factories.OperationFactory;
+import hse.bank.records.OperationData;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests for the MappedOperationBackend class.
+ */
+class MappedOperationBackendTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 250_000_000);
+
+    @TempDir
+    private Path directory;
+    private Path file;
+    private BankAccount account;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("operations.bin");
+        account = new BankAccount(1, "Account", 100.0);
+        category = new Category(2, true, "Salary");
+        AccountStorage.setAccounts(new ArrayList<>(List.of(account)));
+        CategoryStorage.setCategories(new ArrayList<>(List.of(category)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        OperationStorage.setBackend(new ConcurrentOperationBackend());
+        OperationStorage.setOperations(new ArrayList<>());
+        OperationFactory.flush();
+    }
+
+    @Test
+    void reopen_ShouldReadOperationsWrittenBeforeClose() throws IOException {
+        try (MappedOperationBackend backend = new MappedOperationBackend(file)) {
+            for (int id = 0; id < 10; id++) {
+                backend.add(operation(id, id % 2 == 0 ? "Note " + id : null));
+            }
+            backend.delete(3);
+            backend.add(operation(4, "Updated"));
+        }
+
+        try (MappedOperationBackend backend = new MappedOperationBackend(file)) {
+            assertEquals(9, backend.size());
+            assertNull(backend.get(3));
+            assertEquals(Optional.of("Updated"), backend.get(4).getDescription());
+            assertEquals(Optional.empty(), backend.get(5).getDescription());
+            assertEquals(START.plusMinutes(7), backend.get(7).getDate());
+            assertEquals(account, backend.get(7).getAccount());
+            assertEquals(category, backend.get(7).getCategory());
+            assertEquals(9, backend.byAccount(account.getId()).size());
+        }
+    }
+
+    @Test
+    void close_ShouldKeepOperationsOfInstalledBackendInFile() throws IOException {
+        OperationStorage.setBackend(new MappedOperationBackend(file));
+        List<Operation> operations = List.of(operation(1, "First"), operation(2, null), operation(3, "Third"));
+        OperationStorage.addOperations(operations);
+
+        new OperationBackendConfig().close();
+
+        assertTrue(OperationStorage.getBackend() instanceof ConcurrentOperationBackend);
+        try (MappedOperationBackend backend = new MappedOperationBackend(file)) {
+            assertEquals(describe(operations), describe(backend.stream().toList()));
+        }
+    }
+
+    @Test
+    void reopen_ShouldNotReuseIdsOfStoredOperations() throws IOException {
+        List<Operation> stored = new ArrayList<>();
+        try (MappedOperationBackend backend = new MappedOperationBackend(file)) {
+            for (int id = 0; id < 10; id++) {
+                stored.add(operation(id, "Stored " + id));
+                backend.add(stored.get(id));
+            }
+            backend.delete(9);
+            stored.remove(9);
+        }
+        OperationFactory.flush();
+
+        OperationStorage.setBackend(new MappedOperationBackend(file));
+        List<Operation> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(OperationFactory.createOperation(
+                new OperationData(true, account, 1.0, category, Optional.of("New " + i))));
+        }
+        OperationStorage.addOperations(created);
+
+        assertEquals(List.of(9, 10, 11), created.stream().map(Operation::getId).toList());
+        assertEquals(12, OperationStorage.size());
+        for (Operation op : stored) {
+            assertEquals(op.getDescription(), OperationStorage.getOperationById(op.getId()).getDescription());
+        }
+        new OperationBackendConfig().close();
+        try (MappedOperationBackend backend = new MappedOperationBackend(file)) {
+            assertEquals(describe(stored), describe(backend.stream().limit(9).toList()));
+            assertEquals(12, backend.size());
+        }
+    }
+
+    @Test
+    void install_ShouldRefuseMappedBackendWithoutJournal() {
+        OperationBackendConfig config = new OperationBackendConfig();
+        ReflectionTestUtils.setField(config, "backendType", OperationBackendType.MAPPED);
+        ReflectionTestUtils.setField(config, "file", file.toString());
+        ReflectionTestUtils.setField(config, "journalPath", "");
+
+        assertThrows(IllegalStateException.class, config::install);
+        assertTrue(OperationStorage.getBackend() instanceof ConcurrentOperationBackend);
+    }
+
+    private Operation operation(int id, String description) {
+        return new Operation(id, true, account, id * 10.5, START.plusMinutes(id), category,
+            Optional.ofNullable(description));
+    }
+
+    private static List<String> describe(List<Operation> operations) {
+        return operations.stream()
+            .map(op -> op.getId() + "," + op.getAmount() + "," + op.getDate() + "," + op.getDescription())
+            .toList();
+    }
+}